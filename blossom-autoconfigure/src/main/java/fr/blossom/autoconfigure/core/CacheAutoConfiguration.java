@@ -2,8 +2,21 @@ package fr.blossom.autoconfigure.core;
 
 import fr.blossom.core.cache.BlossomCacheManager;
 import fr.blossom.core.cache.BlossomCacheResolver;
+import fr.blossom.core.cache.CacheInvalidationBus;
+import fr.blossom.core.cache.DatabaseCacheInvalidationBus;
+import fr.blossom.core.common.dao.AssociationCacheEventListeners;
+import fr.blossom.core.common.dao.AssociationDao;
+import fr.blossom.core.common.dao.CacheWarmUp;
+import fr.blossom.core.common.dao.ReadOnlyDao;
+import fr.blossom.core.common.search.SearchResultCache;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheResolver;
@@ -11,6 +24,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Created by maelg on 10/05/2017.
@@ -27,7 +41,52 @@ public class CacheAutoConfiguration {
     }
 
     @Bean
-    public CacheManager blossomCacheManager( Environment environment){
-        return new BlossomCacheManager(environment);
+    @ConditionalOnProperty(name = "blossom.cache.invalidation.enabled", havingValue = "true")
+    public CacheInvalidationBus cacheInvalidationBus(DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      @Value("${blossom.cache.invalidation.poll-interval}") long pollInterval,
+      @Value("${blossom.cache.invalidation.overlap}") long overlap,
+      @Value("${blossom.cache.invalidation.retention}") long retention) {
+        return new DatabaseCacheInvalidationBus(dataSource, transactionManager, pollInterval, overlap, retention);
+    }
+
+    @Bean
+    public CacheManager blossomCacheManager( Environment environment,
+      ObjectProvider<CacheInvalidationBus> invalidationBus){
+        BlossomCacheManager cacheManager = new BlossomCacheManager(environment);
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            cacheManager.setInvalidationBus(bus);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public AssociationCacheEventListeners associationCacheEventListeners(
+      ObjectProvider<List<AssociationDao<?, ?, ?>>> associationDaos) {
+        List<AssociationDao<?, ?, ?>> daos = associationDaos.getIfAvailable();
+        return new AssociationCacheEventListeners(daos == null ? Collections.emptyList() : daos);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "blossom.cache.warm-up.enabled", havingValue = "true")
+    public CacheWarmUp cacheWarmUp(ObjectProvider<List<ReadOnlyDao<?>>> readOnlyDaos,
+      @Value("${blossom.cache.warm-up.limit}") int limit,
+      @Value("${blossom.cache.warm-up.batch-size}") int batchSize,
+      @Value("${blossom.cache.warm-up.parallelism}") int parallelism,
+      @Value("${blossom.cache.warm-up.budget}") long budget) {
+        List<ReadOnlyDao<?>> daos = readOnlyDaos.getIfAvailable();
+        return new CacheWarmUp(daos == null ? Collections.emptyList() : daos, limit, batchSize, parallelism, budget);
+    }
+
+    @Bean
+    public SearchResultCache searchResultCache(CacheManager cacheManager,
+      ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        SearchResultCache searchResultCache = new SearchResultCache(cacheManager);
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            searchResultCache.setInvalidationBus(bus);
+        }
+        return searchResultCache;
     }
 }
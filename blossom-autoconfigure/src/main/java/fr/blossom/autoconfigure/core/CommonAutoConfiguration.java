@@ -2,6 +2,11 @@ package fr.blossom.autoconfigure.core;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import fr.blossom.core.common.entity.id.BlossomIdentifierGenerator;
+import fr.blossom.core.common.entity.id.IdGenerator;
+import fr.blossom.core.common.entity.id.PooledTableIdGenerator;
+import fr.blossom.core.common.entity.id.RandomIdGenerator;
+import fr.blossom.core.common.entity.id.SnowflakeIdGenerator;
 import fr.blossom.core.common.mapper.MapperPlugin;
 import fr.blossom.core.common.service.ReadOnlyServicePlugin;
 import fr.blossom.core.common.utils.action_token.ActionTokenService;
@@ -11,17 +16,13 @@ import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import org.elasticsearch.action.bulk.BulkProcessor;
-import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
-import org.elasticsearch.client.Client;
-import org.elasticsearch.common.unit.ByteSizeUnit;
-import org.elasticsearch.common.unit.ByteSizeValue;
-import org.elasticsearch.common.unit.TimeValue;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -36,6 +37,7 @@ import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
 import org.springframework.plugin.core.config.EnablePluginRegistries;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -56,7 +58,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @PropertySource({
   "classpath:/freemarker.properties",
   "classpath:/elasticsearch.properties",
-  "classpath:/jpa.properties"})
+  "classpath:/jpa.properties",
+  "classpath:/id.properties"})
 @EnableTransactionManagement
 public class CommonAutoConfiguration {
 
@@ -98,31 +101,32 @@ public class CommonAutoConfiguration {
   }
 
   @Bean
-  @ConditionalOnMissingBean(BulkProcessor.class)
-  public BulkProcessor bulkProcessor(Client client) {
-    return BulkProcessor.builder(client, new BulkProcessor.Listener() {
-
-      @Override
-      public void beforeBulk(long executionId, BulkRequest request) {
-        logger.info("Before bulk {} with {} actions to execute", executionId, request.numberOfActions());
-      }
-
-      @Override
-      public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
-        logger.error("Error on bulk {} with {} actions to execute", executionId, request.numberOfActions(), failure);
-      }
-
-      @Override
-      public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
-        logger.info("Successful bulk {} with {} actions executed in {} ms.", executionId, request.numberOfActions(), response.getTookInMillis());
+  @ConditionalOnMissingBean(IdGenerator.class)
+  public IdGenerator idGenerator(DataSource dataSource,
+    @Value("${blossom.id.strategy}") String strategy,
+    @Value("${blossom.id.pool-size}") int poolSize,
+    @Value("${blossom.id.node-id}") long nodeId) {
+    IdGenerator idGenerator;
+    switch (strategy) {
+      case "random":
+        idGenerator = new RandomIdGenerator();
+        break;
+      case "pooled":
+        idGenerator = new PooledTableIdGenerator(dataSource, "blossom", poolSize);
+        break;
+      case "snowflake":
+        idGenerator = new SnowflakeIdGenerator(nodeId);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown id generation strategy " + strategy + ", expected one of random, pooled or snowflake");
+    }
+    logger.info("Using {} id generation strategy", strategy);
+    return idGenerator;
+  }
 
-      }
-    })
-      .setName("Blossom Bulk Processor")
-      .setBulkActions(500)
-      .setBulkSize(new ByteSizeValue(10, ByteSizeUnit.MB))
-      .setFlushInterval(new TimeValue(30, TimeUnit.SECONDS))
-      .build();
+  @Bean
+  public static IdGeneratorRegistration idGeneratorRegistration(ObjectFactory<IdGenerator> idGenerator) {
+    return new IdGeneratorRegistration(idGenerator);
   }
 
   @Bean
@@ -153,6 +157,33 @@ public class CommonAutoConfiguration {
     return new AuditingEntityListener();
   }
 
+  /**
+   * Registers the {@link IdGenerator} bean in the settings of the entity manager factories of the
+   * context, where {@link BlossomIdentifierGenerator} picks it up.
+   */
+  public static class IdGeneratorRegistration implements BeanPostProcessor {
+
+    private final ObjectFactory<IdGenerator> idGenerator;
+
+    public IdGeneratorRegistration(ObjectFactory<IdGenerator> idGenerator) {
+      this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+      if (bean instanceof AbstractEntityManagerFactoryBean) {
+        ((AbstractEntityManagerFactoryBean) bean).getJpaPropertyMap()
+          .put(BlossomIdentifierGenerator.ID_GENERATOR_SETTING, idGenerator.getObject());
+      }
+      return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      return bean;
+    }
+  }
+
   public static class SecurityAuditor implements AuditorAware<String> {
 
     @Override
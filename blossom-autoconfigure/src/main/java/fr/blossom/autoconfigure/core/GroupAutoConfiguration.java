@@ -17,9 +17,9 @@ import fr.blossom.core.group.GroupIndexationJob;
 import fr.blossom.core.group.GroupRepository;
 import fr.blossom.core.group.GroupService;
 import fr.blossom.core.group.GroupServiceImpl;
+import fr.blossom.core.scheduler.IndexationJob;
 import java.io.IOException;
 import java.util.function.Function;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
@@ -100,11 +100,10 @@ public class GroupAutoConfiguration {
   @Bean
   public IndexationEngineImpl<GroupDTO> groupIndexationEngine(Client client,
     GroupService groupService,
-    BulkProcessor bulkProcessor,
     ObjectMapper objectMapper,
     IndexationEngineConfiguration<GroupDTO> groupIndexationEngineConfiguration
   ) throws IOException {
-    return new IndexationEngineImpl<>(client, groupService, bulkProcessor, objectMapper,
+    return new IndexationEngineImpl<>(client, groupService, objectMapper,
       groupIndexationEngineConfiguration);
   }
 
@@ -158,8 +157,9 @@ public class GroupAutoConfiguration {
     @Qualifier("groupIndexationFullJob") JobDetail groupIndexationFullJob) {
     SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
     factoryBean.setName("Group re-indexation");
-    factoryBean.setDescription("Periodic re-indexation of all groups of the application");
+    factoryBean.setDescription("Periodic re-indexation of the groups of the application modified since the last run");
     factoryBean.setJobDetail(groupIndexationFullJob);
+    factoryBean.getJobDataMap().put(IndexationJob.DELTA, "true");
     factoryBean.setStartDelay((long) 30 * 1000);
     factoryBean.setRepeatInterval(1 * 60 * 60 * 1000);
     factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
@@ -1,16 +1,27 @@
 package fr.blossom.autoconfigure.core;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.blossom.core.common.PluginConstants;
 import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.entity.id.IdGenerator;
 import fr.blossom.core.common.search.IndexationEngine;
 import fr.blossom.core.common.search.IndexationEventListeners;
+import fr.blossom.core.common.search.IndexationOutbox;
+import fr.blossom.core.common.search.IndexationQueue;
 import fr.blossom.core.common.search.SearchEngine;
+import fr.blossom.core.scheduler.IndexationOutboxJob;
+import javax.sql.DataSource;
+import org.quartz.JobDetail;
+import org.quartz.SimpleTrigger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.plugin.core.PluginRegistry;
 import org.springframework.plugin.core.config.EnablePluginRegistries;
+import org.springframework.scheduling.quartz.JobDetailFactoryBean;
+import org.springframework.scheduling.quartz.SimpleTriggerFactoryBean;
 
 /**
  * Created by maelg on 07/05/2017.
@@ -24,8 +35,54 @@ public class IndexationEngineAutoConfiguration {
   private PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> registry;
 
   @Bean
-  public IndexationEventListeners indexationEventListeners(){
-    return new IndexationEventListeners(registry);
+  public IndexationQueue indexationQueue(
+    @Value("${blossom.indexation.queue.flush-interval}") long flushInterval,
+    @Value("${blossom.indexation.queue.batch-size}") int batchSize,
+    @Value("${blossom.indexation.queue.max-backoff}") long maxBackoff) {
+    return new IndexationQueue(registry, flushInterval, batchSize, maxBackoff);
+  }
+
+  @Bean
+  public IndexationOutbox indexationOutbox(DataSource dataSource, ObjectMapper objectMapper,
+    IdGenerator idGenerator, IndexationQueue indexationQueue,
+    @Value("${blossom.indexation.outbox.grace-period}") long gracePeriod,
+    @Value("${blossom.indexation.outbox.drain-size}") int drainSize) {
+    IndexationOutbox indexationOutbox = new IndexationOutbox(dataSource, objectMapper, idGenerator,
+      indexationQueue, registry, gracePeriod, drainSize);
+    indexationQueue.setIndexationOutbox(indexationOutbox);
+    return indexationOutbox;
+  }
+
+  @Bean
+  public JobDetailFactoryBean indexationOutboxJob() {
+    JobDetailFactoryBean factoryBean = new JobDetailFactoryBean();
+    factoryBean.setJobClass(IndexationOutboxJob.class);
+    factoryBean.setGroup("Indexation");
+    factoryBean.setName("Indexation Outbox Job");
+    factoryBean.setDescription("Ships the indexation operations the application couldn't ship right after their transaction");
+    factoryBean.setDurability(true);
+    return factoryBean;
+  }
+
+  @Bean
+  @Qualifier("indexationOutboxTrigger")
+  public SimpleTriggerFactoryBean indexationOutboxTrigger(
+    @Qualifier("indexationOutboxJob") JobDetail indexationOutboxJob,
+    @Value("${blossom.indexation.outbox.drain-interval}") long drainInterval) {
+    SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
+    factoryBean.setName("Indexation outbox drain");
+    factoryBean.setDescription("Periodic drain of the indexation outbox");
+    factoryBean.setJobDetail(indexationOutboxJob);
+    factoryBean.setStartDelay(drainInterval);
+    factoryBean.setRepeatInterval(drainInterval);
+    factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
+    factoryBean.setMisfireInstruction(SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT);
+    return factoryBean;
+  }
+
+  @Bean
+  public IndexationEventListeners indexationEventListeners(IndexationOutbox indexationOutbox){
+    return new IndexationEventListeners(indexationOutbox);
   }
 
 }
@@ -19,9 +19,9 @@ import fr.blossom.core.role.RoleIndexationJob;
 import fr.blossom.core.role.RoleRepository;
 import fr.blossom.core.role.RoleService;
 import fr.blossom.core.role.RoleServiceImpl;
+import fr.blossom.core.scheduler.IndexationJob;
 import fr.blossom.core.user.UserDTO;
 import java.util.function.Function;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
@@ -111,10 +111,9 @@ public class RoleAutoConfiguration {
   @Bean
   public IndexationEngineImpl<RoleDTO> roleIndexationEngine(Client client,
     RoleService roleService,
-    BulkProcessor bulkProcessor,
     ObjectMapper objectMapper,
     IndexationEngineConfiguration<RoleDTO> roleIndexationEngineConfiguration) {
-    return new IndexationEngineImpl<>(client, roleService, bulkProcessor, objectMapper,
+    return new IndexationEngineImpl<>(client, roleService, objectMapper,
       roleIndexationEngineConfiguration);
   }
 
@@ -168,8 +167,9 @@ public class RoleAutoConfiguration {
     @Qualifier("roleIndexationFullJob") JobDetail roleIndexationFullJob) {
     SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
     factoryBean.setName("Role re-indexation");
-    factoryBean.setDescription("Periodic re-indexation of all roles of the application");
+    factoryBean.setDescription("Periodic re-indexation of the roles of the application modified since the last run");
     factoryBean.setJobDetail(roleIndexationFullJob);
+    factoryBean.getJobDataMap().put(IndexationJob.DELTA, "true");
     factoryBean.setStartDelay((long) 30 * 1000);
     factoryBean.setRepeatInterval(1 * 60 * 60 * 1000);
     factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
@@ -11,7 +11,9 @@ import fr.blossom.core.common.search.SummaryDTO.SummaryDTOBuilder;
 import fr.blossom.core.common.utils.action_token.ActionTokenService;
 import fr.blossom.core.common.utils.mail.MailSender;
 import fr.blossom.core.group.GroupDTO;
+import fr.blossom.core.scheduler.IndexationJob;
 import fr.blossom.core.user.User;
+import fr.blossom.core.user.UserAvatarRepository;
 import fr.blossom.core.user.UserDTO;
 import fr.blossom.core.user.UserDTOMapper;
 import fr.blossom.core.user.UserDao;
@@ -23,7 +25,6 @@ import fr.blossom.core.user.UserRepository;
 import fr.blossom.core.user.UserService;
 import fr.blossom.core.user.UserServiceImpl;
 import java.util.function.Function;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
@@ -71,8 +72,8 @@ public class UserAutoConfiguration {
 
   @Bean
   @ConditionalOnMissingBean(UserDao.class)
-  public UserDao userDao(UserRepository userRepository) {
-    return new UserDaoImpl(userRepository);
+  public UserDao userDao(UserRepository userRepository, UserAvatarRepository userAvatarRepository) {
+    return new UserDaoImpl(userRepository, userAvatarRepository);
   }
 
   @Bean
@@ -118,10 +119,9 @@ public class UserAutoConfiguration {
   @Bean
   public IndexationEngineImpl<UserDTO> userIndexationEngine(Client client,
     UserService userService,
-    BulkProcessor bulkProcessor,
     ObjectMapper objectMapper,
     IndexationEngineConfiguration<UserDTO> userIndexationEngineConfiguration) {
-    return new IndexationEngineImpl<>(client, userService, bulkProcessor, objectMapper,
+    return new IndexationEngineImpl<>(client, userService, objectMapper,
       userIndexationEngineConfiguration);
   }
 
@@ -174,8 +174,9 @@ public class UserAutoConfiguration {
     @Qualifier("userIndexationFullJob") JobDetail userIndexationFullJob) {
     SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
     factoryBean.setName("User re-indexation");
-    factoryBean.setDescription("Periodic re-indexation of all users of the application");
+    factoryBean.setDescription("Periodic re-indexation of the users of the application modified since the last run");
     factoryBean.setJobDetail(userIndexationFullJob);
+    factoryBean.getJobDataMap().put(IndexationJob.DELTA, "true");
     factoryBean.setStartDelay((long) 30 * 1000);
     factoryBean.setRepeatInterval(1 * 60 * 60 * 1000);
     factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
@@ -10,6 +10,7 @@ import fr.blossom.core.common.search.SearchEngineImpl;
 import fr.blossom.core.common.search.SummaryDTO;
 import fr.blossom.core.common.search.SummaryDTO.SummaryDTOBuilder;
 import fr.blossom.core.role.RoleDTO;
+import fr.blossom.core.scheduler.IndexationJob;
 import fr.blossom.module.article.Article;
 import fr.blossom.module.article.ArticleDTO;
 import fr.blossom.module.article.ArticleDTOMapper;
@@ -20,7 +21,6 @@ import fr.blossom.module.article.ArticleRepository;
 import fr.blossom.module.article.ArticleService;
 import fr.blossom.module.article.ArticleServiceImpl;
 import java.util.function.Function;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
@@ -101,9 +101,9 @@ public class ArticleAutoConfiguration {
   @Bean
   public IndexationEngineImpl<ArticleDTO> articleIndexationEngine(Client client,
     ArticleService articleService,
-    BulkProcessor bulkProcessor, ObjectMapper objectMapper,
+    ObjectMapper objectMapper,
     IndexationEngineConfiguration<ArticleDTO> articleIndexationEngineConfiguration) {
-    return new IndexationEngineImpl<>(client, articleService, bulkProcessor, objectMapper, articleIndexationEngineConfiguration);
+    return new IndexationEngineImpl<>(client, articleService, objectMapper, articleIndexationEngineConfiguration);
   }
 
   @Bean
@@ -154,8 +154,9 @@ public class ArticleAutoConfiguration {
     @Qualifier("articleIndexationFullJob") JobDetail articleIndexationFullJob) {
     SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
     factoryBean.setName("Article re-indexation");
-    factoryBean.setDescription("Periodic re-indexation of all articles of the application");
+    factoryBean.setDescription("Periodic re-indexation of the articles of the application modified since the last run");
     factoryBean.setJobDetail(articleIndexationFullJob);
+    factoryBean.getJobDataMap().put(IndexationJob.DELTA, "true");
     factoryBean.setStartDelay((long) 30 * 1000);
     factoryBean.setRepeatInterval(1 * 60 * 60 * 1000);
     factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
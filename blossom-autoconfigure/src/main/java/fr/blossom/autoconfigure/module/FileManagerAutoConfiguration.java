@@ -4,9 +4,9 @@ import fr.blossom.core.common.search.IndexationEngineConfiguration;
 import fr.blossom.core.common.search.SearchEngineConfiguration;
 import fr.blossom.core.common.search.SummaryDTO;
 import fr.blossom.core.common.search.SummaryDTO.SummaryDTOBuilder;
+import fr.blossom.core.scheduler.IndexationJob;
 import fr.blossom.module.article.ArticleDTO;
 import java.util.function.Function;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.quartz.JobDetail;
 import org.quartz.SimpleTrigger;
@@ -120,8 +120,8 @@ public class FileManagerAutoConfiguration {
 
   @Bean
   public IndexationEngineImpl<FileDTO> fileIndexationEngine(Client client, FileService fileService,
-      BulkProcessor bulkProcessor, ObjectMapper objectMapper, IndexationEngineConfiguration<FileDTO> fileIndexationEngineConfiguration) {
-    return new IndexationEngineImpl<>(client,fileService,bulkProcessor,objectMapper,fileIndexationEngineConfiguration);
+      ObjectMapper objectMapper, IndexationEngineConfiguration<FileDTO> fileIndexationEngineConfiguration) {
+    return new IndexationEngineImpl<>(client,fileService,objectMapper,fileIndexationEngineConfiguration);
   }
 
   @Bean
@@ -178,8 +178,9 @@ public class FileManagerAutoConfiguration {
       @Qualifier("fileIndexationFullJob") JobDetail fileIndexationFullJob) {
     SimpleTriggerFactoryBean factoryBean = new SimpleTriggerFactoryBean();
     factoryBean.setName("File re-indexation");
-    factoryBean.setDescription("Periodic re-indexation of all files of the application");
+    factoryBean.setDescription("Periodic re-indexation of the files of the application modified since the last run");
     factoryBean.setJobDetail(fileIndexationFullJob);
+    factoryBean.getJobDataMap().put(IndexationJob.DELTA, "true");
     factoryBean.setStartDelay((long) 30 * 1000);
     factoryBean.setRepeatInterval(1 * 60 * 60 * 1000);
     factoryBean.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
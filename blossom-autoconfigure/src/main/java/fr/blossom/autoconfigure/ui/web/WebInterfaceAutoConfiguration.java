@@ -2,7 +2,9 @@ package fr.blossom.autoconfigure.ui.web;
 
 import fr.blossom.core.common.PluginConstants;
 import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.search.Omnisearch;
 import fr.blossom.core.common.search.SearchEngine;
+import fr.blossom.core.common.search.SearchResultCache;
 import fr.blossom.core.common.utils.action_token.ActionTokenService;
 import fr.blossom.core.user.UserService;
 import fr.blossom.ui.current_user.CurrentUserControllerAdvice;
@@ -19,10 +21,10 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import org.elasticsearch.client.Client;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -33,7 +35,7 @@ import org.springframework.plugin.core.PluginRegistry;
  */
 @Configuration
 @ConditionalOnClass(HomeController.class)
-@PropertySource({"classpath:/languages.properties"})
+@PropertySource({"classpath:/languages.properties", "classpath:/web.properties"})
 public class WebInterfaceAutoConfiguration {
 
   @Bean
@@ -47,9 +49,16 @@ public class WebInterfaceAutoConfiguration {
   }
 
   @Bean
-  public OmnisearchController searchController(Client client,
-    @Qualifier(PluginConstants.PLUGIN_SEARCH_ENGINE) PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry) {
-    return new OmnisearchController(client, registry);
+  public Omnisearch omnisearch(
+    @Qualifier(PluginConstants.PLUGIN_SEARCH_ENGINE) PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry,
+    CacheManager cacheManager, SearchResultCache searchResultCache,
+    @Value("${blossom.omnisearch.engine-timeout}") long engineTimeout) {
+    return new Omnisearch(registry, cacheManager, searchResultCache, engineTimeout);
+  }
+
+  @Bean
+  public OmnisearchController searchController(Omnisearch omnisearch) {
+    return new OmnisearchController(omnisearch);
   }
 
   @Bean
@@ -59,8 +68,8 @@ public class WebInterfaceAutoConfiguration {
   }
 
   @Bean
-  public CurrentUserControllerAdvice currentUserControllerAdvice() {
-    return new CurrentUserControllerAdvice();
+  public CurrentUserControllerAdvice currentUserControllerAdvice(UserService userService) {
+    return new CurrentUserControllerAdvice(userService);
   }
 
   @Bean
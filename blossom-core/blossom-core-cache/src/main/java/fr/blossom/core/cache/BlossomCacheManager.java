@@ -1,8 +1,17 @@
 package fr.blossom.core.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.github.benmanes.caffeine.cache.Policy.Eviction;
+import com.github.benmanes.caffeine.cache.Weigher;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.core.env.Environment;
 import org.springframework.util.StringUtils;
@@ -10,14 +19,122 @@ import org.springframework.util.StringUtils;
 /**
  * Created by maelg on 12/05/2017.
  */
-public class BlossomCacheManager extends CaffeineCacheManager {
+public class BlossomCacheManager extends CaffeineCacheManager implements CacheInvalidationBus.Listener {
+
+  private final static int SIZE_SAMPLE = 100;
 
   private final Environment environment;
+  private CacheInvalidationBus invalidationBus;
+  private final Map<String, CacheLoader<Object, Object>> cacheLoaders = new ConcurrentHashMap<>();
+  private final Map<String, Weigher<Object, Object>> weighers = new ConcurrentHashMap<>();
+  private Weigher<Object, Object> defaultWeigher = new EstimatedSizeWeigher();
 
   public BlossomCacheManager(Environment environment) {
     this.environment = environment;
   }
 
+  /**
+   * Turns the caches into near caches : local caches whose changes are broadcast to the other nodes on
+   * the given bus, and invalidated by the changes of the other nodes. Must be set before any cache is
+   * created.
+   *
+   * @param invalidationBus the bus shared by the nodes
+   */
+  public void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+    this.invalidationBus = invalidationBus;
+    invalidationBus.subscribe(this);
+  }
+
+  /**
+   * Registers the loader of the given cache. Caches whose spec has a {@literal refreshAfterWrite} are
+   * built as loading caches : a miss is loaded once whatever the number of concurrent readers, and an
+   * entry older than the refresh delay is reloaded in the background while its current value is still
+   * served. Loading caches without a registered loader act as plain caches.
+   *
+   * @param name the name of the cache
+   * @param cacheLoader the loader of the entries, returning null for the keys it can't load
+   */
+  public void registerCacheLoader(String name, CacheLoader<Object, Object> cacheLoader) {
+    this.cacheLoaders.put(name, cacheLoader);
+  }
+
+  /**
+   * Sets the weigher of the caches whose spec has a {@literal maximumWeight} and no weigher of their
+   * own, the {@link EstimatedSizeWeigher} by default.
+   *
+   * @param defaultWeigher the weigher
+   */
+  public void setDefaultWeigher(Weigher<Object, Object> defaultWeigher) {
+    this.defaultWeigher = defaultWeigher;
+  }
+
+  /**
+   * Registers the weigher of the given cache, used when its spec has a {@literal maximumWeight}. Must
+   * be registered before the cache is first used.
+   *
+   * @param name the name of the cache
+   * @param weigher the weigher of the entries
+   */
+  public void registerWeigher(String name, Weigher<Object, Object> weigher) {
+    this.weighers.put(name, weigher);
+  }
+
+  /**
+   * Returns the estimated memory retained by the entries of the given cache : its weighted size when
+   * weighed by the {@link EstimatedSizeWeigher}, otherwise the size of a sample of
+   * {@value #SIZE_SAMPLE} entries extrapolated to the whole cache.
+   *
+   * @param name the name of the cache
+   * @return the estimated size in bytes
+   */
+  @SuppressWarnings("unchecked")
+  public long getEstimatedBytes(String name) {
+    org.springframework.cache.Cache cache = this.getCache(name);
+    if (cache == null || !(cache.getNativeCache() instanceof Cache)) {
+      return 0;
+    }
+    Cache<Object, Object> nativeCache = (Cache<Object, Object>) cache.getNativeCache();
+    Optional<Eviction<Object, Object>> eviction = nativeCache.policy().eviction();
+    if (eviction.isPresent() && eviction.get().isWeighted()
+      && this.weighers.getOrDefault(name, this.defaultWeigher) instanceof EstimatedSizeWeigher) {
+      return eviction.get().weightedSize().orElse(0);
+    }
+
+    long sampled = 0;
+    long bytes = 0;
+    for (Map.Entry<Object, Object> entry : nativeCache.asMap().entrySet()) {
+      if (sampled == SIZE_SAMPLE) {
+        break;
+      }
+      bytes += ObjectSizeEstimator.estimate(entry.getKey()) + ObjectSizeEstimator.estimate(entry.getValue());
+      sampled++;
+    }
+    return sampled == 0 ? 0 : bytes * nativeCache.estimatedSize() / sampled;
+  }
+
+  @Override
+  protected org.springframework.cache.Cache createCaffeineCache(String name) {
+    org.springframework.cache.Cache cache = super.createCaffeineCache(name);
+    return this.invalidationBus == null ? cache : new NearCache(cache, this.invalidationBus);
+  }
+
+  @Override
+  public void onInvalidation(String cacheName, Object key) {
+    if (!this.getCacheNames().contains(cacheName)) {
+      return;
+    }
+    org.springframework.cache.Cache cache = this.getCache(cacheName);
+    if (cache instanceof NearCache) {
+      ((NearCache) cache).invalidateLocally(key);
+    }
+  }
+
+  /**
+   * Builds the cache with its own {@literal blossom.cache.<name>.spec}, whether it's named after the
+   * class of a DAO or declared by a cache operation, or with {@literal blossom.cache.default.spec}.
+   * A {@literal maximumWeight} bounds the cache by the weight of its entries, their estimated size in
+   * bytes unless another weigher is registered for the cache.
+   */
   @Override
   protected Cache<Object, Object> createNativeCaffeineCache(String name) {
     String cacheSpec = environment.getProperty("blossom.cache." + name + ".spec");
@@ -26,12 +143,52 @@ public class BlossomCacheManager extends CaffeineCacheManager {
     }
 
     if (StringUtils.hasText(cacheSpec)) {
-      Caffeine caffeine = Caffeine.from(CaffeineSpec.parse(cacheSpec));
+      CaffeineSpec spec = CaffeineSpec.parse(cacheSpec);
+      Set<String> options = options(spec);
+      Caffeine caffeine = Caffeine.from(spec);
       caffeine.recordStats();
+      if (options.contains("maximumWeight")) {
+        caffeine.weigher(this.weighers.getOrDefault(name, this.defaultWeigher));
+      }
+      if (options.contains("refreshAfterWrite")) {
+        return caffeine.build(new RegisteredCacheLoader(name));
+      }
       return caffeine.build();
     } else {
       return super.createNativeCaffeineCache(name);
     }
   }
 
+  /**
+   * Returns the names of the options set by the given spec, read from its canonical form.
+   */
+  private static Set<String> options(CaffeineSpec spec) {
+    return StringUtils.commaDelimitedListToSet(spec.toParsableString()).stream()
+      .map(option -> option.split("=", 2)[0].trim())
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * Loader of a loading cache, delegating to the loader registered for it when there's one.
+   */
+  private class RegisteredCacheLoader implements CacheLoader<Object, Object> {
+
+    private final String name;
+
+    private RegisteredCacheLoader(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Object load(Object key) throws Exception {
+      CacheLoader<Object, Object> cacheLoader = cacheLoaders.get(this.name);
+      return cacheLoader == null ? null : cacheLoader.load(key);
+    }
+
+    @Override
+    public Map<Object, Object> loadAll(Iterable<?> keys) throws Exception {
+      CacheLoader<Object, Object> cacheLoader = cacheLoaders.get(this.name);
+      return cacheLoader == null ? Collections.emptyMap() : cacheLoader.loadAll(keys);
+    }
+  }
 }
@@ -7,7 +7,9 @@ import org.springframework.cache.interceptor.CacheResolver;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by maelg on 12/05/2017.
@@ -19,15 +21,27 @@ public class BlossomCacheResolver implements CacheResolver {
         this.cacheManager = cacheManager;
     }
 
+    /**
+     * Resolves the caches of an operation : the caches it declares, each one created on first use
+     * with its own {@literal blossom.cache.<name>.spec}, or the cache named after the class of its
+     * target when it declares none.
+     */
     @Override
     public Collection<? extends org.springframework.cache.Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
-        List<Cache> caches = new ArrayList<>();
-        if(context.getOperation().getCacheNames().isEmpty()){
-            caches.add(cacheManager.getCache(context.getTarget().getClass().getCanonicalName()));
-            return caches;
+        Set<String> cacheNames = context.getOperation().getCacheNames();
+        if(cacheNames.isEmpty()){
+            return Collections.singletonList(cacheManager.getCache(context.getTarget().getClass().getCanonicalName()));
         }
 
-        caches.add(cacheManager.getCache("nocache"));
+        List<Cache> caches = new ArrayList<>(cacheNames.size());
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                throw new IllegalArgumentException(
+                  "Cannot find cache named '" + cacheName + "' for " + context.getOperation());
+            }
+            caches.add(cache);
+        }
         return caches;
     }
 }
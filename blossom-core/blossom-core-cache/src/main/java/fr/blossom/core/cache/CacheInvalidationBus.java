@@ -0,0 +1,34 @@
+package fr.blossom.core.cache;
+
+/**
+ * Bus carrying the invalidations of the caches between the nodes of a cluster, so that the local
+ * caches of every node stay coherent with the changes made on any of them.
+ */
+public interface CacheInvalidationBus {
+
+  /**
+   * Broadcasts the invalidation of an entry to the other nodes.
+   *
+   * @param cacheName the name of the cache
+   * @param key the key of the entry, null to invalidate the whole cache
+   */
+  void publish(String cacheName, Object key);
+
+  /**
+   * Registers the listener of the invalidations published by the other nodes.
+   *
+   * @param listener the listener
+   */
+  void subscribe(Listener listener);
+
+  interface Listener {
+
+    /**
+     * Invalidates the given entry in the local caches.
+     *
+     * @param cacheName the name of the cache
+     * @param key the key of the entry, null to invalidate the whole cache
+     */
+    void onInvalidation(String cacheName, Object key);
+  }
+}
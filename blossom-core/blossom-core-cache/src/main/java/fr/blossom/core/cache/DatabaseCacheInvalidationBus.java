@@ -0,0 +1,150 @@
+package fr.blossom.core.cache;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheInvalidationBus} shared by the nodes through the {@code blossom_cache_invalidation}
+ * table.
+ * Invalidations published in a transaction are inserted once it commits, in a transaction of their
+ * own, so they're dated by the commit of the change they follow however long it ran, and dropped with
+ * it when it's rolled back. Each node polls the table every {@code pollInterval} milliseconds for the
+ * invalidations of the other nodes recorded in the last {@code overlap} milliseconds, which covers the
+ * insertion delay and the clock skew of the nodes, and applies each of them once. Invalidations older
+ * than {@code retention} milliseconds are purged.
+ * Keys are carried for strings and numbers only : invalidating any other key clears the whole cache.
+ */
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+
+  private final static Logger logger = LoggerFactory.getLogger(DatabaseCacheInvalidationBus.class);
+  private final static String INSERT_QUERY = "INSERT INTO blossom_cache_invalidation (id, node, cache_name, cache_key, key_type, creation_date) VALUES (?, ?, ?, ?, ?, ?)";
+  private final static String SELECT_QUERY = "SELECT id, cache_name, cache_key, key_type FROM blossom_cache_invalidation WHERE creation_date >= ? AND node <> ?";
+  private final static String PURGE_QUERY = "DELETE FROM blossom_cache_invalidation WHERE creation_date < ?";
+  private final static String STRING_KEY = "S";
+  private final static String LONG_KEY = "L";
+  private final static String INTEGER_KEY = "I";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String node = UUID.randomUUID().toString();
+  private final long pollInterval;
+  private final long overlap;
+  private final long retention;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private final Map<String, Long> applied = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+
+  public DatabaseCacheInvalidationBus(DataSource dataSource, PlatformTransactionManager transactionManager,
+    long pollInterval, long overlap, long retention) {
+    Assert.isTrue(pollInterval > 0, "Poll interval must be positive");
+    Assert.isTrue(overlap >= pollInterval, "Overlap can't be shorter than the poll interval");
+    Assert.isTrue(retention > overlap, "Retention must be longer than the overlap");
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.pollInterval = pollInterval;
+    this.overlap = overlap;
+    this.retention = retention;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-invalidation");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PostConstruct
+  public void start() {
+    this.executor.scheduleWithFixedDelay(this::poll, this.pollInterval, this.pollInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  @Override
+  public void publish(String cacheName, Object key) {
+    String keyType = key instanceof String ? STRING_KEY
+      : key instanceof Long ? LONG_KEY
+      : key instanceof Integer ? INTEGER_KEY
+      : null;
+    String cacheKey = keyType == null ? null : key.toString();
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          transactionTemplate.execute(status -> insert(cacheName, cacheKey, keyType));
+        }
+      });
+    } else {
+      this.insert(cacheName, cacheKey, keyType);
+    }
+  }
+
+  private int insert(String cacheName, String cacheKey, String keyType) {
+    return this.jdbcTemplate.update(INSERT_QUERY, UUID.randomUUID().toString(), this.node, cacheName,
+      cacheKey, keyType, new Timestamp(System.currentTimeMillis()));
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Applies the invalidations recorded by the other nodes that weren't applied yet, and purges the
+   * expired ones.
+   */
+  void poll() {
+    try {
+      long now = System.currentTimeMillis();
+      this.jdbcTemplate.query(SELECT_QUERY, rs -> {
+        if (this.applied.putIfAbsent(rs.getString("id"), now) == null) {
+          Object key = this.readKey(rs.getString("cache_key"), rs.getString("key_type"));
+          for (Listener listener : this.listeners) {
+            listener.onInvalidation(rs.getString("cache_name"), key);
+          }
+        }
+      }, new Timestamp(now - this.overlap), this.node);
+
+      this.applied.values().removeIf(appliedAt -> appliedAt < now - this.overlap * 2);
+      this.jdbcTemplate.update(PURGE_QUERY, new Timestamp(now - this.retention));
+    } catch (Exception e) {
+      logger.warn("Can't poll the cache invalidations of the other nodes", e);
+    }
+  }
+
+  private Object readKey(String key, String keyType) {
+    if (key == null || keyType == null) {
+      return null;
+    }
+    switch (keyType) {
+      case LONG_KEY:
+        return Long.valueOf(key);
+      case INTEGER_KEY:
+        return Integer.valueOf(key);
+      default:
+        return key;
+    }
+  }
+}
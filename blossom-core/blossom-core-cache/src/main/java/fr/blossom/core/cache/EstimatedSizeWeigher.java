@@ -0,0 +1,18 @@
+package fr.blossom.core.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * Weighs the entries of a cache by their estimated retained size in bytes, so that a
+ * {@literal maximumWeight} bounds the memory used by the cache.
+ *
+ * @see ObjectSizeEstimator
+ */
+public class EstimatedSizeWeigher implements Weigher<Object, Object> {
+
+  @Override
+  public int weigh(Object key, Object value) {
+    long size = ObjectSizeEstimator.estimate(key) + ObjectSizeEstimator.estimate(value);
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+}
@@ -0,0 +1,56 @@
+package fr.blossom.core.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link CacheInvalidationBus} delivering the invalidations to the other cache managers of the same
+ * JVM, standing for a cluster in tests. Each node subscribes and publishes through its own
+ * {@link #node()}, while the bus itself publishes to every node, as a node outside of the JVM would.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Delivers the invalidation to the listeners of every node.
+   */
+  @Override
+  public void publish(String cacheName, Object key) {
+    for (Listener listener : this.listeners) {
+      listener.onInvalidation(cacheName, key);
+    }
+  }
+
+  @Override
+  public void subscribe(Listener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Returns a view of this bus for one node : what it publishes reaches every listener but the ones
+   * subscribed through it.
+   *
+   * @return the bus of the node
+   */
+  public CacheInvalidationBus node() {
+    return new CacheInvalidationBus() {
+      private final List<Listener> own = new CopyOnWriteArrayList<>();
+
+      @Override
+      public void publish(String cacheName, Object key) {
+        for (Listener listener : listeners) {
+          if (!this.own.contains(listener)) {
+            listener.onInvalidation(cacheName, key);
+          }
+        }
+      }
+
+      @Override
+      public void subscribe(Listener listener) {
+        this.own.add(listener);
+        listeners.add(listener);
+      }
+    };
+  }
+}
@@ -0,0 +1,94 @@
+package fr.blossom.core.cache;
+
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Local cache whose changes are broadcast on a {@link CacheInvalidationBus} : every eviction or clear
+ * on this node, and every put made by a read-write transaction, invalidates the entry on the other
+ * nodes, which read it again from its source on their next access. Puts made outside of such a
+ * transaction only fill the cache after a read, and aren't broadcast.
+ */
+public class NearCache implements Cache {
+
+  private final Cache local;
+  private final CacheInvalidationBus bus;
+
+  public NearCache(Cache local, CacheInvalidationBus bus) {
+    this.local = local;
+    this.bus = bus;
+  }
+
+  @Override
+  public String getName() {
+    return this.local.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return this.local.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return this.local.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return this.local.get(key, type);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    return this.local.get(key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    this.local.put(key, value);
+    if (this.isWriting()) {
+      this.bus.publish(this.getName(), key);
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = this.local.putIfAbsent(key, value);
+    if (existing == null && this.isWriting()) {
+      this.bus.publish(this.getName(), key);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    this.local.evict(key);
+    this.bus.publish(this.getName(), key);
+  }
+
+  @Override
+  public void clear() {
+    this.local.clear();
+    this.bus.publish(this.getName(), null);
+  }
+
+  private boolean isWriting() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+      && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  /**
+   * Applies an invalidation received from another node, without broadcasting it again.
+   *
+   * @param key the key of the entry, null to clear the cache
+   */
+  void invalidateLocally(Object key) {
+    if (key == null) {
+      this.local.clear();
+    } else {
+      this.local.evict(key);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package fr.blossom.core.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estimates the memory retained by an object graph on a 64 bits JVM with compressed references, by
+ * walking its fields. The walk is bounded to {@value #MAX_OBJECTS} objects, doesn't cross into the
+ * classes of Hibernate, so that lazy associations are neither loaded nor counted along with their
+ * session, and doesn't look inside the JDK classes : strings, boxes, dates, collections and maps are
+ * sized from their content. Hibernate collections already initialized are sized from their content
+ * too, only the uninitialized ones and the proxies stop the walk.
+ */
+public final class ObjectSizeEstimator {
+
+  final static int MAX_OBJECTS = 10000;
+  private final static int HEADER = 12;
+  private final static int ARRAY_HEADER = 16;
+  private final static int REFERENCE = 4;
+  private final static ConcurrentMap<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<>();
+  private final static ConcurrentMap<Class<?>, Optional<Method>> wasInitializedMethods = new ConcurrentHashMap<>();
+
+  private ObjectSizeEstimator() {
+  }
+
+  /**
+   * Returns the estimated number of bytes retained by the given object and the objects it references.
+   *
+   * @param root the object to size, can be null
+   * @return the estimated size in bytes
+   */
+  public static long estimate(Object root) {
+    if (root == null) {
+      return 0;
+    }
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>();
+    pending.push(root);
+    long size = 0;
+    while (!pending.isEmpty() && visited.size() < MAX_OBJECTS) {
+      Object current = pending.pop();
+      if (!visited.add(current)) {
+        continue;
+      }
+      size += sizeOf(current, pending);
+    }
+    return size;
+  }
+
+  private static long sizeOf(Object object, Deque<Object> pending) {
+    Class<?> type = object.getClass();
+    String typeName = type.getName();
+    if ((typeName.startsWith("org.hibernate.") && !isInitializedCollection(object)) || typeName.contains("$$")) {
+      return align(HEADER + REFERENCE);
+    }
+    if (type.isArray()) {
+      int length = Array.getLength(object);
+      Class<?> componentType = type.getComponentType();
+      if (!componentType.isPrimitive()) {
+        for (Object element : (Object[]) object) {
+          push(pending, element);
+        }
+      }
+      return align(ARRAY_HEADER + (long) length * (componentType.isPrimitive() ? primitiveSize(componentType) : REFERENCE));
+    }
+    if (object instanceof String) {
+      return align(HEADER + 8) + align(ARRAY_HEADER + 2L * ((String) object).length());
+    }
+    if (object instanceof Collection) {
+      Collection<?> collection = (Collection<?>) object;
+      collection.forEach(element -> push(pending, element));
+      return align(HEADER + 16) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE)
+        + (object instanceof Set ? 32L * collection.size() : 0);
+    }
+    if (object instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      map.forEach((key, value) -> {
+        push(pending, key);
+        push(pending, value);
+      });
+      return align(HEADER + 36) + align(ARRAY_HEADER + (long) map.size() * REFERENCE) + 32L * map.size();
+    }
+    if (type.isEnum() || object instanceof Class) {
+      return 0;
+    }
+    if (typeName.startsWith("java.") || typeName.startsWith("javax.") || typeName.startsWith("sun.")) {
+      return align(HEADER + 8);
+    }
+
+    ClassLayout layout = layouts.computeIfAbsent(type, ClassLayout::new);
+    for (Field field : layout.references) {
+      try {
+        push(pending, field.get(object));
+      } catch (IllegalAccessException | RuntimeException e) {
+        // the field is left out of the estimate
+      }
+    }
+    return layout.shallowSize;
+  }
+
+  private static void push(Deque<Object> pending, Object object) {
+    if (object != null) {
+      pending.push(object);
+    }
+  }
+
+  /**
+   * Tells whether the given Hibernate object is a collection or a map whose content is already loaded,
+   * so that walking it won't hit the database.
+   */
+  private static boolean isInitializedCollection(Object object) {
+    if (!(object instanceof Collection) && !(object instanceof Map)) {
+      return false;
+    }
+    Optional<Method> wasInitialized = wasInitializedMethods.computeIfAbsent(object.getClass(), type -> {
+      try {
+        return Optional.of(type.getMethod("wasInitialized"));
+      } catch (NoSuchMethodException e) {
+        return Optional.empty();
+      }
+    });
+    try {
+      return wasInitialized.isPresent() && Boolean.TRUE.equals(wasInitialized.get().invoke(object));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + 7) / 8 * 8;
+  }
+
+  /**
+   * Shallow size and reference fields of a class, computed once.
+   */
+  private static class ClassLayout {
+
+    private final long shallowSize;
+    private final List<Field> references = new ArrayList<>();
+
+    private ClassLayout(Class<?> type) {
+      long size = HEADER;
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          if (field.getType().isPrimitive()) {
+            size += primitiveSize(field.getType());
+          } else {
+            size += REFERENCE;
+            try {
+              field.setAccessible(true);
+              this.references.add(field);
+            } catch (RuntimeException e) {
+              // the field is left out of the estimate
+            }
+          }
+        }
+      }
+      this.shallowSize = align(size);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package fr.blossom.core.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.mock.env.MockEnvironment;
+
+public class BlossomCacheManagerTest {
+
+  private MockEnvironment environment;
+  private BlossomCacheManager cacheManager;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Before
+  public void setUp() {
+    this.environment = new MockEnvironment()
+      .withProperty("blossom.cache.default.spec", "maximumSize=100")
+      .withProperty("blossom.cache.refreshed.spec", "maximumSize=100,refreshAfterWrite=1s")
+      .withProperty("blossom.cache.weighed.spec", "maximumWeight=10");
+    this.cacheManager = new BlossomCacheManager(environment);
+  }
+
+  @Test
+  public void test_spec_without_refresh_builds_a_plain_cache() {
+    Assert.assertFalse(cacheManager.getCache("users").getNativeCache() instanceof LoadingCache);
+  }
+
+  @Test
+  public void test_refresh_after_write_serves_the_stale_value_while_reloading() throws InterruptedException {
+    cacheManager.registerCacheLoader("refreshed", key -> key + "_" + loads.incrementAndGet());
+    Cache cache = cacheManager.getCache("refreshed");
+
+    Assert.assertTrue(cache.getNativeCache() instanceof LoadingCache);
+    Assert.assertEquals("a_1", cache.get("a").get());
+    Thread.sleep(1100);
+    Assert.assertEquals("stale value is served", "a_1", cache.get("a").get());
+
+    long timeout = System.currentTimeMillis() + 5000;
+    while (!"a_2".equals(cache.get("a").get()) && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals("a_2", cache.get("a").get());
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void test_loading_cache_without_loader_acts_as_plain_cache() {
+    Cache cache = cacheManager.getCache("refreshed");
+
+    Assert.assertNull(cache.get("a"));
+    cache.put("a", "value");
+    Assert.assertEquals("value", cache.get("a").get());
+    cache.evict("a");
+    Assert.assertNull(cache.get("a"));
+  }
+
+  @Test
+  public void test_loader_returning_null_leaves_a_miss() {
+    cacheManager.registerCacheLoader("refreshed", key -> null);
+
+    Assert.assertNull(cacheManager.getCache("refreshed").get("a"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_maximum_weight_uses_the_registered_weigher() {
+    cacheManager.registerWeigher("weighed", (key, value) -> 5);
+    Cache cache = cacheManager.getCache("weighed");
+
+    cache.put("a", "value");
+    cache.put("b", "value");
+    cache.put("c", "value");
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+      (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    nativeCache.cleanUp();
+
+    Assert.assertEquals(2, nativeCache.estimatedSize());
+    Assert.assertEquals(10, nativeCache.policy().eviction().get().weightedSize().getAsLong());
+  }
+
+  @Test
+  public void test_maximum_weight_defaults_to_the_estimated_size() {
+    environment.withProperty("blossom.cache.users.spec", "maximumWeight=100000");
+    Cache cache = cacheManager.getCache("users");
+
+    cache.put("a", "value");
+    ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).cleanUp();
+
+    Assert.assertEquals(ObjectSizeEstimator.estimate("a") + ObjectSizeEstimator.estimate("value"),
+      cacheManager.getEstimatedBytes("users"));
+  }
+}
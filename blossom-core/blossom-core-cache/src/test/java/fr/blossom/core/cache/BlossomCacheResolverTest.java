@@ -0,0 +1,91 @@
+package fr.blossom.core.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.interceptor.BasicOperation;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheableOperation;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BlossomCacheResolverTest {
+
+  @Mock
+  private CacheManager cacheManager;
+
+  @Mock
+  private CacheOperationInvocationContext<BasicOperation> context;
+
+  private BlossomCacheResolver cacheResolver;
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(context.getTarget()).willReturn(new TestDaoImpl());
+    this.cacheResolver = new BlossomCacheResolver(cacheManager);
+  }
+
+  @Test
+  public void test_operation_without_cache_name_uses_the_cache_of_its_target() {
+    Cache cache = this.cache(TestDaoImpl.class.getCanonicalName());
+    this.operation();
+
+    Assert.assertEquals(Arrays.asList(cache), new ArrayList<>(cacheResolver.resolveCaches(context)));
+  }
+
+  @Test
+  public void test_named_cache_is_resolved() {
+    Cache cache = this.cache("users");
+    this.operation("users");
+
+    Assert.assertEquals(Arrays.asList(cache), new ArrayList<>(cacheResolver.resolveCaches(context)));
+    BDDMockito.verify(cacheManager, BDDMockito.never()).getCache(TestDaoImpl.class.getCanonicalName());
+  }
+
+  @Test
+  public void test_every_named_cache_is_resolved() {
+    Cache users = this.cache("users");
+    Cache roles = this.cache("roles");
+    this.operation("users", "roles");
+
+    Collection<? extends Cache> caches = cacheResolver.resolveCaches(context);
+
+    Assert.assertEquals(2, caches.size());
+    Assert.assertTrue(caches.contains(users));
+    Assert.assertTrue(caches.contains(roles));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_unknown_cache_name_fails() {
+    this.cache("users");
+    this.operation("users", "unknown");
+
+    cacheResolver.resolveCaches(context);
+  }
+
+  private Cache cache(String name) {
+    Cache cache = new ConcurrentMapCache(name);
+    BDDMockito.given(cacheManager.getCache(name)).willReturn(cache);
+    return cache;
+  }
+
+  private void operation(String... cacheNames) {
+    CacheableOperation.Builder builder = new CacheableOperation.Builder();
+    builder.setName("getOne");
+    builder.setCacheNames(cacheNames);
+    BDDMockito.given(context.getOperation()).willReturn(builder.build());
+  }
+
+  private static class TestDaoImpl {
+
+  }
+}
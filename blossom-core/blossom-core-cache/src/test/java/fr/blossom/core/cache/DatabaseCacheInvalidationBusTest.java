@@ -0,0 +1,123 @@
+package fr.blossom.core.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class DatabaseCacheInvalidationBusTest {
+
+  private EmbeddedDatabase database;
+  private DataSourceTransactionManager transactionManager;
+  private DatabaseCacheInvalidationBus nodeA;
+  private DatabaseCacheInvalidationBus nodeB;
+  private final List<String> receivedByA = new ArrayList<>();
+  private final List<String> receivedByB = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+    new JdbcTemplate(database).execute("CREATE TABLE blossom_cache_invalidation (id VARCHAR(36) PRIMARY KEY, "
+      + "node VARCHAR(36) NOT NULL, cache_name VARCHAR(255) NOT NULL, cache_key VARCHAR(255), "
+      + "key_type VARCHAR(1), creation_date TIMESTAMP NOT NULL)");
+    this.transactionManager = new DataSourceTransactionManager(database);
+
+    this.nodeA = new DatabaseCacheInvalidationBus(database, transactionManager, 10, 300, 1000);
+    this.nodeA.subscribe((cacheName, key) -> receivedByA.add(cacheName + ":" + key));
+    this.nodeB = new DatabaseCacheInvalidationBus(database, transactionManager, 10, 300, 1000);
+    this.nodeB.subscribe((cacheName, key) -> receivedByB.add(cacheName + ":" + key));
+  }
+
+  @After
+  public void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  public void test_invalidation_reaches_the_other_nodes_once() {
+    nodeA.publish("users", 1L);
+    nodeA.publish("users", "key");
+    nodeA.publish("users", null);
+
+    nodeB.poll();
+    nodeB.poll();
+    nodeA.poll();
+
+    Assert.assertEquals(3, receivedByB.size());
+    Assert.assertTrue(receivedByB.contains("users:1"));
+    Assert.assertTrue(receivedByB.contains("users:key"));
+    Assert.assertTrue(receivedByB.contains("users:null"));
+    Assert.assertTrue(receivedByA.isEmpty());
+  }
+
+  @Test
+  public void test_keys_other_than_strings_and_numbers_clear_the_cache() {
+    nodeA.publish("users", new Object());
+
+    nodeB.poll();
+
+    Assert.assertEquals("users:null", receivedByB.get(0));
+  }
+
+  @Test
+  public void test_invalidation_is_hidden_until_its_transaction_commits() {
+    new TransactionTemplate(transactionManager).execute(status -> {
+      nodeA.publish("users", 1L);
+      nodeB.poll();
+      Assert.assertTrue(receivedByB.isEmpty());
+      return null;
+    });
+
+    nodeB.poll();
+
+    Assert.assertEquals("users:1", receivedByB.get(0));
+  }
+
+  @Test
+  public void test_invalidation_of_a_transaction_longer_than_the_overlap_is_seen() {
+    new TransactionTemplate(transactionManager).execute(status -> {
+      nodeA.publish("users", 1L);
+      try {
+        Thread.sleep(500);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return null;
+    });
+
+    nodeB.poll();
+
+    Assert.assertEquals("users:1", receivedByB.get(0));
+  }
+
+  @Test
+  public void test_invalidation_of_a_rolled_back_transaction_is_dropped() {
+    new TransactionTemplate(transactionManager).execute(status -> {
+      nodeA.publish("users", 1L);
+      status.setRollbackOnly();
+      return null;
+    });
+
+    nodeB.poll();
+
+    Assert.assertTrue(receivedByB.isEmpty());
+  }
+
+  @Test
+  public void test_invalidation_older_than_the_overlap_is_ignored() throws InterruptedException {
+    nodeA.publish("users", 1L);
+    Thread.sleep(400);
+
+    nodeB.poll();
+
+    Assert.assertTrue(receivedByB.isEmpty());
+  }
+}
@@ -0,0 +1,132 @@
+package fr.blossom.core.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class NearCacheTest {
+
+  private LocalCacheInvalidationBus bus;
+  private BlossomCacheManager nodeA;
+  private BlossomCacheManager nodeB;
+
+  @Before
+  public void setUp() {
+    MockEnvironment environment = new MockEnvironment()
+      .withProperty("blossom.cache.default.spec", "maximumSize=100");
+    this.bus = new LocalCacheInvalidationBus();
+    this.nodeA = new BlossomCacheManager(environment);
+    this.nodeA.setInvalidationBus(bus.node());
+    this.nodeB = new BlossomCacheManager(environment);
+    this.nodeB.setInvalidationBus(bus.node());
+  }
+
+  @After
+  public void tearDown() {
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  public void test_caches_are_near_caches() {
+    Assert.assertTrue(nodeA.getCache("users") instanceof NearCache);
+  }
+
+  @Test
+  public void test_evict_invalidates_the_other_nodes() {
+    nodeA.getCache("users").put(1L, "a");
+    nodeB.getCache("users").put(1L, "b");
+
+    nodeA.getCache("users").evict(1L);
+
+    Assert.assertNull(nodeA.getCache("users").get(1L));
+    Assert.assertNull(nodeB.getCache("users").get(1L));
+  }
+
+  @Test
+  public void test_clear_clears_the_other_nodes() {
+    nodeB.getCache("users").put(1L, "b");
+    nodeB.getCache("users").put(2L, "b");
+
+    nodeA.getCache("users").clear();
+
+    Assert.assertNull(nodeB.getCache("users").get(1L));
+    Assert.assertNull(nodeB.getCache("users").get(2L));
+  }
+
+  @Test
+  public void test_put_in_read_write_transaction_invalidates_the_other_nodes() {
+    nodeB.getCache("users").put(1L, "b");
+
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    nodeA.getCache("users").put(1L, "a");
+
+    Assert.assertEquals("a", nodeA.getCache("users").get(1L).get());
+    Assert.assertNull(nodeB.getCache("users").get(1L));
+  }
+
+  @Test
+  public void test_put_in_read_only_transaction_is_not_broadcast() {
+    nodeB.getCache("users").put(1L, "b");
+
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    nodeA.getCache("users").put(1L, "a");
+
+    Assert.assertEquals("b", nodeB.getCache("users").get(1L).get());
+  }
+
+  @Test
+  public void test_put_outside_transaction_is_not_broadcast() {
+    nodeB.getCache("users").put(1L, "b");
+
+    nodeA.getCache("users").put(1L, "a");
+    nodeA.getCache("users").putIfAbsent(2L, "a");
+
+    Assert.assertEquals("b", nodeB.getCache("users").get(1L).get());
+  }
+
+  @Test
+  public void test_invalidation_is_not_sent_back_to_its_node() {
+    Cache cache = nodeA.getCache("users");
+    cache.put(1L, "a");
+    cache.put(2L, "a");
+
+    cache.evict(1L);
+
+    Assert.assertEquals("a", cache.get(2L).get());
+  }
+
+  @Test
+  public void test_invalidation_of_other_caches_is_kept_apart() {
+    nodeB.getCache("users").put(1L, "b");
+    nodeB.getCache("roles").put(1L, "b");
+
+    nodeA.getCache("roles").evict(1L);
+
+    Assert.assertEquals("b", nodeB.getCache("users").get(1L).get());
+    Assert.assertNull(nodeB.getCache("roles").get(1L));
+  }
+
+  @Test
+  public void test_invalidation_does_not_create_caches() {
+    nodeA.getCache("users").evict(1L);
+
+    Assert.assertFalse(nodeB.getCacheNames().contains("users"));
+  }
+
+  @Test
+  public void test_bus_publishes_to_every_node() {
+    nodeA.getCache("users").put(1L, "a");
+    nodeB.getCache("users").put(1L, "b");
+
+    bus.publish("users", 1L);
+
+    Assert.assertNull(nodeA.getCache("users").get(1L));
+    Assert.assertNull(nodeB.getCache("users").get(1L));
+  }
+}
@@ -0,0 +1,88 @@
+package fr.blossom.core.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.hibernate.collection.internal.PersistentBag;
+import org.hibernate.collection.internal.PersistentSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObjectSizeEstimatorTest {
+
+  @Test
+  public void test_null_is_empty() {
+    Assert.assertEquals(0, ObjectSizeEstimator.estimate(null));
+  }
+
+  @Test
+  public void test_strings_are_sized_from_their_length() {
+    Assert.assertEquals(24 + 16, ObjectSizeEstimator.estimate(""));
+    Assert.assertEquals(24 + 32, ObjectSizeEstimator.estimate("abcdefgh"));
+    Assert.assertTrue(ObjectSizeEstimator.estimate("abcdefghi") > ObjectSizeEstimator.estimate("abcdefgh"));
+  }
+
+  @Test
+  public void test_arrays_are_sized_from_their_length_and_elements() {
+    Assert.assertEquals(16 + 24, ObjectSizeEstimator.estimate(new long[3]));
+    Assert.assertEquals(16 + 8, ObjectSizeEstimator.estimate(new byte[8]));
+
+    String element = "a";
+    Assert.assertEquals("shared elements are counted once", 32 + ObjectSizeEstimator.estimate(element),
+      ObjectSizeEstimator.estimate(new Object[]{element, element, null}));
+  }
+
+  @Test
+  public void test_cycles_are_walked_once() {
+    Node first = new Node();
+    Node second = new Node();
+    first.next = second;
+    second.next = first;
+
+    Assert.assertEquals(2 * 16, ObjectSizeEstimator.estimate(first));
+    Assert.assertEquals(16, ObjectSizeEstimator.estimate(new Node()));
+  }
+
+  @Test
+  public void test_walk_is_capped() {
+    Node head = new Node();
+    Node current = head;
+    for (int i = 0; i < 2 * ObjectSizeEstimator.MAX_OBJECTS; i++) {
+      current.next = new Node();
+      current = current.next;
+    }
+
+    Assert.assertEquals(ObjectSizeEstimator.MAX_OBJECTS * 16L, ObjectSizeEstimator.estimate(head));
+  }
+
+  @Test
+  public void test_walk_stops_at_hibernate_proxies() {
+    Assert.assertEquals(16, ObjectSizeEstimator.estimate(new Node$$Proxy()));
+  }
+
+  @Test
+  public void test_walk_stops_at_uninitialized_hibernate_collections() {
+    Assert.assertEquals(16, ObjectSizeEstimator.estimate(new PersistentBag(null)));
+    Assert.assertEquals(16, ObjectSizeEstimator.estimate(new PersistentSet(null)));
+  }
+
+  @Test
+  public void test_initialized_hibernate_collections_are_sized_from_their_content() {
+    List<String> list = new ArrayList<>(Arrays.asList("a", "bcd", "efghijkl"));
+    HashSet<String> set = new HashSet<>(list);
+
+    Assert.assertEquals(ObjectSizeEstimator.estimate(list), ObjectSizeEstimator.estimate(new PersistentBag(null, list)));
+    Assert.assertEquals(ObjectSizeEstimator.estimate(set), ObjectSizeEstimator.estimate(new PersistentSet(null, set)));
+  }
+
+  private static class Node {
+
+    private Node next;
+  }
+
+  private static class Node$$Proxy {
+
+    private final Object target = new ArrayList<>(Arrays.asList("a", "b"));
+  }
+}
@@ -0,0 +1,61 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.entity.AbstractEntity;
+import fr.blossom.core.common.event.BatchDeletedEvent;
+import fr.blossom.core.common.event.BatchUpdatedEvent;
+import fr.blossom.core.common.event.BeforeDeletedEvent;
+import fr.blossom.core.common.event.UpdatedEvent;
+import fr.blossom.core.common.service.GenericReadOnlyServiceImpl;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Keeps the caches of the {@link AssociationDao}s consistent when an entity standing on either side
+ * of an association is updated or deleted, since the cached associations hold the entities themselves.
+ * Only the DAOs having a side of the type of the entity, as given by the service publishing the event,
+ * are evicted. Events published by other sources are applied to every DAO.
+ */
+public class AssociationCacheEventListeners {
+
+  private final List<AssociationDao<?, ?, ?>> associationDaos;
+
+  public AssociationCacheEventListeners(List<AssociationDao<?, ?, ?>> associationDaos) {
+    this.associationDaos = associationDaos;
+  }
+
+  @EventListener
+  public void handleEntityUpdate(UpdatedEvent<?> updatedEvent) {
+    if (updatedEvent.getDTO() != null) {
+      this.evictAll(updatedEvent.getSource(), Lists.newArrayList(updatedEvent.getDTO().getId()));
+    }
+  }
+
+  @EventListener
+  public void handleEntitiesUpdate(BatchUpdatedEvent<?> updatedEvent) {
+    this.evictAll(updatedEvent.getSource(),
+      updatedEvent.getDTOs().stream().map(AbstractDTO::getId).collect(Collectors.toList()));
+  }
+
+  @EventListener
+  public void handleEntityDeletion(BeforeDeletedEvent<?> deletedEvent) {
+    if (deletedEvent.getDTO() != null) {
+      this.evictAll(deletedEvent.getSource(), Lists.newArrayList(deletedEvent.getDTO().getId()));
+    }
+  }
+
+  @EventListener
+  public void handleEntitiesDeletion(BatchDeletedEvent<?> deletedEvent) {
+    this.evictAll(deletedEvent.getSource(),
+      deletedEvent.getDTOs().stream().map(AbstractDTO::getId).collect(Collectors.toList()));
+  }
+
+  private void evictAll(Object source, Collection<Long> ids) {
+    Class<? extends AbstractEntity> type = source instanceof GenericReadOnlyServiceImpl
+      ? ((GenericReadOnlyServiceImpl<?, ?>) source).getEntityType() : AbstractEntity.class;
+    this.associationDaos.stream().filter(dao -> dao.supports(type)).forEach(dao -> dao.evictAll(type, ids));
+  }
+}
@@ -2,6 +2,7 @@ package fr.blossom.core.common.dao;
 
 import fr.blossom.core.common.entity.AbstractAssociationEntity;
 import fr.blossom.core.common.entity.AbstractEntity;
+import java.util.Collection;
 import java.util.List;
 
 public interface AssociationDao<A extends AbstractEntity, B extends AbstractEntity, ASSOCIATION extends AbstractAssociationEntity<A, B>> {
@@ -14,7 +15,15 @@ public interface AssociationDao<A extends AbstractEntity, B extends AbstractEnti
 
   List<ASSOCIATION> getAllB(A a);
 
+  List<ASSOCIATION> getAllA(Collection<B> bs);
+
+  List<ASSOCIATION> getAllB(Collection<A> as);
+
   ASSOCIATION getOne(long id);
 
   ASSOCIATION getOne(A a, B b);
+
+  boolean supports(Class<? extends AbstractEntity> delimiter);
+
+  void evictAll(Class<? extends AbstractEntity> delimiter, Collection<Long> ids);
 }
@@ -0,0 +1,104 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Loads the caches of the DAOs once the application is ready, so that the first requests served by a
+ * new node don't all hit the database.
+ * Each DAO gives the ids of its entities to load, up to {@code limit}, with
+ * {@link ReadOnlyDao#getWarmUpIds(int)}, which are then read by batches of {@code batchSize} with
+ * {@link ReadOnlyDao#getAll(List)} on {@code parallelism} threads. The warm-up is abandoned once its
+ * {@code budget} in milliseconds is spent.
+ * The warm-up runs on its own thread, so the application keeps starting while the caches are loaded,
+ * and the node reports itself out of service until the warm-up is over.
+ */
+public class CacheWarmUp implements ApplicationListener<ApplicationReadyEvent>, HealthIndicator {
+
+  private final static Logger logger = LoggerFactory.getLogger(CacheWarmUp.class);
+
+  private final List<ReadOnlyDao<?>> daos;
+  private final int limit;
+  private final int batchSize;
+  private final int parallelism;
+  private final long budget;
+  private final AtomicLong loaded = new AtomicLong();
+  private volatile State state = State.PENDING;
+  private volatile long duration;
+
+  public CacheWarmUp(List<ReadOnlyDao<?>> daos, int limit, int batchSize, int parallelism, long budget) {
+    Preconditions.checkArgument(limit >= 0, "Limit can't be negative");
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+    Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+    Preconditions.checkArgument(budget > 0, "Budget must be positive");
+    this.daos = daos;
+    this.limit = limit;
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.budget = budget;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    Thread thread = new Thread(this::warmUp, "cache-warm-up");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Loads the caches of the DAOs, within the budget, on the calling thread.
+   */
+  public void warmUp() {
+    this.state = State.RUNNING;
+    long start = System.currentTimeMillis();
+    ExecutorService executor = Executors.newFixedThreadPool(this.parallelism,
+      new ThreadFactoryBuilder().setNameFormat("cache-warm-up-%d").setDaemon(true).build());
+    try {
+      CompletableFuture<?>[] warmUps = this.daos.stream()
+        .map(dao -> CompletableFuture.supplyAsync(() -> dao.getWarmUpIds(this.limit), executor)
+          .thenCompose(ids -> CompletableFuture.allOf(Lists.partition(ids, this.batchSize).stream()
+            .map(batch -> CompletableFuture.runAsync(() -> this.loaded.addAndGet(dao.getAll(batch).size()), executor))
+            .toArray(CompletableFuture[]::new))))
+        .toArray(CompletableFuture[]::new);
+      CompletableFuture.allOf(warmUps).get(this.budget, TimeUnit.MILLISECONDS);
+      this.state = State.DONE;
+    } catch (TimeoutException e) {
+      this.state = State.TIMED_OUT;
+      logger.warn("Cache warm-up stopped after its budget of {} ms", this.budget);
+    } catch (Exception e) {
+      this.state = State.FAILED;
+      logger.warn("Cache warm-up failed", e);
+    } finally {
+      executor.shutdownNow();
+      this.duration = System.currentTimeMillis() - start;
+    }
+    logger.info("Cache warm-up {} : {} entities loaded from {} DAOs in {} ms", this.state, this.loaded.get(),
+      this.daos.size(), this.duration);
+  }
+
+  @Override
+  public Health health() {
+    Health.Builder builder = this.state == State.PENDING || this.state == State.RUNNING
+      ? Health.outOfService() : Health.up();
+    return builder.withDetail("state", this.state).withDetail("loaded", this.loaded.get())
+      .withDetail("duration", this.duration).build();
+  }
+
+  public enum State {
+    PENDING, RUNNING, DONE, TIMED_OUT, FAILED
+  }
+}
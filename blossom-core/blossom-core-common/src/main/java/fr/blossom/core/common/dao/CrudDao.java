@@ -14,8 +14,23 @@ public interface CrudDao<ENTITY extends AbstractEntity> extends ReadOnlyDao<ENTI
 
   void delete(ENTITY toDelete);
 
+  /**
+   * Creates the given entities by batches. Each batch is flushed, then its entities are detached from
+   * the persistence context : the returned entities are detached, other managed entities are left
+   * untouched.
+   */
   List<ENTITY> create(Collection<ENTITY> toCreates);
 
+  /**
+   * Updates the given entities by batches. Each batch is flushed, then its entities are detached from
+   * the persistence context : the returned entities are detached, other managed entities are left
+   * untouched.
+   */
   List<ENTITY> update(Map<Long, ENTITY> toUpdates);
 
+  /**
+   * Deletes the given entities by batches, each batch being flushed.
+   */
+  void delete(Collection<ENTITY> toDeletes);
+
 }
@@ -1,24 +1,58 @@
 package fr.blossom.core.common.dao;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.PathBuilderFactory;
 import fr.blossom.core.common.entity.AbstractAssociationEntity;
 import fr.blossom.core.common.entity.AbstractEntity;
 import fr.blossom.core.common.repository.AssociationRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 
 @CacheConfig(cacheResolver = "blossomCacheResolver")
 public abstract class GenericAssociationDaoImpl<A extends AbstractEntity, B extends AbstractEntity, ASSOCIATION extends AbstractAssociationEntity<A, B>>
   implements AssociationDao<A, B, ASSOCIATION> {
 
+  private final static int IN_CLAUSE_SIZE = 500;
+
   private final AssociationRepository<A, B, ASSOCIATION> repository;
+  private final PathBuilder<ASSOCIATION> associationPath;
+  private CacheManager cacheManager;
+
+  protected TypeToken<ASSOCIATION> type = new TypeToken<ASSOCIATION>(getClass()) {
+  };
+  protected TypeToken<A> aType = new TypeToken<A>(getClass()) {
+  };
+  protected TypeToken<B> bType = new TypeToken<B>(getClass()) {
+  };
 
   protected GenericAssociationDaoImpl(AssociationRepository<A, B, ASSOCIATION> repository) {
     this.repository = repository;
+    this.associationPath = new PathBuilderFactory().create((Class<ASSOCIATION>) type.getRawType());
+  }
+
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
   }
 
   @Override
-//  @Caching(evict = {@CacheEvict(key = "'a_'+#a0.id"), @CacheEvict(key = "'b_'+#a1.id")})
+  @Caching(evict = {@CacheEvict(key = "'a_'+#a0.id"), @CacheEvict(key = "'b_'+#a1.id")})
   public ASSOCIATION associate(A a, B b) {
     Preconditions.checkNotNull(a);
     Preconditions.checkNotNull(b);
@@ -33,32 +67,71 @@ public abstract class GenericAssociationDaoImpl<A extends AbstractEntity, B exte
   }
 
   @Override
-//  @Caching(evict = {@CacheEvict(key = "'a_'+#a0.id"), @CacheEvict(key = "'b_'+#a1.id")})
+  @Caching(evict = {@CacheEvict(key = "'a_'+#a0.id"), @CacheEvict(key = "'b_'+#a1.id")})
   public void dissociate(A a, B b) {
     Preconditions.checkNotNull(a);
     Preconditions.checkNotNull(b);
 
     ASSOCIATION association = repository.findOneByAAndB(a, b);
-    if (repository.findOneByAAndB(a, b) == null) {
+    if (association == null) {
       throw new RuntimeException("Association does not exists !");
     }
     this.repository.delete(association);
+
+    Cache cache = this.getCache();
+    if (cache != null) {
+      cache.evict(association.getId() + "");
+    }
   }
 
   @Override
-//  @Cacheable(key = "'b_'+#a0.id")
+  @Cacheable(key = "'b_'+#a0.id")
   public List<ASSOCIATION> getAllA(B b) {
     return this.repository.findAllByB(b);
   }
 
   @Override
-//  @Cacheable(key = "'a_'+#a0.id")
+  @Cacheable(key = "'a_'+#a0.id")
   public List<ASSOCIATION> getAllB(A a) {
     return this.repository.findAllByA(a);
   }
 
+  /**
+   * Returns the associations of all the given B entities, read with {@literal IN} queries of at most
+   * {@value #IN_CLAUSE_SIZE} entities that fetch both sides of the associations.
+   *
+   * @param bs the B entities
+   * @return the associations found
+   */
+  @Override
+  public List<ASSOCIATION> getAllA(Collection<B> bs) {
+    List<ASSOCIATION> associations = new ArrayList<>();
+    List<Long> ids = bs.stream().map(AbstractEntity::getId).distinct().collect(Collectors.toList());
+    for (List<Long> chunk : Lists.partition(ids, IN_CLAUSE_SIZE)) {
+      associations.addAll(this.repository.findAllByB_IdIn(chunk));
+    }
+    return associations;
+  }
+
+  /**
+   * Returns the associations of all the given A entities, read with {@literal IN} queries of at most
+   * {@value #IN_CLAUSE_SIZE} entities that fetch both sides of the associations.
+   *
+   * @param as the A entities
+   * @return the associations found
+   */
+  @Override
+  public List<ASSOCIATION> getAllB(Collection<A> as) {
+    List<ASSOCIATION> associations = new ArrayList<>();
+    List<Long> ids = as.stream().map(AbstractEntity::getId).distinct().collect(Collectors.toList());
+    for (List<Long> chunk : Lists.partition(ids, IN_CLAUSE_SIZE)) {
+      associations.addAll(this.repository.findAllByA_IdIn(chunk));
+    }
+    return associations;
+  }
+
   @Override
-//  @Cacheable(key = "''+#a0")
+  @Cacheable(key = "''+#a0")
   public ASSOCIATION getOne(long id) {
     return this.repository.findOne(id);
   }
@@ -68,5 +141,76 @@ public abstract class GenericAssociationDaoImpl<A extends AbstractEntity, B exte
     return this.repository.findOneByAAndB(a, b);
   }
 
+  @Override
+  public boolean supports(Class<? extends AbstractEntity> delimiter) {
+    return delimiter.isAssignableFrom(aType.getRawType()) || delimiter.isAssignableFrom(bType.getRawType());
+  }
+
+  /**
+   * Evicts from the cache every entry involving one of the given entities, on the sides of the
+   * association whose type is assignable to the given one : the lists of associations of the entities,
+   * the associations themselves and the lists of associations of their counterparts, which hold the
+   * entities as well.
+   * Associations still stored are read from the database, the ones already removed are found in the
+   * cached lists. Nothing is evicted, and nothing is read, if neither side is of the given type.
+   *
+   * @param delimiter the type of the entities
+   * @param ids the ids of the entities
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void evictAll(Class<? extends AbstractEntity> delimiter, Collection<Long> ids) {
+    Cache cache = this.getCache();
+    boolean sideA = delimiter.isAssignableFrom(aType.getRawType());
+    boolean sideB = delimiter.isAssignableFrom(bType.getRawType());
+    if (cache == null || ids.isEmpty() || !(sideA || sideB)) {
+      return;
+    }
+
+    Set<ASSOCIATION> associations = new LinkedHashSet<>();
+    for (Long id : ids) {
+      List<String> keys = new ArrayList<>();
+      if (sideA) {
+        keys.add("a_" + id);
+      }
+      if (sideB) {
+        keys.add("b_" + id);
+      }
+      for (String key : keys) {
+        ValueWrapper cached = cache.get(key);
+        if (cached != null && cached.get() != null) {
+          associations.addAll((List<ASSOCIATION>) cached.get());
+        }
+        cache.evict(key);
+      }
+    }
+    for (List<Long> chunk : Lists.partition(Lists.newArrayList(ids), IN_CLAUSE_SIZE)) {
+      BooleanBuilder predicate = new BooleanBuilder();
+      if (sideA) {
+        predicate.or(this.associationPath.get("a").getNumber("id", Long.class).in(chunk));
+      }
+      if (sideB) {
+        predicate.or(this.associationPath.get("b").getNumber("id", Long.class).in(chunk));
+      }
+      this.repository.findAll(predicate).forEach(associations::add);
+    }
+
+    for (ASSOCIATION association : associations) {
+      cache.evict(association.getId() + "");
+      cache.evict("a_" + association.getA().getId());
+      cache.evict("b_" + association.getB().getId());
+    }
+  }
+
+  /**
+   * Returns the cache of the DAO, named after its class as resolved by the {@literal blossomCacheResolver},
+   * or {@literal null} if caching isn't configured.
+   *
+   * @return the cache of the DAO
+   */
+  protected Cache getCache() {
+    return this.cacheManager == null ? null : this.cacheManager.getCache(this.getClass().getCanonicalName());
+  }
+
   protected abstract ASSOCIATION create();
 }
@@ -1,33 +1,55 @@
 package fr.blossom.core.common.dao;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import fr.blossom.core.common.entity.AbstractEntity;
 import fr.blossom.core.common.repository.CrudRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
+import javax.persistence.EntityManager;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @CacheConfig(cacheResolver = "blossomCacheResolver")
 public abstract class GenericCrudDaoImpl<ENTITY extends AbstractEntity> extends GenericReadOnlyDaoImpl<ENTITY> implements CrudDao<ENTITY> {
 
+    private int batchSize = 50;
+
     protected GenericCrudDaoImpl(CrudRepository<ENTITY> repository) {
         super(repository);
     }
 
+    /**
+     * Sets the number of entities written before the persistence context is flushed by the bulk
+     * operations, which then detach the entities of the batch. It should match the JDBC batch size of
+     * Hibernate so that each flush sends full batches.
+     *
+     * @param batchSize the batch size, must be positive
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    public void setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0, "Batch size must be positive!");
+        this.batchSize = batchSize;
+    }
+
     @Override
     @Transactional
+    @CacheEvict(key = "'count'")
     public ENTITY create(ENTITY toCreate) {
         return this.repository.save(toCreate);
     }
 
     @Override
     @Transactional
-    @CacheEvict(key = "#a0.id+''")
+    @Caching(evict = {@CacheEvict(key = "#a0.id+''"), @CacheEvict(key = "'count'")})
     public void delete(ENTITY toDelete) {
         this.repository.delete(toDelete.getId());
     }
@@ -45,19 +67,60 @@ public abstract class GenericCrudDaoImpl<ENTITY extends AbstractEntity> extends
 
     @Override
     @Transactional
+    @CacheEvict(key = "'count'")
     public List<ENTITY> create(Collection<ENTITY> toCreates) {
-        return this.repository.save(toCreates);
+        EntityManager entityManager = this.getEntityManager();
+        List<ENTITY> entities = Lists.newArrayListWithCapacity(toCreates.size());
+        for (List<ENTITY> batch : Iterables.partition(toCreates, this.batchSize)) {
+            List<ENTITY> created = Lists.newArrayListWithCapacity(batch.size());
+            for (ENTITY toCreate : batch) {
+                if (toCreate.getId() == null) {
+                    entityManager.persist(toCreate);
+                    created.add(toCreate);
+                } else {
+                    created.add(entityManager.merge(toCreate));
+                }
+            }
+            entityManager.flush();
+            created.forEach(entityManager::detach);
+            entities.addAll(created);
+        }
+        return entities;
     }
 
     @Override
     @Transactional
     public List<ENTITY> update(Map<Long, ENTITY> toUpdates) {
-        List<ENTITY> entities = this.repository.findAll(toUpdates.keySet())
-                .stream()
-                .filter(dbEntity -> toUpdates.containsKey(dbEntity.getId()))
-                .map(dbEntity -> this.updateEntity(dbEntity, toUpdates.get(dbEntity.getId())))
-                .collect(Collectors.toList());
-        return this.repository.save(entities);
+        EntityManager entityManager = this.getEntityManager();
+        Cache cache = this.getCache();
+        List<ENTITY> entities = Lists.newArrayListWithCapacity(toUpdates.size());
+        for (List<Long> ids : Iterables.partition(toUpdates.keySet(), this.batchSize)) {
+            List<ENTITY> updated = Lists.newArrayListWithCapacity(ids.size());
+            for (ENTITY dbEntity : this.repository.findAll(ids)) {
+                if (toUpdates.containsKey(dbEntity.getId())) {
+                    updated.add(this.updateEntity(dbEntity, toUpdates.get(dbEntity.getId())));
+                }
+            }
+            entityManager.flush();
+            updated.forEach(entityManager::detach);
+            entities.addAll(updated);
+        }
+        if (cache != null) {
+            entities.forEach(entity -> cache.put(entity.getId() + "", entity));
+        }
+        return entities;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(allEntries = true)
+    public void delete(Collection<ENTITY> toDeletes) {
+        EntityManager entityManager = this.getEntityManager();
+        for (List<ENTITY> batch : Iterables.partition(toDeletes, this.batchSize)) {
+            List<Long> ids = Lists.transform(batch, AbstractEntity::getId);
+            this.repository.delete(this.repository.findAll(ids));
+            entityManager.flush();
+        }
     }
 
     protected abstract ENTITY updateEntity(ENTITY originalEntity, ENTITY modifiedEntity);
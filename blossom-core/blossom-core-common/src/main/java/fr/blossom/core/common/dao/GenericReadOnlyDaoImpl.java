@@ -1,31 +1,85 @@
 package fr.blossom.core.common.dao;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.reflect.TypeToken;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.OrderSpecifier.NullHandling;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.PathBuilderFactory;
 import com.querydsl.jpa.JPQLQuery;
+import fr.blossom.core.cache.BlossomCacheManager;
 import fr.blossom.core.common.entity.AbstractEntity;
 import fr.blossom.core.common.repository.CrudRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @CacheConfig(cacheResolver = "blossomCacheResolver")
-public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> implements ReadOnlyDao<ENTITY> {
+public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> implements ReadOnlyDao<ENTITY>,
+  BeanFactoryAware, BeanNameAware {
+
+  private final static int IN_CLAUSE_SIZE = 500;
+  private final static String[] SUMMARY_PROPERTIES = {"id", "creationDate", "creationUser",
+    "modificationDate", "modificationUser"};
 
   protected final CrudRepository<ENTITY> repository;
 
   private Querydsl querydsl;
   private EntityManager entityManager;
+  private PathBuilder<ENTITY> entityPath;
+  private CacheManager cacheManager;
+  private BeanFactory beanFactory;
+  private String beanName;
+  private volatile ReadOnlyDao<ENTITY> self;
 
   protected TypeToken<ENTITY> type = new TypeToken<ENTITY>(getClass()) {
   };
@@ -44,13 +98,43 @@ public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> impl
   public void setEntityManager(EntityManager entityManager) {
     assert entityManager != null;
 
-    PathBuilder<?> builder = new PathBuilderFactory().create(type.getRawType());
+    PathBuilder<ENTITY> builder = new PathBuilderFactory().create((Class<ENTITY>) type.getRawType());
     this.querydsl = new Querydsl(entityManager, builder);
     this.entityManager = entityManager;
+    this.entityPath = builder;
+  }
+
+  /**
+   * Sets the cache manager holding the cache of the DAO. With a {@link BlossomCacheManager}, the DAO
+   * registers itself as the loader of its cache, which is used when the cache is set to be refreshed
+   * ahead of expiry by a {@literal refreshAfterWrite} in its spec.
+   *
+   * @param cacheManager the cache manager
+   */
+  @Autowired(required = false)
+  public void setCacheManager(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+    if (cacheManager instanceof BlossomCacheManager) {
+      ((BlossomCacheManager) cacheManager).registerCacheLoader(this.getClass().getCanonicalName(), new EntityCacheLoader());
+    }
+  }
+
+  @Override
+  public void setBeanFactory(BeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+  }
+
+  @Override
+  public void setBeanName(String beanName) {
+    this.beanName = beanName;
   }
 
+  /**
+   * Returns the entity with the given id. Concurrent misses on the same id are loaded once, the other
+   * readers waiting for the result.
+   */
   @Override
-  @Cacheable(key = "#a0+''")
+  @Cacheable(key = "#a0+''", sync = true)
   public ENTITY getOne(long id) {
     return this.repository.findOne(id);
   }
@@ -60,9 +144,49 @@ public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> impl
     return this.repository.findAll();
   }
 
+  /**
+   * Returns the entities with the given ids, in the order of the ids.
+   * Entities already in the cache of the DAO are served from it, the others are read with {@literal IN}
+   * queries of at most {@value #IN_CLAUSE_SIZE} ids and put in the cache, by the loader of the cache
+   * when it's a loading one.
+   *
+   * @param ids the ids of the entities
+   * @return the entities found
+   */
   @Override
+  @SuppressWarnings("unchecked")
   public List<ENTITY> getAll(List<Long> ids) {
-    return this.repository.findAll(ids);
+    Cache cache = this.getCache();
+    if (cache != null && cache.getNativeCache() instanceof LoadingCache) {
+      Map<Object, Object> loaded = ((LoadingCache<Object, Object>) cache.getNativeCache())
+        .getAll(ids.stream().map(id -> id + "").collect(Collectors.toList()));
+      return ids.stream().distinct().map(id -> loaded.get(id + "")).filter(type.getRawType()::isInstance)
+        .map(entity -> (ENTITY) entity).collect(Collectors.toList());
+    }
+
+    Map<Long, ENTITY> entities = new HashMap<>();
+    List<Long> misses = new ArrayList<>();
+
+    for (Long id : new LinkedHashSet<>(ids)) {
+      ValueWrapper cached = cache == null ? null : cache.get(id + "");
+      if (cached != null && cached.get() != null) {
+        entities.put(id, (ENTITY) cached.get());
+      } else {
+        misses.add(id);
+      }
+    }
+
+    for (List<Long> chunk : Lists.partition(misses, IN_CLAUSE_SIZE)) {
+      for (ENTITY entity : this.repository.findAll(chunk)) {
+        entities.put(entity.getId(), entity);
+        if (cache != null) {
+          cache.put(entity.getId() + "", entity);
+        }
+      }
+    }
+
+    return ids.stream().distinct().map(entities::get).filter(entity -> entity != null)
+      .collect(Collectors.toList());
   }
 
   @Override
@@ -70,6 +194,312 @@ public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> impl
     return repository.findAll(pageable);
   }
 
+  /**
+   * Returns a {@link KeysetSlice} of entities read with keyset pagination : instead of an offset, the
+   * query seeks directly after the last element of the previous slice, so reading a deep slice costs
+   * the same as reading the first one, and no count query is issued.
+   * The slice is ordered by the sort of the {@code pageable} (top-level properties only), then by id.
+   * Null values of a property come after the others, whatever the direction. The page number of the
+   * {@code pageable} is ignored.
+   *
+   * @param pageable the size and sort of the slice
+   * @param continuationToken the token of the previous slice, or {@literal null} to read the first one
+   * @return the slice of entities
+   */
+  @Override
+  public KeysetSlice<ENTITY> getAll(Pageable pageable, String continuationToken) {
+    List<Sort.Order> orders = this.keysetOrders(pageable.getSort());
+    Class<?>[] types = orders.stream()
+      .map(order -> BeanUtils.findPropertyType(order.getProperty(), type.getRawType()))
+      .toArray(Class<?>[]::new);
+
+    JPQLQuery<ENTITY> query = from(this.entityPath);
+    if (continuationToken != null) {
+      query.where(this.keysetPredicate(orders, types, KeysetToken.decode(continuationToken, types)));
+    }
+    for (int i = 0; i < orders.size(); i++) {
+      query.orderBy(new OrderSpecifier<>(orders.get(i).isAscending() ? Order.ASC : Order.DESC,
+        this.comparablePath(orders.get(i).getProperty(), types[i]), NullHandling.NullsLast));
+    }
+
+    List<ENTITY> content = new ArrayList<>(query.limit(pageable.getPageSize() + 1).fetch());
+    boolean hasNext = content.size() > pageable.getPageSize();
+    if (hasNext) {
+      content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+    }
+
+    String nextToken = null;
+    if (!content.isEmpty()) {
+      BeanWrapper last = new BeanWrapperImpl(content.get(content.size() - 1));
+      nextToken = KeysetToken.encode(orders.stream().map(order -> last.getPropertyValue(order.getProperty())).toArray());
+    }
+    return new KeysetSlice<>(content, pageable, hasNext, nextToken);
+  }
+
+  @Override
+  @Cacheable(key = "'count'")
+  public long count() {
+    return this.repository.count();
+  }
+
+  /**
+   * Returns a page of summaries of the entities : instances holding only their id, their audit fields
+   * and the given properties, read with a single query selecting the matching columns. Lobs and
+   * collections that aren't requested are never read.
+   * Summaries aren't managed by the persistence context and must not be updated.
+   *
+   * @param pageable the page to read
+   * @param properties the single valued properties to read
+   * @return the page of summaries
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Page<ENTITY> getSummaries(Pageable pageable, Collection<String> properties) {
+    Expression<?>[] columns = Stream.concat(Stream.of(SUMMARY_PROPERTIES), properties.stream())
+      .distinct()
+      .map(property -> this.entityPath.get(property, this.summaryPropertyType(property)))
+      .toArray(Expression<?>[]::new);
+
+    JPQLQuery<ENTITY> query = this.querydsl.createQuery(this.entityPath)
+      .select(Projections.bean((Class<ENTITY>) type.getRawType(), columns));
+    List<ENTITY> content = this.querydsl.applyPagination(pageable, query).fetch();
+
+    return new PageImpl<>(content, pageable, this.self().count());
+  }
+
+  /**
+   * Returns the ids of the entities created or modified since the given date, included.
+   *
+   * @param since the lower bound of the modification date
+   * @return the ids of the entities
+   */
+  @Override
+  public List<Long> getIdsModifiedSince(Date since) {
+    return this.querydsl.createQuery(this.entityPath).select(this.idPath())
+      .where(this.entityPath.getDate("modificationDate", Date.class).goe(since))
+      .fetch();
+  }
+
+  /**
+   * Returns the given ids that still match a stored entity, checked with {@literal IN} queries of at
+   * most {@value #IN_CLAUSE_SIZE} ids.
+   *
+   * @param ids the ids to check
+   * @return the ids of the existing entities
+   */
+  @Override
+  public Set<Long> getExistingIds(Collection<Long> ids) {
+    Set<Long> existing = new HashSet<>();
+    for (List<Long> chunk : Lists.partition(new ArrayList<>(ids), IN_CLAUSE_SIZE)) {
+      existing.addAll(this.querydsl.createQuery(this.entityPath).select(this.idPath())
+        .where(this.idPath().in(chunk)).fetch());
+    }
+    return existing;
+  }
+
+  /**
+   * Returns the ids of the entities to load in the cache when the node starts, the first ones in the
+   * {@link #getWarmUpOrder(PathBuilder) warm-up order}.
+   *
+   * @param limit the maximum number of ids
+   * @return the ids of the entities to load
+   */
+  @Override
+  public List<Long> getWarmUpIds(int limit) {
+    return this.querydsl.createQuery(this.entityPath).select(this.idPath())
+      .orderBy(this.getWarmUpOrder(this.entityPath), this.idPath().desc())
+      .limit(limit)
+      .fetch();
+  }
+
+  /**
+   * Returns the order in which the entities are loaded in the cache when the node starts, the most
+   * recently modified first by default. DAOs of entities with a better measure of their use should
+   * override it.
+   *
+   * @param path the path of the managed entity
+   * @return the warm-up order
+   */
+  protected OrderSpecifier<?> getWarmUpOrder(PathBuilder<ENTITY> path) {
+    return path.getDate("modificationDate", Date.class).desc().nullsLast();
+  }
+
+  /**
+   * Returns the lowest and highest ids of the stored entities, read with a single aggregate query, or
+   * {@literal null} if there is none.
+   *
+   * @return the closed range of the ids
+   */
+  @Override
+  public Range<Long> getIdBounds() {
+    Tuple bounds = this.querydsl.createQuery(this.entityPath)
+      .select(this.idPath().min(), this.idPath().max()).fetchOne();
+    if (bounds == null || bounds.get(0, Long.class) == null) {
+      return null;
+    }
+    return Range.closed(bounds.get(0, Long.class), bounds.get(1, Long.class));
+  }
+
+  /**
+   * Returns at most {@code limit} entities whose id lies between the given bounds, both included,
+   * ordered by id. Reading the range after the last id returned continues the scan.
+   *
+   * @param fromId the lowest id, included
+   * @param toId the highest id, included
+   * @param limit the maximum number of entities to read
+   * @return the entities found
+   */
+  @Override
+  public List<ENTITY> getAllInIdRange(long fromId, long toId, int limit) {
+    NumberPath<Long> id = this.idPath();
+    return from(this.entityPath).where(id.goe(fromId), id.loe(toId))
+      .orderBy(id.asc()).limit(limit).fetch();
+  }
+
+  private Class<?> summaryPropertyType(String property) {
+    Class<?> propertyType = BeanUtils.findPropertyType(property, type.getRawType());
+    if (propertyType == Object.class) {
+      throw new IllegalArgumentException("Unknown property " + property + " on " + type.getRawType());
+    }
+    if (Collection.class.isAssignableFrom(propertyType) || Map.class.isAssignableFrom(propertyType)) {
+      throw new IllegalArgumentException("Summaries can't hold the collection " + property);
+    }
+    return propertyType;
+  }
+
+  /**
+   * Returns the DAO as exposed by the context, through which the DAO calls its own cached methods such
+   * as {@link #count()}, or the DAO itself outside of a context.
+   */
+  @SuppressWarnings("unchecked")
+  private ReadOnlyDao<ENTITY> self() {
+    if (this.self == null) {
+      Object bean = this.beanFactory == null || this.beanName == null ? null : this.beanFactory.getBean(this.beanName);
+      this.self = bean instanceof ReadOnlyDao ? (ReadOnlyDao<ENTITY>) bean : this;
+    }
+    return this.self;
+  }
+
+  private List<Sort.Order> keysetOrders(Sort sort) {
+    List<Sort.Order> orders = new ArrayList<>();
+    Direction idDirection = Direction.ASC;
+    if (sort != null) {
+      for (Sort.Order order : sort) {
+        if (order.getProperty().equals("id")) {
+          idDirection = order.getDirection();
+        } else {
+          orders.add(order);
+        }
+      }
+    }
+    orders.add(new Sort.Order(idDirection, "id"));
+    return orders;
+  }
+
+  /**
+   * Returns the predicate of the elements coming after the given keys, nulls last : for each sort
+   * property, the elements equal on the previous properties and after the key on this one, that is
+   * beyond it in the direction of the sort or null. Nothing comes after a null key on a property but
+   * the elements equal on it, which are null as well.
+   */
+  @SuppressWarnings("unchecked")
+  private Predicate keysetPredicate(List<Sort.Order> orders, Class<?>[] types, Object[] keys) {
+    BooleanBuilder predicate = new BooleanBuilder();
+    for (int i = 0; i < orders.size(); i++) {
+      if (keys[i] == null) {
+        continue;
+      }
+      BooleanBuilder clause = new BooleanBuilder();
+      for (int j = 0; j < i; j++) {
+        ComparablePath<Comparable> previous = this.comparablePath(orders.get(j).getProperty(), types[j]);
+        clause.and(keys[j] == null ? previous.isNull() : previous.eq((Comparable) keys[j]));
+      }
+      ComparablePath<Comparable> path = this.comparablePath(orders.get(i).getProperty(), types[i]);
+      clause.and((orders.get(i).isAscending() ? path.gt((Comparable) keys[i]) : path.lt((Comparable) keys[i]))
+        .or(path.isNull()));
+      predicate.or(clause);
+    }
+    return predicate;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ComparablePath<Comparable> comparablePath(String property, Class<?> propertyType) {
+    return this.entityPath.getComparable(property, (Class<Comparable>) propertyType);
+  }
+
+  /**
+   * Returns a lazy {@link Stream} over every entity, ordered by id.
+   * Entities are read by chunks of {@code chunkSize} using keyset pagination on the id, and each chunk
+   * is detached from the persistence context once the next one is requested, so that a full scan
+   * runs in bounded memory.
+   *
+   * @param chunkSize the number of entities fetched per query, must be positive
+   * @return the stream of entities
+   */
+  @Override
+  public Stream<ENTITY> stream(int chunkSize) {
+    Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+    Iterator<ENTITY> iterator = new Iterator<ENTITY>() {
+      private List<ENTITY> chunk = Collections.emptyList();
+      private int position = 0;
+      private Long lastId = null;
+      private boolean exhausted = false;
+
+      @Override
+      public boolean hasNext() {
+        if (position < chunk.size()) {
+          return true;
+        }
+        if (exhausted) {
+          return false;
+        }
+        chunk.forEach(GenericReadOnlyDaoImpl.this::detach);
+        chunk = fetchChunk(lastId, chunkSize);
+        position = 0;
+        exhausted = chunk.size() < chunkSize;
+        if (!chunk.isEmpty()) {
+          lastId = chunk.get(chunk.size() - 1).getId();
+        }
+        return !chunk.isEmpty();
+      }
+
+      @Override
+      public ENTITY next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return chunk.get(position++);
+      }
+    };
+
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+      Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+  }
+
+  private List<ENTITY> fetchChunk(Long lastId, int chunkSize) {
+    NumberPath<Long> id = this.idPath();
+    JPQLQuery<ENTITY> query = from(this.entityPath);
+    if (lastId != null) {
+      query.where(id.gt(lastId));
+    }
+    return query.orderBy(id.asc()).limit(chunkSize).fetch();
+  }
+
+  private void detach(ENTITY entity) {
+    if (this.entityManager.contains(entity)) {
+      this.entityManager.detach(entity);
+    }
+  }
+
+  /**
+   * Returns the path to the id of the managed entity.
+   *
+   * @return the id path
+   */
+  protected NumberPath<Long> idPath() {
+    return this.entityPath.getNumber("id", Long.class);
+  }
+
   /**
    * Returns a fresh {@link JPQLQuery}.
    *
@@ -90,6 +520,25 @@ public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> impl
     return querydsl.createQuery(path).select(path);
   }
 
+  /**
+   * Returns the cache of the DAO, named after its class as resolved by the {@literal blossomCacheResolver},
+   * or {@literal null} if caching isn't configured.
+   *
+   * @return the cache of the DAO
+   */
+  protected Cache getCache() {
+    return this.cacheManager == null ? null : this.cacheManager.getCache(this.getClass().getCanonicalName());
+  }
+
+  /**
+   * Returns the underlying {@link EntityManager}.
+   *
+   * @return
+   */
+  protected EntityManager getEntityManager() {
+    return this.entityManager;
+  }
+
   /**
    * Returns the underlying Querydsl helper instance.
    *
@@ -99,4 +548,46 @@ public abstract class GenericReadOnlyDaoImpl<ENTITY extends AbstractEntity> impl
     return this.querydsl;
   }
 
+  /**
+   * Loader of the cache of the DAO : the entities by id, and their count.
+   */
+  private class EntityCacheLoader implements CacheLoader<Object, Object> {
+
+    @Override
+    public Object load(Object key) {
+      if ("count".equals(key)) {
+        return repository.count();
+      }
+      Long id = this.parseId(key);
+      return id == null ? null : repository.findOne(id);
+    }
+
+    @Override
+    public Map<Object, Object> loadAll(Iterable<?> keys) {
+      Map<Object, Object> loaded = new HashMap<>();
+      List<Long> ids = new ArrayList<>();
+      for (Object key : keys) {
+        Long id = this.parseId(key);
+        if (id != null) {
+          ids.add(id);
+        } else if ("count".equals(key)) {
+          loaded.put(key, repository.count());
+        }
+      }
+      for (List<Long> chunk : Lists.partition(ids, IN_CLAUSE_SIZE)) {
+        for (ENTITY entity : repository.findAll(chunk)) {
+          loaded.put(entity.getId() + "", entity);
+        }
+      }
+      return loaded;
+    }
+
+    private Long parseId(Object key) {
+      try {
+        return key instanceof String ? Long.valueOf((String) key) : null;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
 }
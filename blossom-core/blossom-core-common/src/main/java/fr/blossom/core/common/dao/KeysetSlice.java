@@ -0,0 +1,32 @@
+package fr.blossom.core.common.dao;
+
+import java.util.List;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A {@link org.springframework.data.domain.Slice} read with keyset pagination. The continuation token
+ * identifies the last element of the slice and must be given back to read the next one.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+  private final Pageable pageable;
+  private final String continuationToken;
+
+  public KeysetSlice(List<T> content, Pageable pageable, boolean hasNext, String continuationToken) {
+    super(content, pageable, hasNext);
+    this.pageable = pageable;
+    this.continuationToken = continuationToken;
+  }
+
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  @Override
+  public <S> KeysetSlice<S> map(Converter<? super T, ? extends S> converter) {
+    return new KeysetSlice<>(this.getConvertedContent(converter), this.pageable, this.hasNext(),
+      this.continuationToken);
+  }
+}
@@ -0,0 +1,44 @@
+package fr.blossom.core.common.dao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the continuation tokens of {@link KeysetSlice}. A token is the url-safe base64
+ * form of the JSON array of the sort keys of the last element read.
+ */
+final class KeysetToken {
+
+  private final static ObjectMapper objectMapper = new ObjectMapper();
+
+  private KeysetToken() {
+  }
+
+  static String encode(Object[] keys) {
+    try {
+      return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(objectMapper.writeValueAsBytes(keys));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can't encode continuation token", e);
+    }
+  }
+
+  static Object[] decode(String token, Class<?>[] types) {
+    try {
+      JsonNode keys = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      if (keys == null || !keys.isArray() || keys.size() != types.length) {
+        throw new IllegalArgumentException("Continuation token doesn't match the requested sort");
+      }
+      Object[] values = new Object[types.length];
+      for (int i = 0; i < types.length; i++) {
+        values[i] = objectMapper.convertValue(keys.get(i), types[i]);
+      }
+      return values;
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid continuation token " + token, e);
+    }
+  }
+}
@@ -1,11 +1,26 @@
 package fr.blossom.core.common.dao;
 
+import com.google.common.collect.Range;
 import fr.blossom.core.common.entity.AbstractEntity;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Reads the entities of a type. Only the first four methods must be implemented : the other ones have
+ * default implementations built on them, which read every entity and are meant to be overridden, as
+ * {@link GenericReadOnlyDaoImpl} does with dedicated queries.
+ */
 public interface ReadOnlyDao<ENTITY extends AbstractEntity> {
 
     List<ENTITY> getAll();
@@ -16,4 +31,60 @@ public interface ReadOnlyDao<ENTITY extends AbstractEntity> {
 
     ENTITY getOne(long id);
 
+    /**
+     * Returns a slice of the entities read with keyset pagination. Not supported by default.
+     */
+    default KeysetSlice<ENTITY> getAll(Pageable pageable, String continuationToken) {
+        throw new UnsupportedOperationException("Keyset pagination isn't supported by " + this.getClass().getName());
+    }
+
+    default long count() {
+        return this.getAll(new PageRequest(0, 1)).getTotalElements();
+    }
+
+    /**
+     * Returns a page of entities, in which only the given properties need to be loaded. The default
+     * implementation loads whole entities.
+     */
+    default Page<ENTITY> getSummaries(Pageable pageable, Collection<String> properties) {
+        return this.getAll(pageable);
+    }
+
+    default List<Long> getIdsModifiedSince(Date since) {
+        return this.getAll().stream()
+            .filter(entity -> entity.getModificationDate() != null && !entity.getModificationDate().before(since))
+            .map(AbstractEntity::getId)
+            .collect(Collectors.toList());
+    }
+
+    default Set<Long> getExistingIds(Collection<Long> ids) {
+        return this.getAll(ids.stream().distinct().collect(Collectors.toList())).stream()
+            .map(AbstractEntity::getId)
+            .collect(Collectors.toSet());
+    }
+
+    default Range<Long> getIdBounds() {
+        LongSummaryStatistics ids = this.getAll().stream().mapToLong(AbstractEntity::getId).summaryStatistics();
+        return ids.getCount() == 0 ? null : Range.closed(ids.getMin(), ids.getMax());
+    }
+
+    default List<ENTITY> getAllInIdRange(long fromId, long toId, int limit) {
+        return this.getAll().stream()
+            .filter(entity -> entity.getId() >= fromId && entity.getId() <= toId)
+            .sorted(Comparator.comparing(AbstractEntity::getId))
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the ids of the entities to load when warming the caches up. None by default.
+     */
+    default List<Long> getWarmUpIds(int limit) {
+        return Collections.emptyList();
+    }
+
+    default Stream<ENTITY> stream(int chunkSize) {
+        return this.getAll().stream();
+    }
+
 }
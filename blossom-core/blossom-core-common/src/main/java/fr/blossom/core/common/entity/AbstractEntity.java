@@ -1,5 +1,6 @@
 package fr.blossom.core.common.entity;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -9,13 +10,14 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.Date;
-import java.util.UUID;
 
 @MappedSuperclass
 @EntityListeners({AuditingEntityListener.class})
 public abstract class AbstractEntity implements Serializable {
 
   @Id
+  @GeneratedValue(generator = "blossom_id")
+  @GenericGenerator(name = "blossom_id", strategy = "fr.blossom.core.common.entity.id.BlossomIdentifierGenerator")
   @Column(name = "id")
   private Long id;
 
@@ -37,13 +39,6 @@ public abstract class AbstractEntity implements Serializable {
   @LastModifiedBy
   private String modificationUser;
 
-  @PrePersist
-  public void ensureId() {
-    if (this.id == null) {
-      this.id = Math.abs(UUID.randomUUID().getLeastSignificantBits());
-    }
-  }
-
   public Long getId() {
     return this.id;
   }
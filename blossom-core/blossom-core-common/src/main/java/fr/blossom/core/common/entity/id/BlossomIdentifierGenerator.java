@@ -0,0 +1,58 @@
+package fr.blossom.core.common.entity.id;
+
+import fr.blossom.core.common.entity.AbstractEntity;
+import java.io.Serializable;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Hibernate generator of the id of {@link AbstractEntity}. It delegates to the {@link IdGenerator}
+ * found under {@link #ID_GENERATOR_SETTING} in the settings of the entity manager factory, so each
+ * application context uses its own strategy. It falls back to {@link RandomIdGenerator} when no
+ * generator is registered. An id already set on the entity is kept. The table of each mapped entity
+ * is registered to the {@link IdGenerator}, which may seed its ids from it.
+ */
+public class BlossomIdentifierGenerator implements IdentifierGenerator, Configurable {
+
+  public final static String ID_GENERATOR_SETTING = "blossom.id.generator";
+
+  private IdGenerator idGenerator;
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry)
+    throws MappingException {
+    Object idGenerator = serviceRegistry.getService(ConfigurationService.class).getSettings()
+      .get(ID_GENERATOR_SETTING);
+    if (idGenerator == null) {
+      this.idGenerator = new RandomIdGenerator();
+    } else if (idGenerator instanceof IdGenerator) {
+      this.idGenerator = (IdGenerator) idGenerator;
+    } else {
+      throw new MappingException(
+        "Setting " + ID_GENERATOR_SETTING + " must be an instance of " + IdGenerator.class.getName());
+    }
+
+    String table = params.getProperty(PersistentIdentifierGenerator.TABLE);
+    String idColumn = params.getProperty(PersistentIdentifierGenerator.PK);
+    if (table != null && idColumn != null) {
+      String schema = params.getProperty(PersistentIdentifierGenerator.SCHEMA);
+      this.idGenerator.registerTable(schema == null ? table : schema + "." + table, idColumn);
+    }
+  }
+
+  @Override
+  public Serializable generate(SessionImplementor session, Object object) {
+    if (object instanceof AbstractEntity && ((AbstractEntity) object).getId() != null) {
+      return ((AbstractEntity) object).getId();
+    }
+    return idGenerator.nextId();
+  }
+
+}
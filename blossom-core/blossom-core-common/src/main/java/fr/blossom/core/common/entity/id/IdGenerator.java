@@ -0,0 +1,21 @@
+package fr.blossom.core.common.entity.id;
+
+/**
+ * Strategy used by {@link fr.blossom.core.common.entity.AbstractEntity} to assign the id of a new
+ * entity before it is persisted.
+ */
+public interface IdGenerator {
+
+  long nextId();
+
+  /**
+   * Registers a table whose ids are assigned by this generator, called for each mapped entity when
+   * the entity manager factory starts. Does nothing by default.
+   *
+   * @param table the name of the table, qualified by its schema when it has one
+   * @param idColumn the name of the numeric id column
+   */
+  default void registerTable(String table, String idColumn) {
+  }
+
+}
@@ -0,0 +1,134 @@
+package fr.blossom.core.common.entity.id;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * Generates increasing ids with the pooled hi-lo algorithm : a block of {@code poolSize} ids is
+ * reserved by incrementing the {@code blossom_id_pool} table in its own transaction, then ids are
+ * handed out from memory until the block is exhausted. Blocks never overlap across the nodes of a
+ * cluster since they are reserved in the database.
+ * <p>
+ * The pool is seeded above the highest id of the tables registered with
+ * {@link #registerTable(String, String)}, the tables of the mapped entities : a database migrated from
+ * {@link RandomIdGenerator} keeps its existing rows, and the pool starts after the highest random id
+ * instead of at 1. The seeding is idempotent and runs in the transaction of the next reservation, so
+ * nodes starting together agree on the floor.
+ */
+public class PooledTableIdGenerator implements IdGenerator {
+
+  private final static String UPDATE_QUERY = "UPDATE blossom_id_pool SET next_value = next_value + ? WHERE name = ?";
+  private final static String SELECT_QUERY = "SELECT next_value FROM blossom_id_pool WHERE name = ?";
+  private final static String SEED_QUERY = "UPDATE blossom_id_pool SET next_value = ? WHERE name = ? AND next_value < ?";
+
+  private final DataSource dataSource;
+  private final String poolName;
+  private final int poolSize;
+
+  private long next = 0;
+  private long max = 0;
+  private final Map<String, String> pendingSeeds = Maps.newLinkedHashMap();
+
+  public PooledTableIdGenerator(DataSource dataSource, String poolName, int poolSize) {
+    Preconditions.checkNotNull(dataSource);
+    Preconditions.checkNotNull(poolName);
+    Preconditions.checkArgument(poolSize > 0, "Pool size must be positive");
+    this.dataSource = dataSource;
+    this.poolName = poolName;
+    this.poolSize = poolSize;
+  }
+
+  @Override
+  public synchronized long nextId() {
+    if (next >= max) {
+      max = this.reserveBlock();
+      next = max - poolSize;
+    }
+    return next++;
+  }
+
+  /**
+   * Seeds the pool above the highest id of the given table before the next block is reserved. The
+   * current block is dropped, since it may overlap the ids of the table.
+   */
+  @Override
+  public synchronized void registerTable(String table, String idColumn) {
+    Preconditions.checkNotNull(table);
+    Preconditions.checkNotNull(idColumn);
+    pendingSeeds.put(table, idColumn);
+    next = max;
+  }
+
+  private long reserveBlock() {
+    try (Connection connection = this.dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        if (!pendingSeeds.isEmpty()) {
+          this.seedPool(connection);
+        }
+        long value = this.incrementPool(connection);
+        connection.commit();
+        pendingSeeds.clear();
+        return value;
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Can't reserve a block of ids from pool " + poolName, e);
+    }
+  }
+
+  private long incrementPool(Connection connection) throws SQLException {
+    try (PreparedStatement update = connection.prepareStatement(UPDATE_QUERY)) {
+      update.setLong(1, poolSize);
+      update.setString(2, poolName);
+      if (update.executeUpdate() != 1) {
+        throw new IllegalStateException("Id pool " + poolName + " doesn't exist in table blossom_id_pool");
+      }
+    }
+    try (PreparedStatement select = connection.prepareStatement(SELECT_QUERY)) {
+      select.setString(1, poolName);
+      try (ResultSet resultSet = select.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    }
+  }
+
+  private void seedPool(Connection connection) throws SQLException {
+    long floor = this.findMaxId(connection) + 1;
+    try (PreparedStatement seed = connection.prepareStatement(SEED_QUERY)) {
+      seed.setLong(1, floor);
+      seed.setString(2, poolName);
+      seed.setLong(3, floor);
+      seed.executeUpdate();
+    }
+  }
+
+  private long findMaxId(Connection connection) throws SQLException {
+    long maxId = 0;
+    try (Statement statement = connection.createStatement()) {
+      for (Map.Entry<String, String> table : pendingSeeds.entrySet()) {
+        try (ResultSet resultSet = statement.executeQuery(
+          "SELECT MAX(" + table.getValue() + ") FROM " + table.getKey())) {
+          if (resultSet.next()) {
+            maxId = Math.max(maxId, resultSet.getLong(1));
+          }
+        }
+      }
+    }
+    return maxId;
+  }
+
+}
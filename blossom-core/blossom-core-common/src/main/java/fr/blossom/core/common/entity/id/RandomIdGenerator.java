@@ -0,0 +1,16 @@
+package fr.blossom.core.common.entity.id;
+
+import java.util.UUID;
+
+/**
+ * Generates random positive ids. Kept for backward compatibility : random ids spread inserts over
+ * the whole primary key index.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+  @Override
+  public long nextId() {
+    return Math.abs(UUID.randomUUID().getLeastSignificantBits());
+  }
+
+}
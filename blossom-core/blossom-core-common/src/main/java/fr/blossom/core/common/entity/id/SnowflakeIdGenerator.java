@@ -0,0 +1,44 @@
+package fr.blossom.core.common.entity.id;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generates time-ordered 64 bits ids : 41 bits of milliseconds since 2017-01-01, 10 bits of node id
+ * and 12 bits of sequence. Each node of a cluster must use a distinct node id.
+ * Ids generated by a node are strictly increasing, even if the clock goes backwards.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+  private final static long EPOCH = 1483228800000L;
+  private final static int NODE_BITS = 10;
+  private final static int SEQUENCE_BITS = 12;
+  public final static long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+  private final static long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+  private final long nodeId;
+  private long lastTimestamp = -1L;
+  private long sequence = 0L;
+
+  public SnowflakeIdGenerator(long nodeId) {
+    Preconditions.checkArgument(nodeId >= 0 && nodeId <= MAX_NODE_ID,
+      "Node id must be between 0 and %s", MAX_NODE_ID);
+    this.nodeId = nodeId;
+  }
+
+  @Override
+  public synchronized long nextId() {
+    long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+    if (timestamp == lastTimestamp) {
+      sequence = (sequence + 1) & MAX_SEQUENCE;
+      if (sequence == 0) {
+        timestamp++;
+      }
+    } else {
+      sequence = 0;
+    }
+    lastTimestamp = timestamp;
+
+    return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+  }
+
+}
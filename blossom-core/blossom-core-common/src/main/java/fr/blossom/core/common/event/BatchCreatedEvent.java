@@ -0,0 +1,13 @@
+package fr.blossom.core.common.event;
+
+
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.List;
+
+public class BatchCreatedEvent<DTO extends AbstractDTO> extends BatchEvent<DTO> {
+
+  public BatchCreatedEvent(Object source, List<DTO> dtos) {
+    super(source, dtos);
+  }
+
+}
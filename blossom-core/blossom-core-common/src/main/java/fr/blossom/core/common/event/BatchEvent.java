@@ -0,0 +1,21 @@
+package fr.blossom.core.common.event;
+
+
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.List;
+import org.springframework.context.ApplicationEvent;
+
+public abstract class BatchEvent<DTO extends AbstractDTO> extends ApplicationEvent {
+
+  protected List<DTO> dtos;
+
+  public BatchEvent(Object source, List<DTO> dtos) {
+    super(source);
+    this.dtos = dtos;
+  }
+
+  public List<DTO> getDTOs() {
+    return dtos;
+  }
+
+}
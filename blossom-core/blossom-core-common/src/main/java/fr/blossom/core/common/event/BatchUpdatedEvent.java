@@ -0,0 +1,13 @@
+package fr.blossom.core.common.event;
+
+
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.List;
+
+public class BatchUpdatedEvent<DTO extends AbstractDTO> extends BatchEvent<DTO> {
+
+  public BatchUpdatedEvent(Object source, List<DTO> dtos) {
+    super(source, dtos);
+  }
+
+}
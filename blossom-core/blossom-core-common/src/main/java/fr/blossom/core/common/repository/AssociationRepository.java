@@ -2,19 +2,30 @@ package fr.blossom.core.common.repository;
 
 import fr.blossom.core.common.entity.AbstractAssociationEntity;
 import fr.blossom.core.common.entity.AbstractEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Collection;
 import java.util.List;
 
 @NoRepositoryBean
 public interface AssociationRepository<A extends AbstractEntity, B extends AbstractEntity, ASSOCIATION extends AbstractAssociationEntity<A, B>> extends JpaRepository<ASSOCIATION, Long>, QueryDslPredicateExecutor<ASSOCIATION> {
 
+    @EntityGraph(attributePaths = {"a", "b"})
     ASSOCIATION findOneByAAndB(A a, B b);
 
+    @EntityGraph(attributePaths = {"a", "b"})
     List<ASSOCIATION> findAllByA(A a);
 
+    @EntityGraph(attributePaths = {"a", "b"})
     List<ASSOCIATION> findAllByB(B b);
 
+    @EntityGraph(attributePaths = {"a", "b"})
+    List<ASSOCIATION> findAllByA_IdIn(Collection<Long> aIds);
+
+    @EntityGraph(attributePaths = {"a", "b"})
+    List<ASSOCIATION> findAllByB_IdIn(Collection<Long> bIds);
+
 }
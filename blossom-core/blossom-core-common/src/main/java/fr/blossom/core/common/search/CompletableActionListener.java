@@ -0,0 +1,25 @@
+package fr.blossom.core.common.search;
+
+import java.util.concurrent.CompletableFuture;
+import org.elasticsearch.action.ActionListener;
+
+/**
+ * {@link CompletableFuture} completed by the response of an Elasticsearch action, to pass as the
+ * listener of the action.
+ * The future is completed on the transport thread of the client : dependent stages doing more than
+ * light work should run on an executor of their own.
+ *
+ * @param <T> the type of the response
+ */
+public class CompletableActionListener<T> extends CompletableFuture<T> implements ActionListener<T> {
+
+  @Override
+  public void onResponse(T response) {
+    this.complete(response);
+  }
+
+  @Override
+  public void onFailure(Throwable e) {
+    this.completeExceptionally(e);
+  }
+}
@@ -4,6 +4,8 @@ package fr.blossom.core.common.search;
 import fr.blossom.core.common.PluginConstants;
 import fr.blossom.core.common.dto.AbstractDTO;
 import org.springframework.beans.factory.annotation.Qualifier;
+import java.util.Collection;
+import java.util.Set;
 import org.springframework.plugin.core.Plugin;
 
 @Qualifier(value = PluginConstants.PLUGIN_INDEXATION_ENGINE)
@@ -11,10 +13,20 @@ public interface IndexationEngine extends Plugin<Class<? extends AbstractDTO>> {
 
   void indexFull();
 
+  void indexDelta();
+
   void indexOne(long id);
 
   void updateOne(long id);
 
   void deleteOne(long dto);
 
+  void indexMany(Collection<Long> ids);
+
+  void deleteMany(Collection<? extends AbstractDTO> dtos);
+
+  Set<Long> bulk(Collection<Long> ids, Collection<? extends AbstractDTO> deletedDTOs);
+
+  IndexationProgress getProgress();
+
 }
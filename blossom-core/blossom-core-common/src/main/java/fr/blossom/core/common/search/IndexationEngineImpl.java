@@ -1,16 +1,33 @@
 package fr.blossom.core.common.search;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import fr.blossom.core.common.dto.AbstractDTO;
 import fr.blossom.core.common.service.ReadOnlyService;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
@@ -18,67 +35,354 @@ import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateRequestBuilder;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.IndicesAdminClient;
 import org.elasticsearch.cluster.metadata.AliasMetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.max.Max;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.ReflectionUtils;
 
 public class IndexationEngineImpl<DTO extends AbstractDTO> implements IndexationEngine {
 
   private final static Logger logger = LoggerFactory.getLogger(IndexationEngineImpl.class);
+  private final static int BULK_SIZE = 500;
+  private final static int READ_SIZE = 1000;
+  private final static int PARTITIONS_PER_THREAD = 4;
+  private final static long BULK_TIMEOUT = 10;
+  private final static long DELTA_OVERLAP = TimeUnit.MINUTES.toMillis(5);
+  private final static TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+  private final static long ALIAS_TTL = 30000;
   private final Client client;
   private final ReadOnlyService<DTO> service;
   private final IndexationEngineConfiguration<DTO> configuration;
 
   private final ObjectMapper objectMapper;
-  private final BulkProcessor bulkProcessor;
-
-  public IndexationEngineImpl(Client client, ReadOnlyService<DTO> service, BulkProcessor bulkProcessor, ObjectMapper objectMapper, IndexationEngineConfiguration<DTO> configuration) {
+  private final ObjectWriter summaryWriter;
+  private final ObjectWriter dtoWriter;
+  private final boolean legacyDocument;
+  private final IndexationProgress progress = new IndexationProgress();
+  private volatile AliasIndices aliasIndices;
+  private int parallelism = 4;
+  private int concurrentRequests = 2;
+  private boolean reconcileDeletions = false;
+  private SearchResultCache searchResultCache;
+
+  public IndexationEngineImpl(Client client, ReadOnlyService<DTO> service, ObjectMapper objectMapper, IndexationEngineConfiguration<DTO> configuration) {
     this.client = client;
     this.service = service;
-    this.bulkProcessor = bulkProcessor;
     this.objectMapper = objectMapper;
     this.configuration = configuration;
+    this.summaryWriter = objectMapper.writerFor(SummaryDTO.class);
+    this.dtoWriter = objectMapper.writerFor(configuration.getSupportedClass());
+    this.legacyDocument = ReflectionUtils.findMethod(this.getClass(), "prepareDocument", AbstractDTO.class)
+      .getDeclaringClass() != IndexationEngineImpl.class;
+  }
+
+  /**
+   * @deprecated the bulk processor is ignored, each indexation builds its own bulk requests. Use
+   * {@link #IndexationEngineImpl(Client, ReadOnlyService, ObjectMapper, IndexationEngineConfiguration)}
+   * instead
+   */
+  @Deprecated
+  public IndexationEngineImpl(Client client, ReadOnlyService<DTO> service, BulkProcessor bulkProcessor, ObjectMapper objectMapper, IndexationEngineConfiguration<DTO> configuration) {
+    this(client, service, objectMapper, configuration);
+  }
+
+  @Override
+  public IndexationProgress getProgress() {
+    return this.progress;
+  }
+
+  /**
+   * Sets the cache of the search results, outdated on each write on the alias.
+   *
+   * @param searchResultCache the cache of the search results
+   */
+  @Autowired(required = false)
+  public void setSearchResultCache(SearchResultCache searchResultCache) {
+    this.searchResultCache = searchResultCache;
+  }
+
+  /**
+   * Sets the number of threads reading and serializing the elements during a full indexation.
+   *
+   * @param parallelism the size of the reading pool, must be positive
+   */
+  @Value("${blossom.indexation.full.parallelism:4}")
+  public void setParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the number of bulk requests allowed in flight during a full indexation. Once reached, the
+   * readers block until a bulk completes.
+   *
+   * @param concurrentRequests the number of concurrent bulk requests, 0 for synchronous bulks
+   */
+  @Value("${blossom.indexation.full.concurrent-requests:2}")
+  public void setConcurrentRequests(int concurrentRequests) {
+    Preconditions.checkArgument(concurrentRequests >= 0, "Concurrent requests can't be negative");
+    this.concurrentRequests = concurrentRequests;
   }
 
+  /**
+   * Sets whether each delta indexation also removes from the index the elements that no longer
+   * exist. Deletions already reach the index through the indexation queue and outbox, and the
+   * reconciliation scrolls the whole index, so it is meant for setups where deletions may be missed.
+   *
+   * @param reconcileDeletions true to reconcile the deletions on each delta
+   */
+  @Value("${blossom.indexation.delta.reconcile-deletions:false}")
+  public void setReconcileDeletions(boolean reconcileDeletions) {
+    this.reconcileDeletions = reconcileDeletions;
+  }
+
+  /**
+   * Rebuilds the index in a new physical index, then moves the alias onto it.
+   * The id space is split into ranges that are read concurrently on a bounded pool of
+   * {@link #setParallelism(int) parallelism} threads. Each thread serializes its elements and feeds a
+   * bulk processor dedicated to the run, whose {@link #setConcurrentRequests(int) concurrent requests}
+   * bound the memory held : readers wait while the cluster catches up. The new index is dropped if a
+   * reader or a whole bulk fails.
+   */
   @Override
   public void indexFull() {
+    this.progress.start("full", this.service.count());
     this.cleanOrphanIndex();
     String newIndexName = this.createIndex();
+    FullIndexationListener listener = new FullIndexationListener();
+    BulkProcessor fullBulkProcessor = this.createFullBulkProcessor(listener);
+    ExecutorService readers = Executors.newFixedThreadPool(this.parallelism,
+      new ThreadFactoryBuilder().setNameFormat(this.configuration.getAlias() + "-indexation-%d").setDaemon(true).build());
     try {
-      Pageable pageable = new PageRequest(0, 1000);
-      Page<DTO> pagedDTOs = null;
-      do {
-        pagedDTOs = this.service.getAll(pageable);
-        List<DTO> dtos = pagedDTOs.getContent();
-
-        for (DTO dto : dtos) {
-          this.bulkProcessor.add(this.prepareIndexRequest(newIndexName, dto).request());
+      Range<Long> bounds = this.service.getIdBounds();
+      List<Future<Void>> partitions = new ArrayList<>();
+      if (bounds != null) {
+        for (Range<Long> partition : partition(bounds, this.parallelism * PARTITIONS_PER_THREAD)) {
+          partitions.add(readers.submit(() -> this.indexPartition(newIndexName, partition, fullBulkProcessor)));
         }
+      }
+      for (Future<Void> partition : partitions) {
+        partition.get();
+      }
 
-        pageable = pagedDTOs.nextPageable();
-
-      } while (pagedDTOs.hasNext());
-
-      this.bulkProcessor.flush();
+      if (!fullBulkProcessor.awaitClose(BULK_TIMEOUT, TimeUnit.MINUTES)) {
+        throw new IllegalStateException("Bulk requests still pending after " + BULK_TIMEOUT + " minutes");
+      }
+      if (listener.failure != null) {
+        throw new IllegalStateException("A bulk request failed", listener.failure);
+      }
       this.switchIndex(newIndexName);
 
-      logger.info("Full indexing of {} {} ended.", pagedDTOs.getTotalElements(), this.configuration.getAlias());
+      logger.info("Full indexing of {} {} ended in {} ms : {} elements/s, {} failures.", this.progress.getIndexed(),
+        this.configuration.getAlias(), System.currentTimeMillis() - this.progress.getStartDate().getTime(),
+        this.progress.getThroughput(), this.progress.getFailed());
 
     } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      readers.shutdownNow();
+      fullBulkProcessor.close();
       this.client.admin().indices().prepareDelete(newIndexName).get();
       logger.error("Can't index {} elements", this.configuration.getAlias(), e);
+    } finally {
+      readers.shutdown();
+      this.progress.end();
+    }
+  }
+
+  private Void indexPartition(String indexName, Range<Long> partition, BulkProcessor fullBulkProcessor)
+    throws IOException, InterruptedException {
+    long fromId = partition.lowerEndpoint();
+    ByteArrayBuilder buffer = new ByteArrayBuilder();
+    while (true) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedException("Indexation of " + partition + " interrupted");
+      }
+      List<DTO> dtos = this.service.getAllInIdRange(fromId, partition.upperEndpoint(), READ_SIZE);
+      for (DTO dto : dtos) {
+        fullBulkProcessor.add(this.prepareIndexRequest(indexName, dto, buffer).request());
+      }
+      this.progress.read(dtos.size());
+
+      if (dtos.size() < READ_SIZE) {
+        return null;
+      }
+      long lastId = dtos.get(dtos.size() - 1).getId();
+      if (lastId >= partition.upperEndpoint()) {
+        return null;
+      }
+      fromId = lastId + 1;
+    }
+  }
+
+  /**
+   * Splits the given ids into {@code count} contiguous ranges of the same width. Empty ranges are
+   * skipped, so fewer ranges may be returned when the bounds are close.
+   */
+  static List<Range<Long>> partition(Range<Long> bounds, int count) {
+    BigInteger lower = BigInteger.valueOf(bounds.lowerEndpoint());
+    BigInteger width = BigInteger.valueOf(bounds.upperEndpoint()).subtract(lower).add(BigInteger.ONE);
+
+    List<Range<Long>> partitions = new ArrayList<>();
+    long fromId = bounds.lowerEndpoint();
+    for (int i = 1; i <= count; i++) {
+      long toId = lower.add(width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count)))
+        .subtract(BigInteger.ONE).longValue();
+      if (toId >= fromId) {
+        partitions.add(Range.closed(fromId, toId));
+        fromId = toId + 1;
+      }
+    }
+    return partitions;
+  }
+
+  private BulkProcessor createFullBulkProcessor(FullIndexationListener listener) {
+    return BulkProcessor.builder(this.client, listener)
+      .setName(this.configuration.getAlias() + " full indexation")
+      .setBulkActions(BULK_SIZE)
+      .setBulkSize(new ByteSizeValue(5, ByteSizeUnit.MB))
+      .setConcurrentRequests(this.concurrentRequests)
+      .setBackoffPolicy(BackoffPolicy.exponentialBackoff())
+      .build();
+  }
+
+  private class FullIndexationListener implements BulkProcessor.Listener {
+
+    private volatile Throwable failure;
+
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      long failed = Stream.of(response.getItems()).filter(BulkItemResponse::isFailed).count();
+      progress.indexed(request.numberOfActions() - failed);
+      progress.failed(failed);
+      if (failed > 0) {
+        logger.error("Bulk {} on {} ended with failures : {}", executionId, configuration.getAlias(),
+          response.buildFailureMessage());
+      }
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      progress.failed(request.numberOfActions());
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Indexes the elements created or modified since the last indexation, then removes from the index
+   * the elements that no longer exist when {@link #setReconcileDeletions(boolean) enabled}.
+   * The high-water mark is the latest modification date found in the index, moved back by
+   * a few minutes to catch the transactions committed late. Falls back to a full indexation when the
+   * index doesn't exist yet.
+   */
+  @Override
+  public void indexDelta() {
+    if (!existsIndex()) {
+      logger.info("No index for {} yet, running a full indexation instead of a delta", this.configuration.getAlias());
+      this.indexFull();
+      return;
+    }
+
+    try {
+      Date since = new Date(Math.max(0, this.getHighWaterMark() - DELTA_OVERLAP));
+      List<Long> ids = this.service.getIdsModifiedSince(since);
+      this.progress.start("delta", ids.size());
+      this.indexModified(ids);
+      long deleted = this.reconcileDeletions ? this.reconcileDeletions() : 0;
+
+      logger.info("Delta indexing of {} ended : {} elements modified since {} indexed, {} failures, {} deleted elements removed.",
+        this.configuration.getAlias(), this.progress.getIndexed(), since, this.progress.getFailed(), deleted);
+    } catch (Exception e) {
+      logger.error("Can't index {} modified elements", this.configuration.getAlias(), e);
+    } finally {
+      this.progress.end();
+    }
+  }
+
+  private void indexModified(List<Long> ids) {
+    ByteArrayBuilder buffer = new ByteArrayBuilder();
+    for (List<Long> batch : Lists.partition(ids, BULK_SIZE)) {
+      BulkRequestBuilder bulkRequest = this.client.prepareBulk();
+      for (DTO dto : this.service.getAll(batch)) {
+        try {
+          bulkRequest.add(this.prepareIndexRequest(this.configuration.getAlias(), dto, buffer));
+        } catch (IOException e) {
+          logger.error("Can't serialize {} element with id {}", this.configuration.getAlias(), dto.getId(), e);
+          this.progress.failed(1);
+        }
+      }
+      this.progress.read(batch.size());
+
+      BulkResponse response = this.sendBulk(bulkRequest);
+      long failed = response == null ? 0 : Stream.of(response.getItems()).filter(BulkItemResponse::isFailed).count();
+      this.progress.indexed(bulkRequest.numberOfActions() - failed);
+      this.progress.failed(failed);
     }
   }
 
+  private long getHighWaterMark() {
+    SearchResponse response = this.client.prepareSearch(this.configuration.getAlias()).setSize(0)
+      .addAggregation(AggregationBuilders.max("highWaterMark").field("dto.modificationDate"))
+      .get();
+    Max highWaterMark = response.getAggregations().get("highWaterMark");
+    return Double.isInfinite(highWaterMark.getValue()) ? 0 : (long) highWaterMark.getValue();
+  }
+
+  private long reconcileDeletions() {
+    long deleted = 0;
+    SearchResponse response = this.client.prepareSearch(this.configuration.getAlias())
+      .setScroll(SCROLL_KEEP_ALIVE).setSize(BULK_SIZE).setFetchSource(false)
+      .addSort("_doc", SortOrder.ASC)
+      .get();
+    try {
+      while (response.getHits().getHits().length > 0) {
+        SearchHit[] hits = response.getHits().getHits();
+        Set<Long> existing = this.service.getExistingIds(Stream.of(hits)
+          .map(hit -> Long.valueOf(hit.getId())).collect(Collectors.toList()));
+
+        BulkRequestBuilder bulkRequest = this.client.prepareBulk();
+        Stream.of(hits)
+          .filter(hit -> !existing.contains(Long.valueOf(hit.getId())))
+          .map(hit -> this.client.prepareDelete(hit.getIndex(), hit.getType(), hit.getId()))
+          .forEach(bulkRequest::add);
+        deleted += bulkRequest.numberOfActions();
+        this.executeBulk(bulkRequest);
+
+        response = this.client.prepareSearchScroll(response.getScrollId()).setScroll(SCROLL_KEEP_ALIVE).get();
+      }
+    } finally {
+      this.client.prepareClearScroll().addScrollId(response.getScrollId()).get();
+    }
+    return deleted;
+  }
+
   @Override
   public void indexOne(long id) {
     if (!existsIndex()) {
@@ -90,7 +394,8 @@ public class IndexationEngineImpl<DTO extends AbstractDTO> implements Indexation
     try {
       DTO dto = this.service.getOne(id);
       if (dto != null) {
-        this.prepareIndexRequest(this.configuration.getAlias(), dto).get();
+        this.prepareIndexRequest(this.configuration.getAlias(), dto, new ByteArrayBuilder()).get();
+        this.invalidateSearchResults();
       }
     } catch (Exception e) {
       logger.error("Can't index {} element with id {}", this.configuration.getAlias(), id, e);
@@ -113,24 +418,175 @@ public class IndexationEngineImpl<DTO extends AbstractDTO> implements Indexation
       DTO dto = this.service.getOne(id);
       if (dto != null) {
         this.prepareDeleteRequest(this.configuration.getAlias(), dto).get();
+        this.invalidateSearchResults();
       }
     } catch (Exception e) {
       logger.error("Can't delete {} element with id {}", this.configuration.getAlias(), id, e);
     }
   }
 
-  private void cleanOrphanIndex() {
-    String[] indices = client.admin().cluster().prepareState().execute().actionGet().getState()
-      .getMetaData().concreteAllIndices();
+  @Override
+  public void indexMany(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    if (!existsIndex()) {
+      logger.debug("Can't index {} elements with ids {} as the index doesn't exist !", this.configuration.getAlias(), ids);
+      return;
+    }
+
+    try {
+      ByteArrayBuilder buffer = new ByteArrayBuilder();
+      for (List<Long> batch : Iterables.partition(ids, BULK_SIZE)) {
+        BulkRequestBuilder bulkRequest = this.client.prepareBulk();
+        for (DTO dto : this.service.getAll(Lists.newArrayList(batch))) {
+          bulkRequest.add(this.prepareIndexRequest(this.configuration.getAlias(), dto, buffer));
+        }
+        this.executeBulk(bulkRequest);
+      }
+    } catch (Exception e) {
+      logger.error("Can't index {} elements with ids {}", this.configuration.getAlias(), ids, e);
+    }
+  }
+
+  @Override
+  public void deleteMany(Collection<? extends AbstractDTO> dtos) {
+    if (dtos.isEmpty()) {
+      return;
+    }
+    if (!existsIndex()) {
+      logger.debug("Can't delete {} {} elements as the index doesn't exist !", dtos.size(), this.configuration.getAlias());
+      return;
+    }
 
-    List<String> orphans = Stream.of(indices)
-      .filter(i -> i.startsWith(this.configuration.getAlias()))
-      .filter(i -> 0 == client.admin().indices().getAliases(new GetAliasesRequest().indices(i))
-        .actionGet().getAliases().size())
-      .collect(Collectors.toList());
+    try {
+      for (List<? extends AbstractDTO> batch : Iterables.partition(dtos, BULK_SIZE)) {
+        BulkRequestBuilder bulkRequest = this.client.prepareBulk();
+        batch.stream()
+          .filter(dto -> this.configuration.getSupportedClass().isInstance(dto))
+          .map(dto -> this.prepareDeleteRequest(this.configuration.getAlias(), this.configuration.getSupportedClass().cast(dto)))
+          .forEach(bulkRequest::add);
+        this.executeBulk(bulkRequest);
+      }
+    } catch (Exception e) {
+      logger.error("Can't delete {} {} elements", dtos.size(), this.configuration.getAlias(), e);
+    }
+  }
+
+  /**
+   * Indexes the elements with the given ids and removes the given deleted elements in a single bulk
+   * request per {@value #BULK_SIZE} actions. Elements that no longer exist are skipped.
+   * Unlike {@link #indexMany(Collection)} and {@link #deleteMany(Collection)}, errors reaching the
+   * cluster are thrown, and the elements the cluster rejected on their own for a transient reason,
+   * such as a full write queue, are returned, so that the caller can retry them later. Elements that
+   * can't succeed on a retry, such as the ones that can't be serialized or mapped, are only logged.
+   *
+   * @param ids the ids of the elements to index
+   * @param deletedDTOs the elements to remove from the index
+   * @return the ids of the elements to retry
+   */
+  @Override
+  public Set<Long> bulk(Collection<Long> ids, Collection<? extends AbstractDTO> deletedDTOs) {
+    if (ids.isEmpty() && deletedDTOs.isEmpty()) {
+      return Collections.emptySet();
+    }
+    if (!existsIndex()) {
+      logger.debug("Can't index {} {} elements as the index doesn't exist !", ids.size() + deletedDTOs.size(),
+        this.configuration.getAlias());
+      return Collections.emptySet();
+    }
 
-    for (String orphan : orphans) {
-      client.admin().indices().delete(new DeleteIndexRequest(orphan)).actionGet();
+    Set<Long> failed = Sets.newHashSet();
+    BulkRequestBuilder bulkRequest = this.client.prepareBulk();
+    ByteArrayBuilder buffer = new ByteArrayBuilder();
+    for (List<Long> batch : Iterables.partition(ids, BULK_SIZE)) {
+      for (DTO dto : this.service.getAll(Lists.newArrayList(batch))) {
+        try {
+          bulkRequest.add(this.prepareIndexRequest(this.configuration.getAlias(), dto, buffer));
+        } catch (IOException e) {
+          logger.error("Can't serialize {} element with id {}", this.configuration.getAlias(), dto.getId(), e);
+        }
+        if (bulkRequest.numberOfActions() >= BULK_SIZE) {
+          failed.addAll(this.executeBulk(bulkRequest));
+          bulkRequest = this.client.prepareBulk();
+        }
+      }
+    }
+    for (AbstractDTO dto : deletedDTOs) {
+      if (this.configuration.getSupportedClass().isInstance(dto)) {
+        bulkRequest.add(this.prepareDeleteRequest(this.configuration.getAlias(), this.configuration.getSupportedClass().cast(dto)));
+      }
+      if (bulkRequest.numberOfActions() >= BULK_SIZE) {
+        failed.addAll(this.executeBulk(bulkRequest));
+        bulkRequest = this.client.prepareBulk();
+      }
+    }
+    failed.addAll(this.executeBulk(bulkRequest));
+    return failed;
+  }
+
+  /**
+   * Executes the bulk request and logs its failures.
+   *
+   * @param bulkRequest the bulk request
+   * @return the ids of the elements that failed for a transient reason : rejected by a full queue or
+   * an unavailable shard
+   */
+  private Set<Long> executeBulk(BulkRequestBuilder bulkRequest) {
+    BulkResponse response = this.sendBulk(bulkRequest);
+    if (response == null || !response.hasFailures()) {
+      return Collections.emptySet();
+    }
+    return Stream.of(response.getItems())
+      .filter(item -> item.isFailed() && isTransient(item.getFailure().getStatus()))
+      .map(item -> Long.valueOf(item.getId()))
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * Sends the bulk request, outdates the search results and logs the failures.
+   *
+   * @param bulkRequest the bulk request
+   * @return the response, null if the request was empty
+   */
+  private BulkResponse sendBulk(BulkRequestBuilder bulkRequest) {
+    if (bulkRequest.numberOfActions() == 0) {
+      return null;
+    }
+    BulkResponse response = bulkRequest.get();
+    this.invalidateSearchResults();
+    if (response.hasFailures()) {
+      logger.error("Bulk on {} ended with failures : {}", this.configuration.getAlias(), response.buildFailureMessage());
+    }
+    return response;
+  }
+
+  private static boolean isTransient(RestStatus status) {
+    return status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+  }
+
+  private void invalidateSearchResults() {
+    if (this.searchResultCache != null) {
+      this.searchResultCache.invalidate(this.configuration.getAlias());
+    }
+  }
+
+  /**
+   * Deletes the indices of the alias left over by interrupted indexations, found in a single read of
+   * the cluster state : the ones named after the alias that no alias points to.
+   */
+  private void cleanOrphanIndex() {
+    String prefix = this.configuration.getAlias() + "_";
+    List<String> orphans = new ArrayList<>();
+    client.admin().cluster().prepareState().setMetaData(true).get().getState().getMetaData().getIndices()
+      .valuesIt().forEachRemaining(index -> {
+      if (index.getIndex().startsWith(prefix) && index.getAliases().isEmpty()) {
+        orphans.add(index.getIndex());
+      }
+    });
+
+    if (!orphans.isEmpty()) {
+      client.admin().indices().delete(new DeleteIndexRequest(orphans.toArray(new String[orphans.size()]))).actionGet();
     }
   }
 
@@ -160,7 +616,7 @@ public class IndexationEngineImpl<DTO extends AbstractDTO> implements Indexation
 
   private void switchIndex(String newIndexName) {
     IndicesAliasesRequestBuilder aliasBuilder = this.client.admin().indices().prepareAliases();
-    Set<String> indicesNamesForAlias = this.getIndicesFromAliasName();
+    Set<String> indicesNamesForAlias = this.refreshIndicesFromAliasName();
 
     if (indicesNamesForAlias != null && !indicesNamesForAlias.isEmpty()) {
       for (String oldIndexName : indicesNamesForAlias) {
@@ -170,6 +626,8 @@ public class IndexationEngineImpl<DTO extends AbstractDTO> implements Indexation
 
     aliasBuilder.addAlias(newIndexName, this.configuration.getAlias());
     aliasBuilder.get();
+    this.aliasIndices = new AliasIndices(Collections.singleton(newIndexName));
+    this.invalidateSearchResults();
 
     if (indicesNamesForAlias != null && !indicesNamesForAlias.isEmpty()) {
       this.client.admin().indices()
@@ -177,29 +635,110 @@ public class IndexationEngineImpl<DTO extends AbstractDTO> implements Indexation
     }
   }
 
+  /**
+   * Returns the indices the alias points to. The answer is kept for {@value #ALIAS_TTL} ms, and replaced
+   * as soon as this engine moves the alias. An alias pointing nowhere is read again on every call, so
+   * that an index created by another node is seen at once.
+   *
+   * @return the names of the indices
+   */
   Set<String> getIndicesFromAliasName() {
+    AliasIndices cached = this.aliasIndices;
+    if (cached != null && !cached.indices.isEmpty() && System.currentTimeMillis() - cached.loadedAt < ALIAS_TTL) {
+      return cached.indices;
+    }
+    return this.refreshIndicesFromAliasName();
+  }
+
+  private Set<String> refreshIndicesFromAliasName() {
     IndicesAdminClient iac = this.client.admin().indices();
     ImmutableOpenMap<String, List<AliasMetaData>> map = iac
       .getAliases(new GetAliasesRequest(this.configuration.getAlias())).actionGet().getAliases();
 
     final Set<String> allIndices = Sets.newHashSet();
     map.keysIt().forEachRemaining(allIndices::add);
-    return allIndices;
+    this.aliasIndices = new AliasIndices(Collections.unmodifiableSet(allIndices));
+    return this.aliasIndices.indices;
   }
 
-  private UpdateRequestBuilder prepareIndexRequest(String indexName, DTO dto)
-    throws JsonProcessingException {
-    ObjectNode json = prepareDocument(dto);
+  private static class AliasIndices {
+
+    private final Set<String> indices;
+    private final long loadedAt = System.currentTimeMillis();
+
+    private AliasIndices(Set<String> indices) {
+      this.indices = indices;
+    }
+  }
+
+  private UpdateRequestBuilder prepareIndexRequest(String indexName, DTO dto, ByteArrayBuilder buffer)
+    throws IOException {
     return this.client
       .prepareUpdate(indexName, this.configuration.getTypeFunction().apply(dto), String.valueOf(dto.getId()))
-      .setDocAsUpsert(true).setDoc(this.objectMapper.writeValueAsString(json));
+      .setDocAsUpsert(true).setDoc(this.serializeDocument(dto, buffer));
+  }
+
+  byte[] serializeDocument(DTO dto) throws IOException {
+    return this.serializeDocument(dto, new ByteArrayBuilder());
   }
 
+  /**
+   * Serializes the document of the given element straight into a byte array, without building an
+   * intermediate tree or string, unless a subclass still overrides {@link #prepareDocument(AbstractDTO)}.
+   * The buffer is shared by the documents of a bulk, which are written one at a time : it is reset
+   * before each document and only the returned bytes are allocated per document.
+   *
+   * @param dto the element to serialize
+   * @param buffer the buffer of the bulk, not shared across threads
+   * @return the JSON bytes of the document
+   * @throws IOException if the element can't be serialized
+   */
+  byte[] serializeDocument(DTO dto, ByteArrayBuilder buffer) throws IOException {
+    if (this.legacyDocument) {
+      return this.objectMapper.writeValueAsBytes(this.prepareDocument(dto));
+    }
+    buffer.reset();
+    try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(buffer)) {
+      this.writeDocument(generator, dto);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Writes the document of the given element : its summary and the element itself.
+   *
+   * @param generator the generator to write to
+   * @param dto the element to write
+   * @throws IOException if the element can't be serialized
+   */
+  protected void writeDocument(JsonGenerator generator, DTO dto) throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName("summary");
+    this.summaryWriter.writeValue(generator, this.configuration.getSummaryFunction().apply(dto));
+    generator.writeFieldName("dto");
+    (dto.getClass() == this.configuration.getSupportedClass() ? this.dtoWriter : this.objectMapper.writer())
+      .writeValue(generator, dto);
+    generator.writeEndObject();
+  }
+
+  /**
+   * Returns the document of the given element as a tree, as written by
+   * {@link #writeDocument(JsonGenerator, AbstractDTO)}. Subclasses overriding it are still honoured,
+   * at the cost of the intermediate tree.
+   *
+   * @param dto the element
+   * @return the document of the element
+   * @deprecated override {@link #writeDocument(JsonGenerator, AbstractDTO)} instead
+   */
+  @Deprecated
   protected ObjectNode prepareDocument(DTO dto) {
-    ObjectNode root = objectMapper.createObjectNode();
-    root.putPOJO("summary", this.configuration.getSummaryFunction().apply(dto));
-    root.set("dto", this.objectMapper.valueToTree(dto));
-    return root;
+    try {
+      TokenBuffer buffer = new TokenBuffer(this.objectMapper, false);
+      this.writeDocument(buffer, dto);
+      return this.objectMapper.readTree(buffer.asParser());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can't serialize element with id " + dto.getId(), e);
+    }
   }
 
   private DeleteRequestBuilder prepareDeleteRequest(String indexName, DTO dto) {
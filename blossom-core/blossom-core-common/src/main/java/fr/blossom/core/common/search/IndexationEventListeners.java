@@ -1,69 +1,76 @@
 package fr.blossom.core.common.search;
 
-import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.event.BatchCreatedEvent;
+import fr.blossom.core.common.event.BatchDeletedEvent;
+import fr.blossom.core.common.event.BatchUpdatedEvent;
 import fr.blossom.core.common.event.BeforeDeletedEvent;
 import fr.blossom.core.common.event.CreatedEvent;
 import fr.blossom.core.common.event.UpdatedEvent;
+import java.util.Collections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.plugin.core.PluginRegistry;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
- * Created by Maël Gargadennnec on 28/06/2017.
+ * Records the indexation operations required by the changes published by the services in the
+ * {@link IndexationOutbox}, right before their transaction commits, so that every service publishing
+ * the events is covered whether or not it goes through the generic CRUD methods. The outbox queues the
+ * operations once the transaction is committed, or right away when no transaction is running.
  */
 public class IndexationEventListeners {
   private final static Logger logger = LoggerFactory.getLogger(IndexationEventListeners.class);
-  private final PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines;
+  private final IndexationOutbox indexationOutbox;
 
-  public IndexationEventListeners(PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines) {
-    this.indexationEngines = indexationEngines;
+  public IndexationEventListeners(IndexationOutbox indexationOutbox) {
+    this.indexationOutbox = indexationOutbox;
   }
 
-  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-  public void handleEntityCreation(CreatedEvent createdEvent) {
-    Class<? extends AbstractDTO> clazz = createdEvent.getDTO() == null ? null : createdEvent.getDTO().getClass();
-    if (clazz != null && indexationEngines.hasPluginFor(clazz)) {
-      indexationEngines.getPluginFor(clazz).indexOne(createdEvent.getDTO().getId());
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntityCreation(CreatedEvent<?> createdEvent) {
+    if (createdEvent.getDTO() != null) {
+      indexationOutbox.recordIndexation(Collections.singletonList(createdEvent.getDTO()));
       if(logger.isDebugEnabled()) {
-        logger.debug("Created event for object {} with id {} received and processed", clazz, createdEvent.getDTO().getId());
-      }
-    }else{
-      if(logger.isDebugEnabled()) {
-        logger.debug("Created event for object {} with id {} received but no indexation engine capable to process it", clazz, createdEvent.getDTO().getId());
+        logger.debug("Created event for object {} with id {} received and recorded", createdEvent.getDTO().getClass(), createdEvent.getDTO().getId());
       }
     }
   }
 
-  @EventListener
-  public void handleEntityDeletion(BeforeDeletedEvent deletedEvent) {
-    Class<? extends AbstractDTO> clazz = deletedEvent.getDTO() == null ? null : deletedEvent.getDTO().getClass();
-    if (clazz != null && indexationEngines.hasPluginFor(clazz)) {
-      indexationEngines.getPluginFor(clazz).deleteOne(deletedEvent.getDTO().getId());
-      if(logger.isDebugEnabled()) {
-        logger.debug("Deleted event for object {} with id {} received and processed", clazz, deletedEvent.getDTO().getId());
-      }
-    }else{
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntityDeletion(BeforeDeletedEvent<?> deletedEvent) {
+    if (deletedEvent.getDTO() != null) {
+      indexationOutbox.recordDeletion(Collections.singletonList(deletedEvent.getDTO()));
       if(logger.isDebugEnabled()) {
-        logger.debug("Deleted event for object {} with id {} received but no indexation engine capable to process it", clazz, deletedEvent.getDTO().getId());
+        logger.debug("Deleted event for object {} with id {} received and recorded", deletedEvent.getDTO().getClass(), deletedEvent.getDTO().getId());
       }
     }
   }
 
-  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-  public void handleEntityUpdate(UpdatedEvent updatedEvent) {
-    Class<? extends AbstractDTO> clazz = updatedEvent.getDTO() == null ? null : updatedEvent.getDTO().getClass();
-    if (clazz != null && indexationEngines.hasPluginFor(clazz)) {
-      indexationEngines.getPluginFor(clazz).indexOne(updatedEvent.getDTO().getId());
-      if(logger.isDebugEnabled()) {
-        logger.debug("Updated event for object {} with id {} received and processed", clazz, updatedEvent.getDTO().getId());
-      }
-    }else{
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntityUpdate(UpdatedEvent<?> updatedEvent) {
+    if (updatedEvent.getDTO() != null) {
+      indexationOutbox.recordIndexation(Collections.singletonList(updatedEvent.getDTO()));
       if(logger.isDebugEnabled()) {
-        logger.debug("Updated event for object {} with id {} received but no indexation engine capable to process it", clazz, updatedEvent.getDTO().getId());
+        logger.debug("Updated event for object {} with id {} received and recorded", updatedEvent.getDTO().getClass(), updatedEvent.getDTO().getId());
       }
     }
   }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntitiesCreation(BatchCreatedEvent<?> createdEvent) {
+    indexationOutbox.recordIndexation(createdEvent.getDTOs());
+    logger.debug("Batch created event for {} objects received and recorded", createdEvent.getDTOs().size());
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntitiesUpdate(BatchUpdatedEvent<?> updatedEvent) {
+    indexationOutbox.recordIndexation(updatedEvent.getDTOs());
+    logger.debug("Batch updated event for {} objects received and recorded", updatedEvent.getDTOs().size());
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void handleEntitiesDeletion(BatchDeletedEvent<?> deletedEvent) {
+    indexationOutbox.recordDeletion(deletedEvent.getDTOs());
+    logger.debug("Batch deleted event for {} objects received and recorded", deletedEvent.getDTOs().size());
+  }
 }
@@ -0,0 +1,233 @@
+package fr.blossom.core.common.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.entity.id.IdGenerator;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Transactional outbox of the indexation operations, stored in the {@code blossom_indexation_outbox}
+ * table.
+ * Operations are recorded in the transaction that changes the entities, so they are committed or
+ * rolled back along with them. Once committed, they are handed to the {@link IndexationQueue} which
+ * acknowledges, and removes, the entries it ships. Entries left over, because the node stopped or the
+ * cluster couldn't be reached, are shipped by {@link #drain()} once older than the grace period.
+ */
+public class IndexationOutbox {
+
+  private final static Logger logger = LoggerFactory.getLogger(IndexationOutbox.class);
+  private final static String INSERT_QUERY = "INSERT INTO blossom_indexation_outbox (id, dto_class, entity_id, deleted, payload, creation_date) VALUES (?, ?, ?, ?, ?, ?)";
+  private final static String SELECT_QUERY = "SELECT id, dto_class, entity_id, deleted, payload FROM blossom_indexation_outbox WHERE creation_date < ? ORDER BY creation_date, id";
+  private final static String DELETE_QUERY = "DELETE FROM blossom_indexation_outbox WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final IdGenerator idGenerator;
+  private final IndexationQueue indexationQueue;
+  private final PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines;
+  private final long gracePeriod;
+  private final int drainSize;
+
+  public IndexationOutbox(DataSource dataSource, ObjectMapper objectMapper, IdGenerator idGenerator,
+    IndexationQueue indexationQueue, PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines,
+    long gracePeriod, int drainSize) {
+    Preconditions.checkArgument(drainSize > 0, "Drain size must be positive");
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setMaxRows(drainSize);
+    this.objectMapper = objectMapper;
+    this.idGenerator = idGenerator;
+    this.indexationQueue = indexationQueue;
+    this.indexationEngines = indexationEngines;
+    this.gracePeriod = gracePeriod;
+    this.drainSize = drainSize;
+  }
+
+  /**
+   * Records the indexation of the given elements in the current transaction.
+   *
+   * @param dtos the created or updated elements
+   */
+  public void recordIndexation(Collection<? extends AbstractDTO> dtos) {
+    this.record(dtos, false);
+  }
+
+  /**
+   * Records the removal from the index of the given elements in the current transaction. The elements
+   * are stored along with the entry, as they can't be read anymore once deleted.
+   *
+   * @param dtos the deleted elements
+   */
+  public void recordDeletion(Collection<? extends AbstractDTO> dtos) {
+    this.record(dtos, true);
+  }
+
+  private void record(Collection<? extends AbstractDTO> dtos, boolean deleted) {
+    List<Entry> entries = new ArrayList<>();
+    for (AbstractDTO dto : dtos) {
+      if (dto == null || !this.indexationEngines.hasPluginFor(dto.getClass())) {
+        continue;
+      }
+      try {
+        entries.add(new Entry(this.idGenerator.nextId(), dto.getClass(), dto.getId(), deleted ? dto : null,
+          deleted, deleted ? this.objectMapper.writeValueAsString(dto) : null));
+      } catch (IOException e) {
+        logger.warn("Can't record the deletion of {} with id {} in the outbox", dto.getClass(), dto.getId(), e);
+      }
+    }
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    this.jdbcTemplate.batchUpdate(INSERT_QUERY, entries, entries.size(), (ps, entry) -> {
+      ps.setLong(1, entry.id);
+      ps.setString(2, entry.type.getName());
+      ps.setLong(3, entry.entityId);
+      ps.setBoolean(4, entry.deletion);
+      ps.setString(5, entry.payload);
+      ps.setTimestamp(6, now);
+    });
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          enqueue(dtos, entries);
+        }
+      });
+    } else {
+      this.enqueue(dtos, entries);
+    }
+  }
+
+  private void enqueue(Collection<? extends AbstractDTO> dtos, List<Entry> entries) {
+    Map<Long, AbstractDTO> byId = dtos.stream().filter(Objects::nonNull)
+      .collect(Collectors.toMap(AbstractDTO::getId, dto -> dto, (first, second) -> second));
+    for (Entry entry : entries) {
+      if (entry.deletion) {
+        this.indexationQueue.delete(entry.deleted, entry.id);
+      } else {
+        this.indexationQueue.index(byId.get(entry.entityId), entry.id);
+      }
+    }
+  }
+
+  /**
+   * Removes the given entries from the outbox, once their operations reached the index.
+   *
+   * @param ids the ids of the entries
+   */
+  public void acknowledge(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    this.jdbcTemplate.batchUpdate(DELETE_QUERY, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+  }
+
+  /**
+   * Ships to the index the entries recorded before the grace period, by batches of at most
+   * {@code drainSize} entries, and acknowledges them. Stops at the first batch the cluster rejects,
+   * as a whole or in part, leaving the rejected entries for the next run.
+   *
+   * @return the number of entries shipped
+   */
+  public int drain() {
+    Date before = new Date(System.currentTimeMillis() - this.gracePeriod);
+    int drained = 0;
+    List<Entry> entries;
+    do {
+      entries = this.jdbcTemplate.query(SELECT_QUERY, (rs, rowNum) -> this.readEntry(
+        rs.getLong("id"), rs.getString("dto_class"), rs.getLong("entity_id"),
+        rs.getBoolean("deleted"), rs.getString("payload")), new Timestamp(before.getTime()));
+
+      Map<Class<? extends AbstractDTO>, List<Entry>> byType = entries.stream()
+        .filter(entry -> entry.type != null)
+        .collect(Collectors.groupingBy(entry -> entry.type));
+      Set<Long> rejected = new HashSet<>();
+      for (Map.Entry<Class<? extends AbstractDTO>, List<Entry>> group : byType.entrySet()) {
+        if (this.indexationEngines.hasPluginFor(group.getKey())) {
+          Set<Long> failedIds = this.indexationEngines.getPluginFor(group.getKey()).bulk(
+            group.getValue().stream().filter(entry -> !entry.deletion)
+              .map(entry -> entry.entityId).distinct().collect(Collectors.toList()),
+            group.getValue().stream().filter(entry -> entry.deletion && entry.deleted != null)
+              .map(entry -> entry.deleted).collect(Collectors.toList()));
+          group.getValue().stream().filter(entry -> failedIds.contains(entry.entityId))
+            .forEach(entry -> rejected.add(entry.id));
+        }
+      }
+
+      List<Long> shipped = entries.stream().map(entry -> entry.id).filter(id -> !rejected.contains(id))
+        .collect(Collectors.toList());
+      this.acknowledge(shipped);
+      drained += shipped.size();
+      if (!rejected.isEmpty()) {
+        logger.warn("{} outbox entries rejected by the cluster, they will be shipped again by the next run",
+          rejected.size());
+        break;
+      }
+    } while (entries.size() == this.drainSize);
+
+    if (drained > 0) {
+      logger.info("{} indexation operations recorded before {} drained from the outbox", drained, before);
+    }
+    return drained;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Entry readEntry(long id, String dtoClass, long entityId, boolean deleted, String payload) {
+    try {
+      Class<? extends AbstractDTO> type = (Class<? extends AbstractDTO>) ClassUtils
+        .forName(dtoClass, this.getClass().getClassLoader());
+      AbstractDTO dto = null;
+      if (deleted) {
+        dto = this.objectMapper.readValue(payload, type);
+        if (dto != null) {
+          dto.setId(entityId);
+        }
+      }
+      return new Entry(id, type, entityId, dto, deleted, payload);
+    } catch (ClassNotFoundException | LinkageError | IOException e) {
+      logger.warn("Dropping outbox entry {} for {} with id {} as it can't be read", id, dtoClass, entityId, e);
+      return new Entry(id, null, entityId, null, deleted, payload);
+    }
+  }
+
+  private static class Entry {
+
+    private final long id;
+    private final Class<? extends AbstractDTO> type;
+    private final long entityId;
+    private final AbstractDTO deleted;
+    private final boolean deletion;
+    private final String payload;
+
+    private Entry(long id, Class<? extends AbstractDTO> type, long entityId, AbstractDTO deleted,
+      boolean deletion, String payload) {
+      this.id = id;
+      this.type = type;
+      this.entityId = entityId;
+      this.deleted = deleted;
+      this.deletion = deletion;
+      this.payload = payload;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package fr.blossom.core.common.search;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the current, or latest, indexation run of an {@link IndexationEngine}. Counters are
+ * updated concurrently by the readers and the bulk listener, so a snapshot may be slightly inconsistent
+ * while the run is in progress.
+ */
+public class IndexationProgress {
+
+  private volatile String mode;
+  private volatile long total;
+  private volatile long startTime;
+  private volatile long endTime;
+  private final AtomicLong read = new AtomicLong();
+  private final AtomicLong indexed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  void start(String mode, long total) {
+    this.mode = mode;
+    this.total = total;
+    this.read.set(0);
+    this.indexed.set(0);
+    this.failed.set(0);
+    this.endTime = 0;
+    this.startTime = System.currentTimeMillis();
+  }
+
+  void end() {
+    this.endTime = System.currentTimeMillis();
+  }
+
+  void read(long count) {
+    this.read.addAndGet(count);
+  }
+
+  void indexed(long count) {
+    this.indexed.addAndGet(count);
+  }
+
+  void failed(long count) {
+    this.failed.addAndGet(count);
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public long getRead() {
+    return read.get();
+  }
+
+  public long getIndexed() {
+    return indexed.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public Date getStartDate() {
+    return startTime == 0 ? null : new Date(startTime);
+  }
+
+  public Date getEndDate() {
+    return endTime == 0 ? null : new Date(endTime);
+  }
+
+  public boolean isRunning() {
+    return startTime != 0 && endTime == 0;
+  }
+
+  /**
+   * Returns the share of the elements already sent to the index, between 0 and 100.
+   *
+   * @return the completion percentage
+   */
+  public int getPercentage() {
+    long total = this.total;
+    if (total <= 0) {
+      return isRunning() ? 0 : 100;
+    }
+    return (int) Math.min(100, (this.getIndexed() + this.getFailed()) * 100 / total);
+  }
+
+  /**
+   * Returns the number of elements indexed per second since the start of the run.
+   *
+   * @return the throughput of the run
+   */
+  public long getThroughput() {
+    if (startTime == 0) {
+      return 0;
+    }
+    long elapsed = (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+    return elapsed <= 0 ? 0 : this.getIndexed() * 1000 / elapsed;
+  }
+}
@@ -0,0 +1,300 @@
+package fr.blossom.core.common.search;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.plugin.core.PluginRegistry;
+
+/**
+ * Asynchronous queue of the indexation operations triggered by the changes of the entities.
+ * Pending operations are deduplicated per type and id, the latest one winning, and shipped by a
+ * single background thread in bulk requests of at most {@code batchSize} operations, either every
+ * {@code flushInterval} milliseconds or as soon as a full batch is pending. When the cluster can't be
+ * reached, or rejects some operations for a transient reason such as a full write queue, these
+ * operations are queued back and retried with an exponential backoff.
+ * Operations recorded in the {@link IndexationOutbox} are acknowledged once accepted by the cluster.
+ * The depth of the queue, the age of its oldest operation and the number of consecutive failures are
+ * published as metrics.
+ */
+public class IndexationQueue implements PublicMetrics {
+
+  private final static Logger logger = LoggerFactory.getLogger(IndexationQueue.class);
+  private final static long MIN_BACKOFF = 1000;
+
+  private final PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines;
+  private final long flushInterval;
+  private final int batchSize;
+  private final long maxBackoff;
+
+  private final ConcurrentMap<Key, Operation> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private final AtomicLong processed = new AtomicLong();
+  private final ScheduledExecutorService executor;
+  private volatile int failures = 0;
+  private volatile long retryAt = 0;
+  private IndexationOutbox indexationOutbox;
+
+  public IndexationQueue(PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines,
+    long flushInterval, int batchSize, long maxBackoff) {
+    Preconditions.checkArgument(flushInterval > 0, "Flush interval must be positive");
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+    this.indexationEngines = indexationEngines;
+    this.flushInterval = flushInterval;
+    this.batchSize = batchSize;
+    this.maxBackoff = Math.max(MIN_BACKOFF, maxBackoff);
+    this.executor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("indexation-queue-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Sets the outbox acknowledged once the operations recorded in it are shipped.
+   *
+   * @param indexationOutbox the outbox of the operations
+   */
+  public void setIndexationOutbox(IndexationOutbox indexationOutbox) {
+    this.indexationOutbox = indexationOutbox;
+  }
+
+  @PostConstruct
+  public void start() {
+    this.executor.scheduleWithFixedDelay(this::flush, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    this.executor.shutdown();
+    this.executor.awaitTermination(10, TimeUnit.SECONDS);
+    if (!this.pending.isEmpty()) {
+      logger.warn("{} indexation operations still pending on shutdown, they will be caught up by the next indexation",
+        this.pending.size());
+    }
+  }
+
+  public void index(AbstractDTO dto) {
+    this.index(dto, null);
+  }
+
+  public void index(AbstractDTO dto, Long outboxId) {
+    this.enqueue(new Operation(dto.getClass(), dto.getId(), null, outboxId));
+  }
+
+  public void index(Collection<? extends AbstractDTO> dtos) {
+    dtos.stream().filter(Objects::nonNull).forEach(this::index);
+  }
+
+  public void delete(AbstractDTO dto) {
+    this.delete(dto, null);
+  }
+
+  public void delete(AbstractDTO dto, Long outboxId) {
+    this.enqueue(new Operation(dto.getClass(), dto.getId(), dto, outboxId));
+  }
+
+  public void delete(Collection<? extends AbstractDTO> dtos) {
+    dtos.stream().filter(Objects::nonNull).forEach(this::delete);
+  }
+
+  public int getDepth() {
+    return this.pending.size();
+  }
+
+  /**
+   * Returns the time spent in the queue by its oldest operation.
+   *
+   * @return the lag in milliseconds, 0 when the queue is empty
+   */
+  public long getLag() {
+    long now = System.currentTimeMillis();
+    return this.pending.values().stream().mapToLong(operation -> now - operation.enqueuedAt).max().orElse(0);
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    List<Metric<?>> metrics = new ArrayList<>();
+    metrics.add(new Metric<>("blossom.indexation.queue.depth", this.getDepth()));
+    metrics.add(new Metric<>("blossom.indexation.queue.lag", this.getLag()));
+    metrics.add(new Metric<>("blossom.indexation.queue.failures", this.failures));
+    metrics.add(new Metric<>("blossom.indexation.queue.processed", this.processed.get()));
+    return metrics;
+  }
+
+  private void enqueue(Operation operation) {
+    if (!this.indexationEngines.hasPluginFor(operation.type)) {
+      logger.debug("No indexation engine capable to process {} with id {}", operation.type, operation.id);
+      return;
+    }
+    this.pending.merge(new Key(operation.type, operation.id), operation, Operation::replacedBy);
+    if (this.pending.size() >= this.batchSize && !this.executor.isShutdown()
+      && this.flushRequested.compareAndSet(false, true)) {
+      this.executor.execute(this::flush);
+    }
+  }
+
+  /**
+   * Ships the pending operations, batch after batch, until the queue is empty or the cluster fails.
+   * Runs on the single thread of the executor only.
+   */
+  void flush() {
+    this.flushRequested.set(false);
+    if (System.currentTimeMillis() < this.retryAt) {
+      return;
+    }
+
+    while (!this.pending.isEmpty()) {
+      List<Operation> batch = new ArrayList<>();
+      for (Map.Entry<Key, Operation> entry : this.pending.entrySet()) {
+        if (batch.size() >= this.batchSize) {
+          break;
+        }
+        if (this.pending.remove(entry.getKey(), entry.getValue())) {
+          batch.add(entry.getValue());
+        }
+      }
+
+      Map<Class<? extends AbstractDTO>, List<Operation>> byType = batch.stream()
+        .collect(Collectors.groupingBy(operation -> operation.type));
+      int rejected = 0;
+      for (Map.Entry<Class<? extends AbstractDTO>, List<Operation>> entry : byType.entrySet()) {
+        Set<Long> failedIds;
+        try {
+          failedIds = this.indexationEngines.getPluginFor(entry.getKey()).bulk(
+            entry.getValue().stream().filter(operation -> operation.deleted == null)
+              .map(operation -> operation.id).collect(Collectors.toList()),
+            entry.getValue().stream().filter(operation -> operation.deleted != null)
+              .map(operation -> operation.deleted).collect(Collectors.toList()));
+        } catch (Exception e) {
+          this.retry(batch);
+          this.backOff(batch.size(), e);
+          return;
+        }
+        batch.removeAll(entry.getValue());
+
+        Map<Boolean, List<Operation>> failed = entry.getValue().stream()
+          .collect(Collectors.partitioningBy(operation -> failedIds.contains(operation.id)));
+        this.processed.addAndGet(failed.get(false).size());
+        this.acknowledge(failed.get(false));
+        this.retry(failed.get(true));
+        rejected += failed.get(true).size();
+      }
+      if (rejected > 0) {
+        this.backOff(rejected, null);
+        return;
+      }
+      this.failures = 0;
+    }
+  }
+
+  private void backOff(int operations, Exception e) {
+    this.failures++;
+    long backoff = Math.min(this.maxBackoff, MIN_BACKOFF << Math.min(this.failures, 16));
+    this.retryAt = System.currentTimeMillis() + backoff;
+    logger.warn("Can't ship {} indexation operations, {} consecutive failures, retrying in {} ms",
+      operations, this.failures, backoff, e);
+  }
+
+  private void acknowledge(List<Operation> operations) {
+    if (this.indexationOutbox == null) {
+      return;
+    }
+    List<Long> outboxIds = operations.stream().flatMap(operation -> operation.outboxIds.stream())
+      .collect(Collectors.toList());
+    try {
+      this.indexationOutbox.acknowledge(outboxIds);
+    } catch (Exception e) {
+      logger.warn("Can't acknowledge {} outbox entries, they will be shipped again by the drainer", outboxIds.size(), e);
+    }
+  }
+
+  private void retry(List<Operation> operations) {
+    for (Operation operation : operations) {
+      this.pending.merge(new Key(operation.type, operation.id), operation, (queued, failed) -> failed.replacedBy(queued));
+    }
+  }
+
+  private static class Key {
+
+    private final Class<? extends AbstractDTO> type;
+    private final long id;
+
+    private Key(Class<? extends AbstractDTO> type, long id) {
+      this.type = type;
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return id == key.id && type.equals(key.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, id);
+    }
+  }
+
+  private static class Operation {
+
+    private final Class<? extends AbstractDTO> type;
+    private final long id;
+    private final AbstractDTO deleted;
+    private final long enqueuedAt;
+    private final Set<Long> outboxIds;
+
+    private Operation(Class<? extends AbstractDTO> type, long id, AbstractDTO deleted, Long outboxId) {
+      this(type, id, deleted, System.currentTimeMillis(),
+        outboxId == null ? Collections.emptySet() : Collections.singleton(outboxId));
+    }
+
+    private Operation(Class<? extends AbstractDTO> type, long id, AbstractDTO deleted, long enqueuedAt,
+      Set<Long> outboxIds) {
+      this.type = type;
+      this.id = id;
+      this.deleted = deleted;
+      this.enqueuedAt = enqueuedAt;
+      this.outboxIds = outboxIds;
+    }
+
+    /**
+     * Returns the operation to run when this one is superseded by a newer one on the same element :
+     * the newer action, queued since the oldest of both, acknowledging the outbox entries of both.
+     */
+    private Operation replacedBy(Operation newer) {
+      Set<Long> outboxIds = this.outboxIds;
+      if (!newer.outboxIds.isEmpty()) {
+        outboxIds = new HashSet<>(this.outboxIds);
+        outboxIds.addAll(newer.outboxIds);
+      }
+      return new Operation(newer.type, newer.id, newer.deleted, Math.min(this.enqueuedAt, newer.enqueuedAt),
+        outboxIds);
+    }
+  }
+}
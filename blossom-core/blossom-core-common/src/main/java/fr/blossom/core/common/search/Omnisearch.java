@@ -0,0 +1,194 @@
+package fr.blossom.core.common.search;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.plugin.core.PluginRegistry;
+
+/**
+ * Search across every {@link SearchEngine} included in the omnisearch.
+ * Each engine is queried on its own and given {@code engineTimeout} milliseconds to answer : its
+ * section completes with its results, or as timed out or failed, so that a slow or broken index
+ * never holds the others back. The totals of the engines are kept in the {@value #CACHE_NAME} cache
+ * for repeated queries, and the engines known to have no result for a query aren't queried again
+ * until the entry expires or the {@link SearchResultCache} reports a write on the alias of the engine.
+ */
+public class Omnisearch {
+
+  private final static Logger logger = LoggerFactory.getLogger(Omnisearch.class);
+  public final static String CACHE_NAME = "omnisearch";
+
+  private final PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry;
+  private final Cache totals;
+  private final SearchResultCache searchResultCache;
+  private final long engineTimeout;
+  private final ScheduledExecutorService timer;
+
+  public Omnisearch(PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry,
+    CacheManager cacheManager, SearchResultCache searchResultCache, long engineTimeout) {
+    Preconditions.checkArgument(engineTimeout > 0, "Engine timeout must be positive");
+    this.registry = registry;
+    this.totals = cacheManager.getCache(CACHE_NAME);
+    this.searchResultCache = searchResultCache;
+    this.engineTimeout = engineTimeout;
+    this.timer = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("omnisearch-timer-%d").setDaemon(true).build());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.timer.shutdownNow();
+  }
+
+  public long getEngineTimeout() {
+    return this.engineTimeout;
+  }
+
+  /**
+   * Returns the names of the engines included in the omnisearch, in the order of the registry.
+   *
+   * @return the names of the engines
+   */
+  public List<String> getEngineNames() {
+    return this.registry.getPlugins().stream().filter(SearchEngine::includeInOmnisearch)
+      .map(SearchEngine::getName).collect(Collectors.toList());
+  }
+
+  /**
+   * Starts the search on every engine included in the omnisearch.
+   *
+   * @param q the query
+   * @param pageable the page to read on each engine
+   * @return the sections by engine name, in the order of the registry, each completing within the
+   * engine timeout
+   */
+  public Map<String, CompletableFuture<Section>> search(String q, Pageable pageable) {
+    Map<String, CompletableFuture<Section>> sections = new LinkedHashMap<>();
+    for (SearchEngine engine : this.registry.getPlugins()) {
+      if (engine.includeInOmnisearch()) {
+        sections.put(engine.getName(), this.search(engine, q, pageable));
+      }
+    }
+    return sections;
+  }
+
+  /**
+   * Returns the totals known for the given query, by engine name.
+   *
+   * @param q the query
+   * @return the cached totals, for the engines that answered it since their last write
+   */
+  public Map<String, Long> getCachedTotals(String q) {
+    Map<String, Long> cached = new LinkedHashMap<>();
+    for (SearchEngine engine : this.registry.getPlugins()) {
+      Long total = engine.includeInOmnisearch() ? this.cachedTotal(engine, q) : null;
+      if (total != null) {
+        cached.put(engine.getName(), total);
+      }
+    }
+    return cached;
+  }
+
+  private CompletableFuture<Section> search(SearchEngine engine, String q, Pageable pageable) {
+    Long cachedTotal = this.cachedTotal(engine, q);
+    if (cachedTotal != null && cachedTotal == 0) {
+      return CompletableFuture.completedFuture(new Section(engine.getName(), Status.DONE,
+        new SearchResult<>(0, new PageImpl<>(Collections.emptyList(), pageable, 0))));
+    }
+
+    long readAt = System.currentTimeMillis();
+    CompletableFuture<Section> section = engine.executeSummaryAsync(engine.prepareSearch(q, pageable), pageable)
+      .thenApply(result -> {
+        if (this.searchResultCache.isUpToDate(engine.getAlias(), readAt)) {
+          this.totals.put(this.key(engine, q), new Total(result.getPage().getTotalElements(), readAt));
+        }
+        return new Section(engine.getName(), Status.DONE, result);
+      })
+      .exceptionally(e -> {
+        logger.warn("Omnisearch on {} failed for query {}", engine.getName(), q, e);
+        return new Section(engine.getName(), Status.FAILED, null);
+      });
+
+    ScheduledFuture<?> timeout = this.timer.schedule(
+      () -> section.complete(new Section(engine.getName(), Status.TIMED_OUT, null)),
+      this.engineTimeout, TimeUnit.MILLISECONDS);
+    section.whenComplete((result, e) -> timeout.cancel(false));
+    return section;
+  }
+
+  private Long cachedTotal(SearchEngine engine, String q) {
+    Total total = this.totals.get(this.key(engine, q), Total.class);
+    return total != null && this.searchResultCache.isUpToDate(engine.getAlias(), total.readAt) ? total.value : null;
+  }
+
+  private String key(SearchEngine engine, String q) {
+    return engine.getName() + ":" + q;
+  }
+
+  private static class Total {
+
+    private final long value;
+    private final long readAt;
+
+    private Total(long value, long readAt) {
+      this.value = value;
+      this.readAt = readAt;
+    }
+  }
+
+  public enum Status {
+    DONE, TIMED_OUT, FAILED
+  }
+
+  /**
+   * Answer of one engine to the omnisearch.
+   */
+  public static class Section {
+
+    private final String name;
+    private final Status status;
+    private final SearchResult<SummaryDTO> result;
+
+    public Section(String name, Status status, SearchResult<SummaryDTO> result) {
+      this.name = name;
+      this.status = status;
+      this.result = result;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * @return the results of the engine, null unless the engine answered in time
+     */
+    public SearchResult<SummaryDTO> getResult() {
+      return result;
+    }
+
+    public long getTotal() {
+      return result == null ? 0 : result.getPage().getTotalElements();
+    }
+  }
+}
@@ -3,6 +3,9 @@ package fr.blossom.core.common.search;
 
 import fr.blossom.core.common.PluginConstants;
 import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -16,6 +19,8 @@ public interface SearchEngine extends Plugin<Class<? extends AbstractDTO>> {
 
   String getName();
 
+  String getAlias();
+
   boolean includeInOmnisearch();
 
   SearchRequestBuilder prepareSearch(String q, Pageable pageable);
@@ -24,6 +29,8 @@ public interface SearchEngine extends Plugin<Class<? extends AbstractDTO>> {
 
   SearchRequestBuilder prepareSearch(String q, Pageable pageable, Iterable<QueryBuilder> filters, Iterable<AggregationBuilder> aggregations);
 
+  SearchRequestBuilder prepareSearchAfter(String q, Pageable pageable, Iterable<QueryBuilder> filters, String cursor);
+
   SearchResult<?> parseResults(SearchResponse response, Pageable pageable);
 
   SearchResult<SummaryDTO> parseSummaryResults(SearchResponse response, Pageable pageable);
@@ -34,4 +41,18 @@ public interface SearchEngine extends Plugin<Class<? extends AbstractDTO>> {
 
   SearchResult<?> search(String q, Pageable pageable, Iterable<QueryBuilder> filters, Iterable<AggregationBuilder> aggregations);
 
+  SearchResult<?> searchAfter(String q, Pageable pageable, Iterable<QueryBuilder> filters, String cursor);
+
+  long export(String q, Iterable<QueryBuilder> filters, int batchSize, Consumer<List<? extends AbstractDTO>> consumer);
+
+  CompletableFuture<? extends SearchResult<?>> searchAsync(String q, Pageable pageable);
+
+  CompletableFuture<? extends SearchResult<?>> searchAsync(String q, Pageable pageable, Iterable<QueryBuilder> filters);
+
+  CompletableFuture<? extends SearchResult<?>> searchAsync(String q, Pageable pageable, Iterable<QueryBuilder> filters, Iterable<AggregationBuilder> aggregations);
+
+  CompletableFuture<? extends SearchResult<?>> executeAsync(SearchRequestBuilder searchRequest, Pageable pageable);
+
+  CompletableFuture<SearchResult<SummaryDTO>> executeSummaryAsync(SearchRequestBuilder searchRequest, Pageable pageable);
+
 }
@@ -1,14 +1,22 @@
 package fr.blossom.core.common.search;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import fr.blossom.core.common.dto.AbstractDTO;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.MultiMatchQueryBuilder.Type;
@@ -16,23 +24,47 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.valuecount.ValueCount;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 
 public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
+  private final static String ID_FIELD = "dto.id";
+  private final static String TOTAL_AGGREGATION = "_cursor_total";
+  private final static TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
   private final Client client;
   private final ObjectMapper objectMapper;
   private final SearchEngineConfiguration<DTO> configuration;
+  private final ObjectReader dtoReader;
+  private final ObjectReader summaryReader;
+  private SearchResultCache searchResultCache;
 
   public SearchEngineImpl(Client client, ObjectMapper objectMapper, SearchEngineConfiguration<DTO> configuration) {
     this.client = client;
     this.objectMapper = objectMapper;
     this.configuration = configuration;
+    this.dtoReader = objectMapper.readerFor(configuration.getSupportedClass());
+    this.summaryReader = objectMapper.readerFor(SummaryDTO.class);
+  }
+
+  /**
+   * Sets the cache of the search results. Results are then read from the cache until the alias is
+   * written to.
+   *
+   * @param searchResultCache the cache of the search results
+   */
+  @Autowired(required = false)
+  public void setSearchResultCache(SearchResultCache searchResultCache) {
+    this.searchResultCache = searchResultCache;
   }
 
   @Override
@@ -40,6 +72,11 @@ public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
     return this.configuration.getName();
   }
 
+  @Override
+  public String getAlias() {
+    return this.configuration.getAlias();
+  }
+
   @Override
   public boolean includeInOmnisearch() {
     return this.configuration.includeInOmnisearch();
@@ -58,10 +95,59 @@ public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
   public SearchResult<DTO> search(String q, Pageable pageable, Iterable<QueryBuilder> filters,
     Iterable<AggregationBuilder> aggregations) {
     SearchRequestBuilder searchRequest = prepareSearch(q, pageable, filters, aggregations);
-    SearchResponse searchResponse = searchRequest.get(TimeValue.timeValueSeconds(10));
-    return parseResults(searchResponse, pageable);
+    if (this.searchResultCache == null) {
+      return parseResults(searchRequest.get(TimeValue.timeValueSeconds(10)), pageable);
+    }
+    return this.searchResultCache.get(this.configuration.getAlias(), searchRequest,
+      () -> parseResults(searchRequest.get(TimeValue.timeValueSeconds(10)), pageable));
+  }
+
+
+  public CompletableFuture<SearchResult<DTO>> searchAsync(String q, Pageable pageable) {
+    return this.searchAsync(q, pageable, null);
+  }
+
+  @Override
+  public CompletableFuture<SearchResult<DTO>> searchAsync(String q, Pageable pageable, Iterable<QueryBuilder> filters) {
+    return this.searchAsync(q, pageable, filters, null);
+  }
+
+  /**
+   * Runs the search without blocking the calling thread : the request is sent with a listener, and the
+   * results are parsed on the generic pool of the client once the response is received.
+   */
+  @Override
+  public CompletableFuture<SearchResult<DTO>> searchAsync(String q, Pageable pageable, Iterable<QueryBuilder> filters,
+    Iterable<AggregationBuilder> aggregations) {
+    SearchRequestBuilder searchRequest = prepareSearch(q, pageable, filters, aggregations);
+    if (this.searchResultCache == null) {
+      return this.executeAsync(searchRequest, pageable);
+    }
+    return this.searchResultCache.getAsync(this.configuration.getAlias(), searchRequest,
+      () -> this.executeAsync(searchRequest, pageable));
+  }
+
+  @Override
+  public CompletableFuture<SearchResult<DTO>> executeAsync(SearchRequestBuilder searchRequest, Pageable pageable) {
+    return this.execute(searchRequest).thenApplyAsync(response -> parseResults(response, pageable), this.parseExecutor());
   }
 
+  @Override
+  public CompletableFuture<SearchResult<SummaryDTO>> executeSummaryAsync(SearchRequestBuilder searchRequest,
+    Pageable pageable) {
+    return this.execute(searchRequest)
+      .thenApplyAsync(response -> parseSummaryResults(response, pageable), this.parseExecutor());
+  }
+
+  private CompletableFuture<SearchResponse> execute(SearchRequestBuilder searchRequest) {
+    CompletableActionListener<SearchResponse> listener = new CompletableActionListener<>();
+    searchRequest.execute(listener);
+    return listener;
+  }
+
+  private Executor parseExecutor() {
+    return this.client.threadPool().executor(ThreadPool.Names.GENERIC);
+  }
 
   @Override
   public SearchRequestBuilder prepareSearch(String q, Pageable pageable) {
@@ -79,6 +165,31 @@ public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
     Iterable<QueryBuilder> filters,
     Iterable<AggregationBuilder> aggregations) {
 
+    BoolQueryBuilder query = this.buildQuery(q, filters);
+
+    SearchRequestBuilder searchRequest = this.client.prepareSearch(this.configuration.getAlias()).setQuery(query)
+      .setSize(pageable.getPageSize()).setFrom(pageable.getOffset());
+
+    Sort sort = pageable.getSort();
+    if (sort != null) {
+      for (Order order : pageable.getSort()) {
+        SortBuilder sortBuilder = SortBuilders.fieldSort("dto." + order.getProperty())
+          .order(SortOrder.valueOf(order.getDirection().name()));
+        searchRequest.addSort(sortBuilder);
+      }
+      searchRequest.addSort(SortBuilders.scoreSort());
+    }
+
+    if (aggregations != null) {
+      for (AggregationBuilder aggregation : aggregations) {
+        searchRequest.addAggregation(aggregation);
+      }
+    }
+
+    return searchRequest;
+  }
+
+  private BoolQueryBuilder buildQuery(String q, Iterable<QueryBuilder> filters) {
     QueryBuilder initialQuery;
     String[] searchableFields = this.configuration.getFields();
 
@@ -99,48 +210,108 @@ public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
       }
     }
 
-    SearchRequestBuilder searchRequest = this.client.prepareSearch(this.configuration.getAlias()).setQuery(query)
-      .setSize(pageable.getPageSize()).setFrom(pageable.getOffset());
+    return query;
+  }
 
-    Sort sort = pageable.getSort();
-    if (sort != null) {
-      for (Order order : pageable.getSort()) {
-        SortBuilder sortBuilder = SortBuilders.fieldSort("dto." + order.getProperty())
-          .order(SortOrder.valueOf(order.getDirection().name()));
-        searchRequest.addSort(sortBuilder);
-      }
-      searchRequest.addSort(SortBuilders.scoreSort());
+  /**
+   * Prepares the search of the page following the given cursor. Pages are sorted on the id of the
+   * elements, in the direction the pageable sorts the {@code id} property, ascending by default, and
+   * start right after the cursor whatever their depth : the offset of the pageable is ignored. The
+   * cursor is applied as a post filter, so the total of the matches is still counted over the whole
+   * query by the {@value #TOTAL_AGGREGATION} aggregation.
+   *
+   * @param cursor the cursor returned with the previous page, null for the first page
+   */
+  @Override
+  public SearchRequestBuilder prepareSearchAfter(String q, Pageable pageable, Iterable<QueryBuilder> filters,
+    String cursor) {
+    Order idOrder = pageable.getSort() == null ? null : pageable.getSort().getOrderFor("id");
+    boolean ascending = idOrder == null || idOrder.isAscending();
+
+    SearchRequestBuilder searchRequest = this.client.prepareSearch(this.configuration.getAlias())
+      .setQuery(this.buildQuery(q, filters))
+      .setSize(pageable.getPageSize())
+      .addSort(SortBuilders.fieldSort(ID_FIELD).order(ascending ? SortOrder.ASC : SortOrder.DESC));
+    if (cursor != null) {
+      searchRequest
+        .setPostFilter(ascending ? QueryBuilders.rangeQuery(ID_FIELD).gt(cursor) : QueryBuilders.rangeQuery(ID_FIELD).lt(cursor))
+        .addAggregation(AggregationBuilders.count(TOTAL_AGGREGATION).field(ID_FIELD));
     }
+    return searchRequest;
+  }
 
-    if (aggregations != null) {
-      for (AggregationBuilder aggregation : aggregations) {
-        searchRequest.addAggregation(aggregation);
+  /**
+   * Reads the page following the given cursor, in constant time whatever its depth and beyond the
+   * result window of the index. The total of the page is the number of matches of the query, the
+   * same on every page.
+   *
+   * @param cursor the cursor returned with the previous page, null for the first page
+   * @return the page, along with the cursor of the next one
+   * @see #prepareSearchAfter(String, Pageable, Iterable, String)
+   */
+  @Override
+  public SearchResult<DTO> searchAfter(String q, Pageable pageable, Iterable<QueryBuilder> filters, String cursor) {
+    SearchResponse searchResponse = this.prepareSearchAfter(q, pageable, filters, cursor)
+      .get(TimeValue.timeValueSeconds(10));
+    SearchResult<DTO> result = parseResults(searchResponse, pageable);
+
+    long total = cursor == null ? searchResponse.getHits().getTotalHits()
+      : searchResponse.getAggregations().<ValueCount>get(TOTAL_AGGREGATION).getValue();
+    SearchHit[] hits = searchResponse.getHits().getHits();
+    String next = hits.length < pageable.getPageSize() ? null
+      : String.valueOf(hits[hits.length - 1].getSortValues()[0]);
+    return new SearchResult<>(result.getDuration(),
+      new PageImpl<>(result.getPage().getContent(), pageable, total), Lists.newArrayList(), next);
+  }
+
+  /**
+   * Exports every element matching the query, scrolling through the index in its natural order by
+   * batches handed to the given consumer. Each batch costs the same whatever the size of the export.
+   *
+   * @param batchSize the number of elements per batch
+   * @param consumer the consumer of the batches
+   * @return the number of elements exported
+   */
+  @Override
+  public long export(String q, Iterable<QueryBuilder> filters, int batchSize,
+    Consumer<List<? extends AbstractDTO>> consumer) {
+    Pageable batch = new PageRequest(0, batchSize);
+    SearchResponse searchResponse = this.client.prepareSearch(this.configuration.getAlias())
+      .setQuery(this.buildQuery(q, filters)).addSort(SortBuilders.fieldSort("_doc"))
+      .setSize(batchSize).setScroll(SCROLL_KEEP_ALIVE).get();
+
+    long exported = 0;
+    try {
+      while (searchResponse.getHits().getHits().length > 0) {
+        List<DTO> elements = parseResults(searchResponse, batch).getPage().getContent();
+        consumer.accept(elements);
+        exported += elements.size();
+        searchResponse = this.client.prepareSearchScroll(searchResponse.getScrollId())
+          .setScroll(SCROLL_KEEP_ALIVE).get();
       }
+    } finally {
+      this.client.prepareClearScroll().addScrollId(searchResponse.getScrollId()).get();
     }
-
-    return searchRequest;
+    return exported;
   }
 
   @Override
   public SearchResult<DTO> parseResults(SearchResponse searchResponse, Pageable pageable) {
-    return this.doParseResults(searchResponse, pageable, "dto", this.configuration.getSupportedClass());
+    return this.doParseResults(searchResponse, pageable, "dto", this.configuration.getSupportedClass(), this.dtoReader);
   }
 
   @Override
   public SearchResult<SummaryDTO> parseSummaryResults(SearchResponse searchResponse,
     Pageable pageable) {
-    return this.doParseResults(searchResponse, pageable, "summary", SummaryDTO.class);
+    return this.doParseResults(searchResponse, pageable, "summary", SummaryDTO.class, this.summaryReader);
   }
 
   private <T> SearchResult<T> doParseResults(SearchResponse searchResponse, Pageable pageable,
-    String field, Class<T> targetClass) {
+    String field, Class<T> targetClass, ObjectReader reader) {
     List<T> resultList = Lists.newArrayList();
-    for (int i = 0; i < searchResponse.getHits().getHits().length; i++) {
+    for (SearchHit hit : searchResponse.getHits().getHits()) {
       try {
-        SearchHit hit = searchResponse.getHits().getHits()[i];
-        JsonNode document = this.objectMapper.readTree(hit.getSourceAsString());
-        T result = this.objectMapper.treeToValue(document.get(field), targetClass);
-        resultList.add(result);
+        resultList.add(this.readField(hit.sourceRef(), field, reader));
       } catch (Exception e) {
         throw new RuntimeException(
           "Can't parse hit content field " + field + " into class" + targetClass, e);
@@ -158,6 +329,32 @@ public class SearchEngineImpl<DTO extends AbstractDTO> implements SearchEngine {
       new PageImpl<>(resultList, pageable, searchResponse.getHits().getTotalHits()));
   }
 
+  /**
+   * Reads the given field of a hit source straight from its bytes, skipping the other fields without
+   * building any tree.
+   */
+  <T> T readField(BytesReference source, String field, ObjectReader reader) throws IOException {
+    if (source == null) {
+      return null;
+    }
+    BytesArray bytes = source.toBytesArray();
+    try (JsonParser parser = this.objectMapper.getFactory()
+      .createParser(bytes.array(), bytes.arrayOffset(), bytes.length())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (field.equals(name)) {
+          return value == JsonToken.VALUE_NULL ? null : reader.readValue(parser);
+        }
+        parser.skipChildren();
+      }
+      return null;
+    }
+  }
+
   @Override
   public boolean supports(Class<? extends AbstractDTO> delimiter) {
     return delimiter.isAssignableFrom(this.configuration.getSupportedClass());
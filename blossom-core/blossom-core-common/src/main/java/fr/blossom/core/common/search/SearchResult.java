@@ -12,15 +12,21 @@ public class SearchResult<DTO> {
   private final long duration;
   private final Page<DTO> page;
   private final List<Aggregation> aggregations;
+  private final String cursor;
 
   public SearchResult(long duration,Page<DTO> page) {
     this(duration, page, Lists.newArrayList());
   }
 
   public SearchResult(long duration, Page<DTO> page, List<Aggregation> aggregations) {
+    this(duration, page, aggregations, null);
+  }
+
+  public SearchResult(long duration, Page<DTO> page, List<Aggregation> aggregations, String cursor) {
     this.duration=duration;
     this.page = page;
     this.aggregations = aggregations;
+    this.cursor = cursor;
   }
 
   public long getDuration() {
@@ -34,4 +40,11 @@ public class SearchResult<DTO> {
   public List<Aggregation> getAggregations() {
     return aggregations;
   }
+
+  /**
+   * @return the cursor to read the next page with, when read by cursor, null on the last page
+   */
+  public String getCursor() {
+    return cursor;
+  }
 }
@@ -0,0 +1,154 @@
+package fr.blossom.core.common.search;
+
+import fr.blossom.core.cache.CacheInvalidationBus;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Cache of the search results, shared by every {@link SearchEngine} and stored in the
+ * {@value #CACHE_NAME} cache of the {@link CacheManager}, so that it's bounded by the
+ * {@literal blossom.cache.search.spec} property.
+ * Results are keyed on the alias and the source of the request, which holds the query, the filters,
+ * the aggregations, the sort and the page. Each write on an alias, reported by its indexation engine,
+ * outdates the results read on it until the write is visible to the searches, after the refresh
+ * interval of the index. When the caches are shared by a cluster, the writes are broadcast on the
+ * {@link CacheInvalidationBus} so that every node outdates its results, from the moment it receives
+ * them.
+ */
+public class SearchResultCache implements CacheInvalidationBus.Listener {
+
+  public final static String CACHE_NAME = "search";
+  private final static long REFRESH_DELAY = 1000;
+
+  private final Cache cache;
+  private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+  private CacheInvalidationBus invalidationBus;
+
+  public SearchResultCache(CacheManager cacheManager) {
+    this.cache = cacheManager.getCache(CACHE_NAME);
+  }
+
+  /**
+   * Broadcasts the writes on the given bus, and outdates the results on the writes of the other nodes.
+   *
+   * @param invalidationBus the bus shared by the nodes
+   */
+  public void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+    this.invalidationBus = invalidationBus;
+    invalidationBus.subscribe(this);
+  }
+
+  /**
+   * Returns the cached result of the given request if it's still up to date, or runs the request with
+   * the given loader and caches its result.
+   *
+   * @param alias the alias the request runs on
+   * @param request the request
+   * @param loader the loader running the request
+   * @return the result of the request
+   */
+  public <T> SearchResult<T> get(String alias, SearchRequestBuilder request, Supplier<SearchResult<T>> loader) {
+    String key = this.key(alias, request);
+    SearchResult<T> cached = this.lookup(alias, key);
+    if (cached != null) {
+      return cached;
+    }
+
+    long readAt = System.currentTimeMillis();
+    return this.store(alias, key, loader.get(), readAt);
+  }
+
+  /**
+   * Returns the cached result of the given request if it's still up to date, or runs the request
+   * asynchronously with the given loader and caches its result once completed.
+   *
+   * @param alias the alias the request runs on
+   * @param request the request
+   * @param loader the loader running the request
+   * @return the future result of the request
+   */
+  public <T> CompletableFuture<SearchResult<T>> getAsync(String alias, SearchRequestBuilder request,
+    Supplier<CompletableFuture<SearchResult<T>>> loader) {
+    String key = this.key(alias, request);
+    SearchResult<T> cached = this.lookup(alias, key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    long readAt = System.currentTimeMillis();
+    return loader.get().thenApply(result -> this.store(alias, key, result, readAt));
+  }
+
+  private String key(String alias, SearchRequestBuilder request) {
+    return alias + ":" + request.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> SearchResult<T> lookup(String alias, String key) {
+    ValueWrapper cached = this.cache.get(key);
+    if (cached != null && cached.get() instanceof Entry && this.isUpToDate(alias, ((Entry) cached.get()).readAt)) {
+      return (SearchResult<T>) ((Entry) cached.get()).result;
+    }
+    return null;
+  }
+
+  private <T> SearchResult<T> store(String alias, String key, SearchResult<T> result, long readAt) {
+    if (this.isUpToDate(alias, readAt)) {
+      this.cache.put(key, new Entry(result, readAt));
+    }
+    return result;
+  }
+
+  /**
+   * Outdates the results read on the given alias, on every node.
+   *
+   * @param alias the alias written to
+   */
+  public void invalidate(String alias) {
+    this.outdate(alias);
+    if (this.invalidationBus != null) {
+      this.invalidationBus.publish(CACHE_NAME, alias);
+    }
+  }
+
+  @Override
+  public void onInvalidation(String cacheName, Object key) {
+    if (CACHE_NAME.equals(cacheName) && key instanceof String) {
+      this.outdate((String) key);
+    }
+  }
+
+  private void outdate(String alias) {
+    this.lastWrites.put(alias, System.currentTimeMillis());
+  }
+
+  /**
+   * Tells whether a result read on the given alias at the given time is still up to date, that is read
+   * after the last write on the alias became visible.
+   *
+   * @param alias the alias the result was read on
+   * @param readAt the time the read started
+   * @return true if the result is up to date
+   */
+  public boolean isUpToDate(String alias, long readAt) {
+    Long lastWrite = this.lastWrites.get(alias);
+    return lastWrite == null || readAt >= lastWrite + REFRESH_DELAY;
+  }
+
+  private static class Entry {
+
+    private final SearchResult<?> result;
+    private final long readAt;
+
+    private Entry(SearchResult<?> result, long readAt) {
+      this.result = result;
+      this.readAt = readAt;
+    }
+  }
+}
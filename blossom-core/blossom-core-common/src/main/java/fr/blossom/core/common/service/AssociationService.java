@@ -3,6 +3,7 @@ package fr.blossom.core.common.service;
 import fr.blossom.core.common.dto.AbstractAssociationDTO;
 import fr.blossom.core.common.dto.AbstractDTO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface AssociationService<A extends AbstractDTO, B extends AbstractDTO, ASSOCIATION extends AbstractAssociationDTO<A, B>> {
@@ -15,6 +16,10 @@ public interface AssociationService<A extends AbstractDTO, B extends AbstractDTO
 
     List<ASSOCIATION> getAllLeft(A a);
 
+    List<ASSOCIATION> getAllRight(Collection<B> bs);
+
+    List<ASSOCIATION> getAllLeft(Collection<A> as);
+
     ASSOCIATION getOne(long id);
 
 }
@@ -13,8 +13,24 @@ public interface CrudService<DTO extends AbstractDTO> extends ReadOnlyService<DT
 
   void delete(DTO toDelete);
 
+  /**
+   * Creates the given elements. A single {@link fr.blossom.core.common.event.BatchCreatedEvent} is
+   * published for all of them, no {@link fr.blossom.core.common.event.CreatedEvent}.
+   */
   List<DTO> create(Collection<DTO> toCreates);
 
+  /**
+   * Updates the given elements. A single {@link fr.blossom.core.common.event.BatchUpdatedEvent} is
+   * published for all of them, no {@link fr.blossom.core.common.event.UpdatedEvent}.
+   */
   List<DTO> update(Collection<DTO> toUpdates);
 
+  /**
+   * Deletes the given elements. A single {@link fr.blossom.core.common.event.BatchDeletedEvent} is
+   * published once they are deleted, neither {@link fr.blossom.core.common.event.BeforeDeletedEvent}
+   * nor {@link fr.blossom.core.common.event.DeletedEvent} : listeners that need the elements before
+   * their deletion must use the single element operations.
+   */
+  void delete(Collection<DTO> toDeletes);
+
 }
@@ -9,6 +9,7 @@ import fr.blossom.core.common.event.AfterDissociatedEvent;
 import fr.blossom.core.common.event.AssociatedEvent;
 import fr.blossom.core.common.event.BeforeDissociatedEvent;
 import fr.blossom.core.common.mapper.DTOMapper;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
@@ -63,6 +64,16 @@ public abstract class GenericAssociationServiceImpl<
     return this.mapper.mapEntities(this.dao.getAllB(aMapper.mapDto(a)));
   }
 
+  @Override
+  public List<DTO> getAllRight(Collection<B> bs) {
+    return this.mapper.mapEntities(this.dao.getAllA(this.bMapper.mapDtos(bs)));
+  }
+
+  @Override
+  public List<DTO> getAllLeft(Collection<A> as) {
+    return this.mapper.mapEntities(this.dao.getAllB(this.aMapper.mapDtos(as)));
+  }
+
   @Override
   public DTO getOne(long id) {
     return this.mapper.mapEntity(this.dao.getOne(id));
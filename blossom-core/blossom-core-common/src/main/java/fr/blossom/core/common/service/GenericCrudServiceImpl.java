@@ -3,6 +3,10 @@ package fr.blossom.core.common.service;
 import fr.blossom.core.common.dao.CrudDao;
 import fr.blossom.core.common.dto.AbstractDTO;
 import fr.blossom.core.common.entity.AbstractEntity;
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.event.BatchCreatedEvent;
+import fr.blossom.core.common.event.BatchDeletedEvent;
+import fr.blossom.core.common.event.BatchUpdatedEvent;
 import fr.blossom.core.common.event.BeforeDeletedEvent;
 import fr.blossom.core.common.event.CreatedEvent;
 import fr.blossom.core.common.event.DeletedEvent;
@@ -63,7 +67,7 @@ public abstract class GenericCrudServiceImpl<DTO extends AbstractDTO, ENTITY ext
   @Transactional
   public List<DTO> create(Collection<DTO> toCreates) {
     List<DTO> dtos = this.mapper.mapEntities(this.dao.create(this.mapper.mapDtos(toCreates)));
-    dtos.forEach(dto -> this.publisher.publishEvent(new CreatedEvent<DTO>(this, dto)));
+    this.publisher.publishEvent(new BatchCreatedEvent<DTO>(this, dtos));
     return dtos;
   }
 
@@ -73,7 +77,15 @@ public abstract class GenericCrudServiceImpl<DTO extends AbstractDTO, ENTITY ext
     Map<Long, ENTITY> toUpdatesEntities = this.mapper.mapDtos(toUpdates).stream().collect(Collectors.toMap(entity -> entity.getId(), Function.identity()));
 
     List<DTO> dtos = this.mapper.mapEntities(this.dao.update(toUpdatesEntities));
-    dtos.forEach(dto -> this.publisher.publishEvent(new UpdatedEvent<DTO>(this, dto)));
+    this.publisher.publishEvent(new BatchUpdatedEvent<DTO>(this, dtos));
     return dtos;
   }
+
+  @Override
+  @Transactional
+  public void delete(Collection<DTO> toDeletes) {
+    List<DTO> dtos = Lists.newArrayList(toDeletes);
+    this.dao.delete(this.mapper.mapDtos(dtos));
+    this.publisher.publishEvent(new BatchDeletedEvent<DTO>(this, dtos));
+  }
 }
@@ -1,7 +1,9 @@
 package fr.blossom.core.common.service;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
 import com.google.common.reflect.TypeToken;
+import fr.blossom.core.common.dao.KeysetSlice;
 import fr.blossom.core.common.dao.ReadOnlyDao;
 import fr.blossom.core.common.dto.AbstractDTO;
 import fr.blossom.core.common.entity.AbstractEntity;
@@ -9,11 +11,17 @@ import fr.blossom.core.common.mapper.DTOMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public abstract class GenericReadOnlyServiceImpl<DTO extends AbstractDTO, ENTITY extends AbstractEntity> implements ReadOnlyService<DTO> {
   private final TypeToken<DTO> typeToken = new TypeToken<DTO>(getClass()) {
   };
+  private final TypeToken<ENTITY> entityTypeToken = new TypeToken<ENTITY>(getClass()) {
+  };
   protected final ReadOnlyDao<ENTITY> dao;
   protected final DTOMapper<ENTITY, DTO> mapper;
 
@@ -38,11 +46,61 @@ public abstract class GenericReadOnlyServiceImpl<DTO extends AbstractDTO, ENTITY
     return mapper.mapEntitiesPage(this.dao.getAll(pageable));
   }
 
+  @Override
+  public KeysetSlice<DTO> getAll(Pageable pageable, String continuationToken) {
+    return this.dao.getAll(pageable, continuationToken).map(mapper::mapEntity);
+  }
+
+  @Override
+  public Page<DTO> getSummaries(Pageable pageable, Collection<String> properties) {
+    return mapper.mapEntitiesPage(this.dao.getSummaries(pageable, properties));
+  }
+
+  @Override
+  public List<Long> getIdsModifiedSince(Date since) {
+    return this.dao.getIdsModifiedSince(since);
+  }
+
+  @Override
+  public Set<Long> getExistingIds(Collection<Long> ids) {
+    return this.dao.getExistingIds(ids);
+  }
+
+  @Override
+  public Range<Long> getIdBounds() {
+    return this.dao.getIdBounds();
+  }
+
+  @Override
+  public List<DTO> getAllInIdRange(long fromId, long toId, int limit) {
+    return mapper.mapEntities(this.dao.getAllInIdRange(fromId, toId, limit));
+  }
+
+  @Override
+  public long count() {
+    return this.dao.count();
+  }
+
   @Override
   public List<DTO> getAll() {
     return mapper.mapEntities(this.dao.getAll());
   }
 
+  @Override
+  public Stream<DTO> stream(int chunkSize) {
+    return this.dao.stream(chunkSize).map(mapper::mapEntity);
+  }
+
+  /**
+   * Returns the class of the entities read by the service, which the events it publishes are about.
+   *
+   * @return the class of the entities
+   */
+  @SuppressWarnings("unchecked")
+  public Class<? extends AbstractEntity> getEntityType() {
+    return (Class<? extends AbstractEntity>) entityTypeToken.getRawType();
+  }
+
   @Override
   public boolean supports(Class<? extends AbstractDTO> delimiter) {
     return delimiter.isAssignableFrom(typeToken.getRawType());
@@ -1,11 +1,26 @@
 package fr.blossom.core.common.service;
 
+import com.google.common.collect.Range;
+import fr.blossom.core.common.dao.KeysetSlice;
 import fr.blossom.core.common.dto.AbstractDTO;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Reads the elements of a type. Only the first four methods must be implemented : the other ones have
+ * default implementations built on them, which read every element and are meant to be overridden, as
+ * {@link GenericReadOnlyServiceImpl} does by delegating to its DAO.
+ */
 public interface ReadOnlyService<DTO extends AbstractDTO> extends ReadOnlyServicePlugin {
 
   Page<DTO> getAll(Pageable pageable);
@@ -16,4 +31,53 @@ public interface ReadOnlyService<DTO extends AbstractDTO> extends ReadOnlyServic
 
   DTO getOne(Long id);
 
+  /**
+   * Returns a slice of the elements read with keyset pagination. Not supported by default.
+   */
+  default KeysetSlice<DTO> getAll(Pageable pageable, String continuationToken) {
+    throw new UnsupportedOperationException("Keyset pagination isn't supported by " + this.getClass().getName());
+  }
+
+  default long count() {
+    return this.getAll(new PageRequest(0, 1)).getTotalElements();
+  }
+
+  /**
+   * Returns a page of elements, in which only the given properties need to be set. The default
+   * implementation returns whole elements.
+   */
+  default Page<DTO> getSummaries(Pageable pageable, Collection<String> properties) {
+    return this.getAll(pageable);
+  }
+
+  default List<Long> getIdsModifiedSince(Date since) {
+    return this.getAll().stream()
+      .filter(dto -> dto.getModificationDate() != null && !dto.getModificationDate().before(since))
+      .map(AbstractDTO::getId)
+      .collect(Collectors.toList());
+  }
+
+  default Set<Long> getExistingIds(Collection<Long> ids) {
+    return this.getAll(ids.stream().distinct().collect(Collectors.toList())).stream()
+      .map(AbstractDTO::getId)
+      .collect(Collectors.toSet());
+  }
+
+  default Range<Long> getIdBounds() {
+    LongSummaryStatistics ids = this.getAll().stream().mapToLong(AbstractDTO::getId).summaryStatistics();
+    return ids.getCount() == 0 ? null : Range.closed(ids.getMin(), ids.getMax());
+  }
+
+  default List<DTO> getAllInIdRange(long fromId, long toId, int limit) {
+    return this.getAll().stream()
+      .filter(dto -> dto.getId() >= fromId && dto.getId() <= toId)
+      .sorted(Comparator.comparing(AbstractDTO::getId))
+      .limit(limit)
+      .collect(Collectors.toList());
+  }
+
+  default Stream<DTO> stream(int chunkSize) {
+    return this.getAll().stream();
+  }
+
 }
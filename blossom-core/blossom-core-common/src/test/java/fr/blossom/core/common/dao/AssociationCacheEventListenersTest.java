@@ -0,0 +1,106 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.dao.GenericAssociationDaoImplTest.Left;
+import fr.blossom.core.common.dao.GenericAssociationDaoImplTest.Right;
+import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.entity.AbstractEntity;
+import fr.blossom.core.common.event.BatchDeletedEvent;
+import fr.blossom.core.common.event.BatchUpdatedEvent;
+import fr.blossom.core.common.event.BeforeDeletedEvent;
+import fr.blossom.core.common.event.UpdatedEvent;
+import fr.blossom.core.common.service.GenericReadOnlyServiceImpl;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AssociationCacheEventListenersTest {
+
+  @Mock
+  private AssociationDao<?, ?, ?> leftDao;
+
+  @Mock
+  private AssociationDao<?, ?, ?> otherDao;
+
+  @Mock
+  private GenericReadOnlyServiceImpl<?, ?> rightService;
+
+  private AssociationCacheEventListeners listeners;
+
+  @Before
+  public void setUp() {
+    BDDMockito.doReturn(Right.class).when(rightService).getEntityType();
+    BDDMockito.given(leftDao.supports(Right.class)).willReturn(true);
+    BDDMockito.given(leftDao.supports(AbstractEntity.class)).willReturn(true);
+    BDDMockito.given(otherDao.supports(AbstractEntity.class)).willReturn(true);
+    this.listeners = new AssociationCacheEventListeners(Lists.newArrayList(leftDao, otherDao));
+  }
+
+  @Test
+  public void test_update_evicts_the_daos_of_the_entity_type() {
+    listeners.handleEntityUpdate(new UpdatedEvent<>(rightService, dto(2L)));
+
+    BDDMockito.verify(leftDao).evictAll(Right.class, Lists.newArrayList(2L));
+    BDDMockito.verify(otherDao, BDDMockito.never())
+      .evictAll(BDDMockito.any(), BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void test_batch_update_evicts_the_daos_of_the_entity_type() {
+    listeners.handleEntitiesUpdate(new BatchUpdatedEvent<>(rightService, Lists.newArrayList(dto(2L), dto(4L))));
+
+    BDDMockito.verify(leftDao).evictAll(Right.class, Lists.newArrayList(2L, 4L));
+    BDDMockito.verify(otherDao, BDDMockito.never())
+      .evictAll(BDDMockito.any(), BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void test_deletion_evicts_the_daos_of_the_entity_type() {
+    listeners.handleEntityDeletion(new BeforeDeletedEvent<>(rightService, dto(2L)));
+
+    BDDMockito.verify(leftDao).evictAll(Right.class, Lists.newArrayList(2L));
+    BDDMockito.verify(otherDao, BDDMockito.never())
+      .evictAll(BDDMockito.any(), BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void test_batch_deletion_evicts_the_daos_of_the_entity_type() {
+    listeners.handleEntitiesDeletion(new BatchDeletedEvent<>(rightService, Lists.newArrayList(dto(2L))));
+
+    BDDMockito.verify(leftDao).evictAll(Right.class, Lists.newArrayList(2L));
+    BDDMockito.verify(otherDao, BDDMockito.never())
+      .evictAll(BDDMockito.any(), BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void test_event_of_an_unknown_source_evicts_every_dao() {
+    listeners.handleEntityUpdate(new UpdatedEvent<>(new Object(), dto(2L)));
+
+    BDDMockito.verify(leftDao).evictAll(AbstractEntity.class, Lists.newArrayList(2L));
+    BDDMockito.verify(otherDao).evictAll(AbstractEntity.class, Lists.newArrayList(2L));
+  }
+
+  @Test
+  public void test_dao_of_other_types_is_not_evicted() {
+    BDDMockito.given(leftDao.supports(Left.class)).willReturn(true);
+    BDDMockito.doReturn(Left.class).when(rightService).getEntityType();
+
+    listeners.handleEntityUpdate(new UpdatedEvent<>(rightService, dto(1L)));
+
+    BDDMockito.verify(leftDao).evictAll(Left.class, Lists.newArrayList(1L));
+    BDDMockito.verify(otherDao, BDDMockito.never())
+      .evictAll(BDDMockito.any(), BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  private static AbstractDTO dto(Long id) {
+    AbstractDTO dto = new AbstractDTO() {
+    };
+    dto.setId(id);
+    return dto;
+  }
+}
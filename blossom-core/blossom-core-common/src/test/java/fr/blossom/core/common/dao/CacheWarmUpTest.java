@@ -0,0 +1,109 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.entity.AbstractEntity;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.health.Status;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheWarmUpTest {
+
+  @Mock
+  private ReadOnlyDao<TestEntity> dao;
+
+  private CacheWarmUp cacheWarmUp;
+
+  @Before
+  public void setUp() {
+    this.cacheWarmUp = new CacheWarmUp(Collections.singletonList(dao), 10, 2, 2, 1000);
+  }
+
+  @Test
+  public void test_node_is_out_of_service_until_the_warm_up_is_done() {
+    BDDMockito.given(dao.getWarmUpIds(10)).willReturn(Lists.newArrayList(1L, 2L, 3L));
+    BDDMockito.given(dao.getAll(BDDMockito.anyListOf(Long.class)))
+      .willAnswer(invocation -> entities(((List<?>) invocation.getArguments()[0]).size()));
+
+    Assert.assertEquals(Status.OUT_OF_SERVICE, cacheWarmUp.health().getStatus());
+    cacheWarmUp.warmUp();
+
+    Assert.assertEquals(Status.UP, cacheWarmUp.health().getStatus());
+    Assert.assertEquals(CacheWarmUp.State.DONE, cacheWarmUp.health().getDetails().get("state"));
+    Assert.assertEquals(3L, cacheWarmUp.health().getDetails().get("loaded"));
+    BDDMockito.verify(dao).getAll(Lists.newArrayList(1L, 2L));
+    BDDMockito.verify(dao).getAll(Lists.newArrayList(3L));
+  }
+
+  @Test
+  public void test_warm_up_stops_after_its_budget() {
+    CountDownLatch release = new CountDownLatch(1);
+    BDDMockito.given(dao.getWarmUpIds(10)).willAnswer(invocation -> {
+      release.await();
+      return Lists.newArrayList(1L);
+    });
+    CacheWarmUp cacheWarmUp = new CacheWarmUp(Collections.singletonList(dao), 10, 2, 2, 50);
+
+    cacheWarmUp.warmUp();
+    release.countDown();
+
+    Assert.assertEquals(Status.UP, cacheWarmUp.health().getStatus());
+    Assert.assertEquals(CacheWarmUp.State.TIMED_OUT, cacheWarmUp.health().getDetails().get("state"));
+  }
+
+  @Test
+  public void test_failed_warm_up_puts_the_node_in_service() {
+    BDDMockito.given(dao.getWarmUpIds(10)).willThrow(new IllegalStateException("unavailable"));
+
+    cacheWarmUp.warmUp();
+
+    Assert.assertEquals(Status.UP, cacheWarmUp.health().getStatus());
+    Assert.assertEquals(CacheWarmUp.State.FAILED, cacheWarmUp.health().getDetails().get("state"));
+  }
+
+  @Test
+  public void test_application_ready_event_does_not_wait_for_the_warm_up() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch loaded = new CountDownLatch(1);
+    BDDMockito.given(dao.getWarmUpIds(10)).willAnswer(invocation -> {
+      release.await();
+      return Lists.newArrayList(1L);
+    });
+    BDDMockito.given(dao.getAll(BDDMockito.anyListOf(Long.class))).willAnswer(invocation -> {
+      loaded.countDown();
+      return entities(1);
+    });
+
+    cacheWarmUp.onApplicationEvent(null);
+
+    Assert.assertEquals(Status.OUT_OF_SERVICE, cacheWarmUp.health().getStatus());
+    release.countDown();
+    Assert.assertTrue(loaded.await(1, TimeUnit.SECONDS));
+    long deadline = System.currentTimeMillis() + 1000;
+    while (cacheWarmUp.health().getStatus() != Status.UP && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(CacheWarmUp.State.DONE, cacheWarmUp.health().getDetails().get("state"));
+  }
+
+  private static List<TestEntity> entities(int count) {
+    List<TestEntity> entities = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      entities.add(new TestEntity());
+    }
+    return entities;
+  }
+
+  public static class TestEntity extends AbstractEntity {
+
+  }
+}
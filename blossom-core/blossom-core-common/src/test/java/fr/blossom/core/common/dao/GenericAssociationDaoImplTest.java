@@ -0,0 +1,167 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import com.querydsl.core.types.Predicate;
+import fr.blossom.core.common.entity.AbstractAssociationEntity;
+import fr.blossom.core.common.entity.AbstractEntity;
+import fr.blossom.core.common.repository.AssociationRepository;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GenericAssociationDaoImplTest {
+
+  @Mock
+  private AssociationRepository<Left, Right, LeftRight> repository;
+
+  private LeftRightDaoImpl dao;
+  private Cache cache;
+  private LeftRight association;
+
+  @Before
+  public void setUp() {
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    this.dao = new LeftRightDaoImpl(repository);
+    this.dao.setCacheManager(cacheManager);
+    this.cache = cacheManager.getCache(LeftRightDaoImpl.class.getCanonicalName());
+
+    this.association = new LeftRight(new Left(1L), new Right(2L));
+    this.association.setId(3L);
+    this.cache.put("a_1", Lists.newArrayList(association));
+    this.cache.put("b_2", Lists.newArrayList(association));
+    this.cache.put("3", association);
+  }
+
+  @Test
+  public void test_supports_both_sides() {
+    Assert.assertTrue(dao.supports(Left.class));
+    Assert.assertTrue(dao.supports(Right.class));
+    Assert.assertTrue(dao.supports(AbstractEntity.class));
+    Assert.assertFalse(dao.supports(Other.class));
+  }
+
+  @Test
+  public void test_evict_all_of_b_evicts_the_lists_of_its_counterparts() {
+    BDDMockito.given(repository.findAll(BDDMockito.any(Predicate.class)))
+      .willReturn(Lists.newArrayList(association));
+
+    dao.evictAll(Right.class, Lists.newArrayList(2L));
+
+    Assert.assertNull(cache.get("b_2"));
+    Assert.assertNull(cache.get("a_1"));
+    Assert.assertNull(cache.get("3"));
+  }
+
+  @Test
+  public void test_evict_all_of_a_evicts_the_lists_of_its_counterparts() {
+    BDDMockito.given(repository.findAll(BDDMockito.any(Predicate.class)))
+      .willReturn(Lists.newArrayList(association));
+
+    dao.evictAll(Left.class, Lists.newArrayList(1L));
+
+    Assert.assertNull(cache.get("a_1"));
+    Assert.assertNull(cache.get("b_2"));
+    Assert.assertNull(cache.get("3"));
+  }
+
+  @Test
+  public void test_evict_all_finds_removed_associations_in_the_cached_lists() {
+    BDDMockito.given(repository.findAll(BDDMockito.any(Predicate.class))).willReturn(Collections.emptyList());
+
+    dao.evictAll(Right.class, Lists.newArrayList(2L));
+
+    Assert.assertNull(cache.get("b_2"));
+    Assert.assertNull(cache.get("a_1"));
+  }
+
+  @Test
+  public void test_evict_all_of_b_keeps_the_entries_of_an_a_with_the_same_id() {
+    this.cache.put("a_2", Lists.newArrayList());
+    BDDMockito.given(repository.findAll(BDDMockito.any(Predicate.class))).willReturn(Collections.emptyList());
+
+    dao.evictAll(Right.class, Lists.newArrayList(2L));
+
+    Assert.assertNotNull(cache.get("a_2"));
+  }
+
+  @Test
+  public void test_evict_all_of_another_type_does_nothing() {
+    dao.evictAll(Other.class, Lists.newArrayList(1L, 2L));
+
+    Assert.assertNotNull(cache.get("a_1"));
+    Assert.assertNotNull(cache.get("b_2"));
+    BDDMockito.verify(repository, BDDMockito.never()).findAll(BDDMockito.any(Predicate.class));
+  }
+
+  public static class Left extends AbstractEntity {
+
+    public Left(Long id) {
+      this.setId(id);
+    }
+  }
+
+  public static class Right extends AbstractEntity {
+
+    public Right(Long id) {
+      this.setId(id);
+    }
+  }
+
+  public static class Other extends AbstractEntity {
+
+  }
+
+  public static class LeftRight extends AbstractAssociationEntity<Left, Right> {
+
+    private Left a;
+    private Right b;
+
+    public LeftRight() {
+    }
+
+    public LeftRight(Left a, Right b) {
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    public Left getA() {
+      return a;
+    }
+
+    @Override
+    public void setA(Left a) {
+      this.a = a;
+    }
+
+    @Override
+    public Right getB() {
+      return b;
+    }
+
+    @Override
+    public void setB(Right b) {
+      this.b = b;
+    }
+  }
+
+  public static class LeftRightDaoImpl extends GenericAssociationDaoImpl<Left, Right, LeftRight> {
+
+    public LeftRightDaoImpl(AssociationRepository<Left, Right, LeftRight> repository) {
+      super(repository);
+    }
+
+    @Override
+    protected LeftRight create() {
+      return new LeftRight();
+    }
+  }
+}
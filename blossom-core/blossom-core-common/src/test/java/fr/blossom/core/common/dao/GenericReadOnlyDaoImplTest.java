@@ -0,0 +1,149 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import fr.blossom.core.cache.BlossomCacheManager;
+import fr.blossom.core.cache.BlossomCacheResolver;
+import fr.blossom.core.common.entity.AbstractEntity;
+import fr.blossom.core.common.repository.CrudRepository;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.mock.env.MockEnvironment;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GenericReadOnlyDaoImplTest {
+
+  private final static String CACHE_NAME = TestEntityDaoImpl.class.getCanonicalName();
+
+  @Mock
+  private CrudRepository<TestEntity> repository;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @After
+  public void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void test_concurrent_misses_on_get_one_load_once() throws Exception {
+    ReadOnlyDao<TestEntity> dao = this.dao("maximumSize=100");
+    AtomicInteger reads = new AtomicInteger();
+    BDDMockito.given(repository.findOne(1L)).willAnswer(invocation -> {
+      reads.incrementAndGet();
+      Thread.sleep(200);
+      return new TestEntity(1L);
+    });
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<TestEntity>> results = Lists.newArrayList();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        return dao.getOne(1L);
+      }));
+    }
+    start.countDown();
+
+    for (Future<TestEntity> result : results) {
+      Assert.assertEquals(Long.valueOf(1L), result.get().getId());
+    }
+    Assert.assertEquals(1, reads.get());
+  }
+
+  @Test
+  public void test_get_all_on_loading_cache_loads_the_misses_in_bulk_in_the_order_of_the_ids() {
+    ReadOnlyDao<TestEntity> dao = this.dao("maximumSize=100,refreshAfterWrite=1m");
+    BDDMockito.given(repository.findOne(2L)).willReturn(new TestEntity(2L));
+    dao.getOne(2L);
+    BDDMockito.given(repository.findAll(BDDMockito.anyCollectionOf(Long.class)))
+      .willReturn(Lists.newArrayList(new TestEntity(1L), new TestEntity(3L)));
+
+    List<TestEntity> entities = dao.getAll(Lists.newArrayList(3L, 2L, 4L, 1L));
+
+    Assert.assertEquals(Lists.newArrayList(3L, 2L, 1L),
+      entities.stream().map(AbstractEntity::getId).collect(Collectors.toList()));
+    BDDMockito.verify(repository).findAll(BDDMockito.anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void test_get_all_on_plain_cache_reads_only_the_misses_once() {
+    ReadOnlyDao<TestEntity> dao = this.dao("maximumSize=100");
+    BDDMockito.given(repository.findOne(2L)).willReturn(new TestEntity(2L));
+    dao.getOne(2L);
+    BDDMockito.given(repository.findAll(BDDMockito.anyCollectionOf(Long.class)))
+      .willReturn(Lists.newArrayList(new TestEntity(1L), new TestEntity(3L)));
+
+    List<TestEntity> entities = dao.getAll(Lists.newArrayList(3L, 2L, 4L, 3L, 1L, 2L));
+
+    Assert.assertEquals("duplicates are returned once and missing ids are left out", Lists.newArrayList(3L, 2L, 1L),
+      entities.stream().map(AbstractEntity::getId).collect(Collectors.toList()));
+    BDDMockito.verify(repository).findAll(Lists.newArrayList(3L, 4L, 1L));
+
+    Assert.assertEquals(Lists.newArrayList(1L, 3L),
+      dao.getAll(Lists.newArrayList(1L, 3L)).stream().map(AbstractEntity::getId).collect(Collectors.toList()));
+    BDDMockito.verify(repository, BDDMockito.times(1)).findAll(BDDMockito.anyCollectionOf(Long.class));
+    BDDMockito.verify(repository, BDDMockito.times(1)).findOne(2L);
+  }
+
+  @Test
+  public void test_get_one_on_loading_cache_is_read_once() {
+    ReadOnlyDao<TestEntity> dao = this.dao("maximumSize=100,refreshAfterWrite=1m");
+    BDDMockito.given(repository.findOne(1L)).willReturn(new TestEntity(1L));
+
+    dao.getOne(1L);
+    dao.getOne(1L);
+
+    BDDMockito.verify(repository).findOne(1L);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ReadOnlyDao<TestEntity> dao(String spec) {
+    BlossomCacheManager cacheManager = new BlossomCacheManager(
+      new MockEnvironment().withProperty("blossom.cache." + CACHE_NAME + ".spec", spec));
+    TestEntityDaoImpl dao = new TestEntityDaoImpl(repository);
+    dao.setCacheManager(cacheManager);
+
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("blossomCacheResolver", new BlossomCacheResolver(cacheManager));
+    CacheInterceptor interceptor = new CacheInterceptor();
+    interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+    interceptor.setCacheManager(cacheManager);
+    interceptor.setBeanFactory(beanFactory);
+    interceptor.afterPropertiesSet();
+    interceptor.afterSingletonsInstantiated();
+
+    ProxyFactory proxyFactory = new ProxyFactory(dao);
+    proxyFactory.addAdvice(interceptor);
+    return (ReadOnlyDao<TestEntity>) proxyFactory.getProxy();
+  }
+
+  public static class TestEntity extends AbstractEntity {
+
+    public TestEntity(Long id) {
+      this.setId(id);
+    }
+  }
+
+  public static class TestEntityDaoImpl extends GenericReadOnlyDaoImpl<TestEntity> {
+
+    public TestEntityDaoImpl(CrudRepository<TestEntity> repository) {
+      super(repository);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package fr.blossom.core.common.dao;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import fr.blossom.core.common.entity.AbstractEntity;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+public class ReadOnlyDaoTest {
+
+  private final ReadOnlyDao<TestEntity> dao = new TestEntityDao(
+    entity(5L, 1000L), entity(2L, 3000L), entity(9L, null), entity(7L, 2000L));
+
+  @Test
+  public void test_count_defaults_to_the_total_of_a_page() {
+    Assert.assertEquals(4L, dao.count());
+  }
+
+  @Test
+  public void test_ids_modified_since_defaults_to_a_scan() {
+    Assert.assertEquals(Sets.newHashSet(2L, 7L), Sets.newHashSet(dao.getIdsModifiedSince(new Date(2000L))));
+  }
+
+  @Test
+  public void test_existing_ids_defaults_to_a_read_by_ids() {
+    Assert.assertEquals(Sets.newHashSet(2L, 9L), dao.getExistingIds(Lists.newArrayList(2L, 3L, 9L, 2L)));
+  }
+
+  @Test
+  public void test_id_range_defaults_to_a_scan() {
+    Assert.assertEquals(Range.closed(2L, 9L), dao.getIdBounds());
+    Assert.assertNull(new TestEntityDao().getIdBounds());
+    Assert.assertEquals(Lists.newArrayList(5L, 7L), dao.getAllInIdRange(3L, 9L, 2).stream()
+      .map(AbstractEntity::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void test_no_warm_up_by_default() {
+    Assert.assertTrue(dao.getWarmUpIds(10).isEmpty());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void test_keyset_pagination_unsupported_by_default() {
+    dao.getAll(new PageRequest(0, 2), null);
+  }
+
+  private static TestEntity entity(Long id, Long modificationDate) {
+    TestEntity entity = new TestEntity();
+    entity.setId(id);
+    entity.setModificationDate(modificationDate == null ? null : new Date(modificationDate));
+    return entity;
+  }
+
+  private static class TestEntityDao implements ReadOnlyDao<TestEntity> {
+
+    private final List<TestEntity> entities;
+
+    private TestEntityDao(TestEntity... entities) {
+      this.entities = Lists.newArrayList(entities);
+    }
+
+    @Override
+    public List<TestEntity> getAll() {
+      return entities;
+    }
+
+    @Override
+    public Page<TestEntity> getAll(Pageable pageable) {
+      return new PageImpl<>(entities.stream().skip(pageable.getOffset()).limit(pageable.getPageSize())
+        .collect(Collectors.toList()), pageable, entities.size());
+    }
+
+    @Override
+    public List<TestEntity> getAll(List<Long> ids) {
+      return entities.stream().filter(entity -> ids.contains(entity.getId())).collect(Collectors.toList());
+    }
+
+    @Override
+    public TestEntity getOne(long id) {
+      return entities.stream().filter(entity -> entity.getId() == id).findFirst().orElse(null);
+    }
+  }
+
+  public static class TestEntity extends AbstractEntity {
+
+  }
+}
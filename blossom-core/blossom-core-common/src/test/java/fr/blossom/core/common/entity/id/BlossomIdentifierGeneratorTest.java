@@ -0,0 +1,83 @@
+package fr.blossom.core.common.entity.id;
+
+import fr.blossom.core.common.entity.AbstractEntity;
+import java.util.Collections;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BlossomIdentifierGeneratorTest {
+
+  @Mock
+  private ServiceRegistry serviceRegistry;
+
+  @Mock
+  private ConfigurationService configurationService;
+
+  @Test
+  public void test_registered_id_generator_is_used() {
+    BlossomIdentifierGenerator generator = this.generator((IdGenerator) () -> 42L);
+
+    Assert.assertEquals(42L, (long) (Long) generator.generate(null, new TestEntity()));
+  }
+
+  @Test
+  public void test_id_set_on_the_entity_is_kept() {
+    BlossomIdentifierGenerator generator = this.generator((IdGenerator) () -> 42L);
+    TestEntity entity = new TestEntity();
+    entity.setId(7L);
+
+    Assert.assertEquals(7L, (long) (Long) generator.generate(null, entity));
+  }
+
+  @Test
+  public void test_random_ids_without_registered_id_generator() {
+    BlossomIdentifierGenerator generator = this.generator(null);
+
+    Assert.assertTrue((Long) generator.generate(null, new TestEntity()) >= 0);
+  }
+
+  @Test(expected = MappingException.class)
+  public void test_unexpected_setting_fails() {
+    this.generator("random");
+  }
+
+  @Test
+  public void test_table_of_the_entity_is_registered() {
+    IdGenerator idGenerator = BDDMockito.mock(IdGenerator.class);
+    Properties params = new Properties();
+    params.setProperty(PersistentIdentifierGenerator.TABLE, "blossom_user");
+    params.setProperty(PersistentIdentifierGenerator.PK, "id");
+    params.setProperty(PersistentIdentifierGenerator.SCHEMA, "app");
+
+    this.generator(idGenerator, params);
+
+    BDDMockito.verify(idGenerator).registerTable("app.blossom_user", "id");
+  }
+
+  private BlossomIdentifierGenerator generator(Object idGenerator) {
+    return this.generator(idGenerator, new Properties());
+  }
+
+  private BlossomIdentifierGenerator generator(Object idGenerator, Properties params) {
+    BDDMockito.given(serviceRegistry.getService(ConfigurationService.class)).willReturn(configurationService);
+    BDDMockito.given(configurationService.getSettings()).willReturn(idGenerator == null ? Collections.emptyMap()
+      : Collections.singletonMap(BlossomIdentifierGenerator.ID_GENERATOR_SETTING, idGenerator));
+    BlossomIdentifierGenerator generator = new BlossomIdentifierGenerator();
+    generator.configure(null, params, serviceRegistry);
+    return generator;
+  }
+
+  public static class TestEntity extends AbstractEntity {
+
+  }
+}
@@ -0,0 +1,112 @@
+package fr.blossom.core.common.entity.id;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class PooledTableIdGeneratorTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+
+  @Before
+  public void setUp() {
+    this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+    this.jdbcTemplate = new JdbcTemplate(database);
+    this.jdbcTemplate.execute("CREATE TABLE blossom_id_pool (name VARCHAR(50) PRIMARY KEY, next_value BIGINT NOT NULL)");
+    this.jdbcTemplate.update("INSERT INTO blossom_id_pool (name, next_value) VALUES ('blossom', 1)");
+    this.jdbcTemplate.execute("CREATE TABLE blossom_user (id BIGINT PRIMARY KEY, identifier VARCHAR(50))");
+    this.jdbcTemplate.execute("CREATE TABLE blossom_role (id BIGINT PRIMARY KEY)");
+  }
+
+  @After
+  public void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  public void test_empty_schema_starts_the_pool_at_one() {
+    PooledTableIdGenerator generator = this.generator();
+
+    Assert.assertEquals(1L, generator.nextId());
+    Assert.assertEquals(2L, generator.nextId());
+    Assert.assertEquals(11L, this.nextValue());
+  }
+
+  @Test
+  public void test_pool_is_seeded_above_the_existing_ids() {
+    this.jdbcTemplate.update("INSERT INTO blossom_user (id) VALUES (4242424242)");
+    this.jdbcTemplate.update("INSERT INTO blossom_role (id) VALUES (12)");
+
+    PooledTableIdGenerator generator = this.generator();
+
+    Assert.assertEquals(4242424243L, generator.nextId());
+    Assert.assertEquals(4242424253L, this.nextValue());
+  }
+
+  @Test
+  public void test_unregistered_tables_are_not_read() {
+    this.jdbcTemplate.execute("CREATE TABLE blossom_cache_invalidation (id VARCHAR(36) PRIMARY KEY)");
+    this.jdbcTemplate.update("INSERT INTO blossom_cache_invalidation (id) VALUES ('0b5a2c3e-8f0d-4c1e-9a47-2d4f1b6e7c90')");
+    this.jdbcTemplate.execute("CREATE TABLE other_application (id BIGINT PRIMARY KEY)");
+    this.jdbcTemplate.update("INSERT INTO other_application (id) VALUES (4242)");
+    this.jdbcTemplate.update("INSERT INTO blossom_user (id) VALUES (12)");
+
+    Assert.assertEquals(13L, this.generator().nextId());
+  }
+
+  @Test
+  public void test_table_registered_later_drops_the_current_block() {
+    PooledTableIdGenerator generator = this.generator();
+    Assert.assertEquals(1L, generator.nextId());
+    this.jdbcTemplate.execute("CREATE TABLE blossom_group (id BIGINT PRIMARY KEY)");
+    this.jdbcTemplate.update("INSERT INTO blossom_group (id) VALUES (300)");
+
+    generator.registerTable("blossom_group", "id");
+
+    Assert.assertEquals(301L, generator.nextId());
+  }
+
+  @Test
+  public void test_blocks_are_not_overlapping_across_generators() {
+    this.jdbcTemplate.update("INSERT INTO blossom_user (id) VALUES (100)");
+    PooledTableIdGenerator first = this.generator();
+    PooledTableIdGenerator second = this.generator();
+
+    Assert.assertEquals(101L, first.nextId());
+    Assert.assertEquals(111L, second.nextId());
+    for (int i = 0; i < 9; i++) {
+      first.nextId();
+    }
+    Assert.assertEquals(121L, first.nextId());
+  }
+
+  @Test
+  public void test_ids_below_the_pool_are_left_untouched() {
+    this.jdbcTemplate.update("UPDATE blossom_id_pool SET next_value = 500");
+    this.jdbcTemplate.update("INSERT INTO blossom_user (id) VALUES (100)");
+
+    Assert.assertEquals(500L, this.generator().nextId());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_missing_pool_fails() {
+    new PooledTableIdGenerator(database, "missing", 10).nextId();
+  }
+
+  private PooledTableIdGenerator generator() {
+    PooledTableIdGenerator generator = new PooledTableIdGenerator(database, "blossom", 10);
+    generator.registerTable("blossom_user", "id");
+    generator.registerTable("blossom_role", "id");
+    return generator;
+  }
+
+  private long nextValue() {
+    return jdbcTemplate.queryForObject("SELECT next_value FROM blossom_id_pool WHERE name = 'blossom'", Long.class);
+  }
+}
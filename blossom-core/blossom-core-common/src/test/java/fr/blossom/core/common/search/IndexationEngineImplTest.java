@@ -0,0 +1,147 @@
+package fr.blossom.core.common.search;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.service.ReadOnlyService;
+import java.util.function.Function;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IndexationEngineImplTest {
+
+  @Mock
+  private Client client;
+
+  @Mock
+  private ReadOnlyService<TestDTO> service;
+
+  @Mock
+  private IndexationEngineConfiguration<TestDTO> indexationConfiguration;
+
+  @Mock
+  private SearchEngineConfiguration<TestDTO> searchConfiguration;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private IndexationEngineImpl<TestDTO> indexationEngine;
+  private SearchEngineImpl<TestDTO> searchEngine;
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(indexationConfiguration.getSupportedClass()).willReturn(TestDTO.class);
+    BDDMockito.given(indexationConfiguration.getSummaryFunction()).willReturn(dto -> SummaryDTO.SummaryDTOBuilder
+      .create().id(dto.getId()).type("test").name(dto.getName()).uri("/tests/" + dto.getId()).build());
+    BDDMockito.given(searchConfiguration.getSupportedClass()).willReturn(TestDTO.class);
+    this.indexationEngine = new IndexationEngineImpl<>(client, service, objectMapper, indexationConfiguration);
+    this.searchEngine = new SearchEngineImpl<>(client, objectMapper, searchConfiguration);
+  }
+
+  @Test
+  public void test_document_round_trips_through_each_field() throws Exception {
+    BytesArray source = new BytesArray(indexationEngine.serializeDocument(dto(1L, "name")));
+
+    SummaryDTO summary = searchEngine.readField(source, "summary", objectMapper.readerFor(SummaryDTO.class));
+    TestDTO dto = searchEngine.readField(source, "dto", objectMapper.readerFor(TestDTO.class));
+
+    Assert.assertEquals(Long.valueOf(1L), summary.getId());
+    Assert.assertEquals("name", summary.getName());
+    Assert.assertEquals("/tests/1", summary.getUri());
+    Assert.assertEquals(Long.valueOf(1L), dto.getId());
+    Assert.assertEquals("name", dto.getName());
+  }
+
+  @Test
+  public void test_read_field_skips_the_other_fields() throws Exception {
+    BytesArray source = new BytesArray(
+      "{\"nested\":{\"dto\":{\"id\":2}},\"list\":[{\"dto\":3}],\"dto\":{\"id\":1,\"name\":\"a\"},\"after\":1}");
+
+    TestDTO dto = searchEngine.readField(source, "dto", objectMapper.readerFor(TestDTO.class));
+
+    Assert.assertEquals(Long.valueOf(1L), dto.getId());
+    Assert.assertEquals("a", dto.getName());
+  }
+
+  @Test
+  public void test_null_or_missing_field_reads_as_null() throws Exception {
+    BDDMockito.given(indexationConfiguration.getSummaryFunction()).willReturn((Function<TestDTO, SummaryDTO>) dto -> null);
+    BytesArray source = new BytesArray(indexationEngine.serializeDocument(dto(1L, "name")));
+
+    Assert.assertNull(searchEngine.readField(source, "summary", objectMapper.readerFor(SummaryDTO.class)));
+    Assert.assertNull(searchEngine.readField(source, "missing", objectMapper.readerFor(SummaryDTO.class)));
+    Assert.assertNotNull(searchEngine.readField(source, "dto", objectMapper.readerFor(TestDTO.class)));
+  }
+
+  @Test
+  public void test_non_object_source_reads_as_null() throws Exception {
+    Assert.assertNull(searchEngine.readField(new BytesArray("[{\"dto\":{}}]"), "dto", objectMapper.readerFor(TestDTO.class)));
+    Assert.assertNull(searchEngine.readField(new BytesArray("\"dto\""), "dto", objectMapper.readerFor(TestDTO.class)));
+    Assert.assertNull(searchEngine.readField(null, "dto", objectMapper.readerFor(TestDTO.class)));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void test_prepare_document_matches_the_serialized_document() throws Exception {
+    TestDTO dto = dto(1L, "name");
+
+    Assert.assertEquals(new String(indexationEngine.serializeDocument(dto), "UTF-8"),
+      objectMapper.writeValueAsString(indexationEngine.prepareDocument(dto)));
+  }
+
+  @Test
+  public void test_prepare_document_overrides_are_honoured() throws Exception {
+    IndexationEngineImpl<TestDTO> legacyEngine = new IndexationEngineImpl<TestDTO>(client, service,
+      objectMapper, indexationConfiguration) {
+      @Override
+      protected ObjectNode prepareDocument(TestDTO dto) {
+        ObjectNode document = super.prepareDocument(dto);
+        document.put("legacy", true);
+        return document;
+      }
+    };
+
+    Assert.assertTrue(objectMapper.readTree(legacyEngine.serializeDocument(dto(1L, "name"))).get("legacy").asBoolean());
+    Assert.assertFalse(objectMapper.readTree(indexationEngine.serializeDocument(dto(1L, "name"))).has("legacy"));
+  }
+
+  @Test
+  public void test_shared_buffer_serializes_each_document_on_its_own() throws Exception {
+    ByteArrayBuilder buffer = new ByteArrayBuilder();
+    TestDTO first = dto(1L, "a name long enough to outgrow the next document");
+    TestDTO second = dto(2L, "b");
+
+    byte[] firstBytes = indexationEngine.serializeDocument(first, buffer);
+    byte[] secondBytes = indexationEngine.serializeDocument(second, buffer);
+
+    Assert.assertArrayEquals(indexationEngine.serializeDocument(first), firstBytes);
+    Assert.assertArrayEquals(indexationEngine.serializeDocument(second), secondBytes);
+  }
+
+  private static TestDTO dto(Long id, String name) {
+    TestDTO dto = new TestDTO();
+    dto.setId(id);
+    dto.setName(name);
+    return dto;
+  }
+
+  public static class TestDTO extends AbstractDTO {
+
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package fr.blossom.core.common.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IndexationOutboxTest {
+
+  @Mock
+  private IndexationQueue indexationQueue;
+
+  @Mock
+  private PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines;
+
+  @Mock
+  private IndexationEngine indexationEngine;
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private IndexationOutbox outbox;
+  private final AtomicLong ids = new AtomicLong();
+
+  @Before
+  public void setUp() {
+    this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+    this.jdbcTemplate = new JdbcTemplate(database);
+    this.jdbcTemplate.execute("CREATE TABLE blossom_indexation_outbox (id BIGINT PRIMARY KEY, "
+      + "dto_class VARCHAR(255) NOT NULL, entity_id BIGINT NOT NULL, deleted BOOLEAN NOT NULL, "
+      + "payload CLOB, creation_date TIMESTAMP NOT NULL)");
+
+    BDDMockito.given(indexationEngines.hasPluginFor(TestDTO.class)).willReturn(true);
+    BDDMockito.given(indexationEngines.getPluginFor(TestDTO.class)).willReturn(indexationEngine);
+    this.outbox = new IndexationOutbox(database, new ObjectMapper(), ids::incrementAndGet, indexationQueue,
+      indexationEngines, 0, 2);
+  }
+
+  @After
+  public void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  public void test_record_indexation_stores_and_queues_the_entries() {
+    TestDTO dto = dto(10L, "a");
+
+    outbox.recordIndexation(Lists.newArrayList(dto));
+
+    Assert.assertEquals(1, this.count());
+    Assert.assertNull(jdbcTemplate.queryForObject("SELECT payload FROM blossom_indexation_outbox", String.class));
+    BDDMockito.verify(indexationQueue).index(dto, 1L);
+  }
+
+  @Test
+  public void test_record_deletion_stores_the_deleted_element() {
+    TestDTO dto = dto(10L, "a");
+
+    outbox.recordDeletion(Lists.newArrayList(dto));
+
+    Assert.assertEquals(1, this.count());
+    Assert.assertTrue(jdbcTemplate.queryForObject("SELECT payload FROM blossom_indexation_outbox", String.class)
+      .contains("\"name\":\"a\""));
+    BDDMockito.verify(indexationQueue).delete(dto, 1L);
+  }
+
+  @Test
+  public void test_record_skips_elements_without_indexation_engine() {
+    outbox.recordIndexation(Lists.newArrayList(new OtherDTO()));
+
+    Assert.assertEquals(0, this.count());
+    BDDMockito.verifyZeroInteractions(indexationQueue);
+  }
+
+  @Test
+  public void test_record_in_transaction_queues_after_commit() {
+    TestDTO dto = dto(10L, "a");
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+
+    transactionTemplate.execute(status -> {
+      outbox.recordIndexation(Lists.newArrayList(dto));
+      BDDMockito.verifyZeroInteractions(indexationQueue);
+      return null;
+    });
+
+    Assert.assertEquals(1, this.count());
+    BDDMockito.verify(indexationQueue).index(dto, 1L);
+  }
+
+  @Test
+  public void test_record_in_rolled_back_transaction_leaves_nothing() {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+
+    transactionTemplate.execute(status -> {
+      outbox.recordIndexation(Lists.newArrayList(dto(10L, "a")));
+      status.setRollbackOnly();
+      return null;
+    });
+
+    Assert.assertEquals(0, this.count());
+    BDDMockito.verifyZeroInteractions(indexationQueue);
+  }
+
+  @Test
+  public void test_acknowledge_removes_the_entries() {
+    outbox.recordIndexation(Lists.newArrayList(dto(10L, "a"), dto(11L, "b")));
+
+    outbox.acknowledge(Lists.newArrayList(1L));
+
+    Assert.assertEquals(1, this.count());
+    Assert.assertEquals(Long.valueOf(2L),
+      jdbcTemplate.queryForObject("SELECT id FROM blossom_indexation_outbox", Long.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_drain_ships_and_acknowledges_every_entry_by_batches() throws InterruptedException {
+    outbox.recordIndexation(Lists.newArrayList(dto(10L, "a"), dto(11L, "b"), dto(10L, "a")));
+    outbox.recordDeletion(Lists.newArrayList(dto(12L, "c")));
+    Thread.sleep(10);
+
+    int drained = outbox.drain();
+
+    Assert.assertEquals(4, drained);
+    Assert.assertEquals(0, this.count());
+    ArgumentCaptor<Collection> indexed = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<Collection> deleted = ArgumentCaptor.forClass(Collection.class);
+    BDDMockito.verify(indexationEngine, BDDMockito.times(2)).bulk(indexed.capture(), deleted.capture());
+    Assert.assertEquals(Lists.newArrayList(10L, 11L), indexed.getAllValues().get(0));
+    Assert.assertEquals(Lists.newArrayList(10L), indexed.getAllValues().get(1));
+    List<TestDTO> deletedDTOs = Lists.newArrayList(deleted.getAllValues().get(1));
+    Assert.assertEquals(1, deletedDTOs.size());
+    Assert.assertEquals(Long.valueOf(12L), deletedDTOs.get(0).getId());
+    Assert.assertEquals("c", deletedDTOs.get(0).getName());
+  }
+
+  @Test
+  public void test_drain_keeps_the_entries_the_cluster_rejects() throws InterruptedException {
+    outbox.recordIndexation(Lists.newArrayList(dto(10L, "a")));
+    Thread.sleep(10);
+    BDDMockito.willThrow(new RuntimeException("unreachable")).given(indexationEngine)
+      .bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection());
+
+    try {
+      outbox.drain();
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Assert.assertEquals(1, this.count());
+    }
+  }
+
+  @Test
+  public void test_drain_keeps_the_entries_the_cluster_rejects_on_their_own() throws InterruptedException {
+    outbox.recordIndexation(Lists.newArrayList(dto(10L, "a"), dto(11L, "b")));
+    Thread.sleep(10);
+    BDDMockito.given(indexationEngine.bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection()))
+      .willReturn(Collections.singleton(11L));
+
+    Assert.assertEquals(1, outbox.drain());
+    Assert.assertEquals(Long.valueOf(2L),
+      jdbcTemplate.queryForObject("SELECT id FROM blossom_indexation_outbox", Long.class));
+  }
+
+  @Test
+  public void test_drain_ignores_recent_entries() {
+    this.outbox = new IndexationOutbox(database, new ObjectMapper(), ids::incrementAndGet, indexationQueue,
+      indexationEngines, 60000, 2);
+    outbox.recordIndexation(Lists.newArrayList(dto(10L, "a")));
+
+    Assert.assertEquals(0, outbox.drain());
+    Assert.assertEquals(1, this.count());
+  }
+
+  private int count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blossom_indexation_outbox", Integer.class);
+  }
+
+  private static TestDTO dto(Long id, String name) {
+    TestDTO dto = new TestDTO();
+    dto.setId(id);
+    dto.setName(name);
+    return dto;
+  }
+
+  public static class TestDTO extends AbstractDTO {
+
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class OtherDTO extends AbstractDTO {
+
+  }
+}
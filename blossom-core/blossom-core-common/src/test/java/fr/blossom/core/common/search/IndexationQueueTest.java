@@ -0,0 +1,158 @@
+package fr.blossom.core.common.search;
+
+import com.google.common.collect.Sets;
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.plugin.core.PluginRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IndexationQueueTest {
+
+  @Mock
+  private PluginRegistry<IndexationEngine, Class<? extends AbstractDTO>> indexationEngines;
+
+  @Mock
+  private IndexationEngine indexationEngine;
+
+  @Mock
+  private IndexationOutbox indexationOutbox;
+
+  private IndexationQueue queue;
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(indexationEngines.hasPluginFor(TestDTO.class)).willReturn(true);
+    BDDMockito.given(indexationEngines.getPluginFor(TestDTO.class)).willReturn(indexationEngine);
+    this.queue = new IndexationQueue(indexationEngines, 60000, 100, 1000);
+    this.queue.setIndexationOutbox(indexationOutbox);
+  }
+
+  @Test
+  public void test_operations_on_the_same_element_are_coalesced() {
+    TestDTO dto = dto(1L);
+    queue.index(dto, 1L);
+    queue.index(dto, 2L);
+    queue.delete(dto, 3L);
+
+    Assert.assertEquals(1, queue.getDepth());
+    queue.flush();
+
+    BDDMockito.verify(indexationEngine).bulk(Collections.emptyList(), Collections.singletonList(dto));
+    Assert.assertEquals(Sets.newHashSet(1L, 2L, 3L), Sets.newHashSet(this.acknowledged()));
+    Assert.assertEquals(0, queue.getDepth());
+  }
+
+  @Test
+  public void test_latest_operation_wins() {
+    TestDTO dto = dto(1L);
+    queue.delete(dto);
+    queue.index(dto);
+
+    queue.flush();
+
+    BDDMockito.verify(indexationEngine).bulk(Collections.singletonList(1L), Collections.emptyList());
+  }
+
+  @Test
+  public void test_operations_without_indexation_engine_are_dropped() {
+    OtherDTO dto = new OtherDTO();
+    dto.setId(1L);
+    queue.index(dto);
+
+    Assert.assertEquals(0, queue.getDepth());
+  }
+
+  @Test
+  public void test_unreachable_cluster_queues_back_and_backs_off() throws InterruptedException {
+    BDDMockito.willThrow(new RuntimeException("unreachable")).given(indexationEngine)
+      .bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection());
+    queue.index(dto(1L), 1L);
+    queue.index(dto(2L), 2L);
+
+    queue.flush();
+    queue.flush();
+
+    Assert.assertEquals(2, queue.getDepth());
+    Assert.assertEquals(1, this.metrics().get("blossom.indexation.queue.failures"));
+    Assert.assertEquals(0L, this.metrics().get("blossom.indexation.queue.processed"));
+    BDDMockito.verify(indexationEngine, BDDMockito.times(1))
+      .bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection());
+    BDDMockito.verifyZeroInteractions(indexationOutbox);
+
+    BDDMockito.willReturn(Collections.emptySet()).given(indexationEngine)
+      .bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection());
+    Thread.sleep(1100);
+    queue.flush();
+
+    Assert.assertEquals(0, queue.getDepth());
+    Assert.assertEquals(0, this.metrics().get("blossom.indexation.queue.failures"));
+    Assert.assertEquals(2L, this.metrics().get("blossom.indexation.queue.processed"));
+    Assert.assertEquals(Sets.newHashSet(1L, 2L), Sets.newHashSet(this.acknowledged()));
+  }
+
+  @Test
+  public void test_rejected_items_are_retried_and_not_acknowledged() {
+    BDDMockito.given(indexationEngine.bulk(BDDMockito.anyCollectionOf(Long.class), BDDMockito.anyCollection()))
+      .willReturn(Collections.singleton(2L));
+    queue.index(dto(1L), 1L);
+    queue.index(dto(2L), 2L);
+
+    queue.flush();
+
+    Assert.assertEquals(1, queue.getDepth());
+    Assert.assertEquals(1, this.metrics().get("blossom.indexation.queue.failures"));
+    Assert.assertEquals(1L, this.metrics().get("blossom.indexation.queue.processed"));
+    Assert.assertEquals(Collections.singletonList(1L), this.acknowledged());
+  }
+
+  @Test
+  public void test_metrics_report_depth_and_lag() throws InterruptedException {
+    queue.index(dto(1L));
+    queue.index(dto(2L));
+    Thread.sleep(10);
+
+    Map<String, Number> metrics = this.metrics();
+
+    Assert.assertEquals(2, metrics.get("blossom.indexation.queue.depth"));
+    Assert.assertTrue(metrics.get("blossom.indexation.queue.lag").longValue() >= 10);
+    Assert.assertEquals(0, metrics.get("blossom.indexation.queue.failures"));
+    Assert.assertEquals(0L, metrics.get("blossom.indexation.queue.processed"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Collection<Long> acknowledged() {
+    ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+    BDDMockito.verify(indexationOutbox).acknowledge(captor.capture());
+    return captor.getValue();
+  }
+
+  private Map<String, Number> metrics() {
+    return queue.metrics().stream().collect(Collectors.toMap(Metric::getName, Metric::getValue));
+  }
+
+  private static TestDTO dto(Long id) {
+    TestDTO dto = new TestDTO();
+    dto.setId(id);
+    return dto;
+  }
+
+  public static class TestDTO extends AbstractDTO {
+
+  }
+
+  public static class OtherDTO extends AbstractDTO {
+
+  }
+}
@@ -0,0 +1,127 @@
+package fr.blossom.core.common.search;
+
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.dto.AbstractDTO;
+import fr.blossom.core.common.search.Omnisearch.Section;
+import fr.blossom.core.common.search.Omnisearch.Status;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.plugin.core.PluginRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OmnisearchTest {
+
+  @Mock
+  private PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry;
+
+  @Mock
+  private SearchEngine engine;
+
+  @Mock
+  private SearchRequestBuilder request;
+
+  private SearchResultCache searchResultCache;
+  private Omnisearch omnisearch;
+  private final Pageable pageable = new PageRequest(0, 20);
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(registry.getPlugins()).willReturn(Lists.newArrayList(engine));
+    BDDMockito.given(engine.getName()).willReturn("users");
+    BDDMockito.given(engine.getAlias()).willReturn("users");
+    BDDMockito.given(engine.includeInOmnisearch()).willReturn(true);
+    BDDMockito.given(engine.prepareSearch("q", pageable)).willReturn(request);
+    this.searchResultCache = new SearchResultCache(new ConcurrentMapCacheManager());
+    this.omnisearch = new Omnisearch(registry, new ConcurrentMapCacheManager(), searchResultCache, 100);
+  }
+
+  @After
+  public void tearDown() {
+    this.omnisearch.shutdown();
+  }
+
+  @Test
+  public void test_engine_without_result_is_not_queried_again() throws Exception {
+    this.answer(0);
+
+    omnisearch.search("q", pageable).get("users").get();
+    Section section = omnisearch.search("q", pageable).get("users").get();
+
+    Assert.assertEquals(Status.DONE, section.getStatus());
+    Assert.assertEquals(0, section.getTotal());
+    Assert.assertEquals(Collections.singletonMap("users", 0L), omnisearch.getCachedTotals("q"));
+    BDDMockito.verify(engine, BDDMockito.times(1)).executeSummaryAsync(request, pageable);
+  }
+
+  @Test
+  public void test_write_on_the_alias_outdates_the_totals() throws Exception {
+    this.answer(0);
+    omnisearch.search("q", pageable).get("users").get();
+
+    searchResultCache.invalidate("users");
+    this.answer(3);
+    Section section = omnisearch.search("q", pageable).get("users").get();
+
+    Assert.assertEquals(3, section.getTotal());
+    Assert.assertTrue("totals read before the refresh aren't cached", omnisearch.getCachedTotals("q").isEmpty());
+    BDDMockito.verify(engine, BDDMockito.times(2)).executeSummaryAsync(request, pageable);
+  }
+
+  @Test
+  public void test_write_on_another_alias_keeps_the_totals() throws Exception {
+    this.answer(0);
+    omnisearch.search("q", pageable).get("users").get();
+
+    searchResultCache.invalidate("roles");
+
+    Assert.assertEquals(Collections.singletonMap("users", 0L), omnisearch.getCachedTotals("q"));
+  }
+
+  @Test
+  public void test_slow_engine_times_out() throws Exception {
+    BDDMockito.given(engine.executeSummaryAsync(request, pageable)).willReturn(new CompletableFuture<>());
+
+    Section section = omnisearch.search("q", pageable).get("users").get();
+
+    Assert.assertEquals(Status.TIMED_OUT, section.getStatus());
+    Assert.assertNull(section.getResult());
+    Assert.assertTrue(omnisearch.getCachedTotals("q").isEmpty());
+  }
+
+  @Test
+  public void test_failing_engine_is_reported() throws Exception {
+    CompletableFuture<SearchResult<SummaryDTO>> failure = new CompletableFuture<>();
+    failure.completeExceptionally(new RuntimeException("unreachable"));
+    BDDMockito.given(engine.executeSummaryAsync(request, pageable)).willReturn(failure);
+
+    Section section = omnisearch.search("q", pageable).get("users").get();
+
+    Assert.assertEquals(Status.FAILED, section.getStatus());
+  }
+
+  @Test
+  public void test_engines_excluded_from_omnisearch_are_skipped() {
+    BDDMockito.given(engine.includeInOmnisearch()).willReturn(false);
+
+    Assert.assertTrue(omnisearch.search("q", pageable).isEmpty());
+    Assert.assertTrue(omnisearch.getEngineNames().isEmpty());
+  }
+
+  private void answer(long total) {
+    BDDMockito.given(engine.executeSummaryAsync(request, pageable)).willReturn(CompletableFuture.completedFuture(
+      new SearchResult<>(1, new PageImpl<SummaryDTO>(Collections.emptyList(), pageable, total))));
+  }
+}
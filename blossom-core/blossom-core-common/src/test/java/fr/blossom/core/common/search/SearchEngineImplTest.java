@@ -0,0 +1,178 @@
+package fr.blossom.core.common.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import fr.blossom.core.common.dto.AbstractDTO;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.metrics.valuecount.ValueCount;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchEngineImplTest {
+
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  private Client client;
+
+  @Mock
+  private SearchEngineConfiguration<TestDTO> configuration;
+
+  @Mock
+  private SearchRequestBuilder searchRequest;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Pageable pageable = new PageRequest(0, 2);
+  private SearchEngineImpl<TestDTO> searchEngine;
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(configuration.getSupportedClass()).willReturn(TestDTO.class);
+    BDDMockito.given(configuration.getAlias()).willReturn("tests");
+    BDDMockito.given(client.prepareSearch("tests")).willAnswer(invocation ->
+      new SearchRequestBuilder(client, SearchAction.INSTANCE).setIndices("tests"));
+    this.searchEngine = new SearchEngineImpl<>(client, objectMapper, configuration);
+  }
+
+  @Test
+  public void test_first_page_is_sorted_on_the_id_without_cursor_filter() throws Exception {
+    JsonNode source = this.source(searchEngine.prepareSearchAfter("q", pageable, null, null));
+
+    Assert.assertEquals(2, source.get("size").asInt());
+    Assert.assertEquals("asc", source.at("/sort/0/dto.id/order").asText());
+    Assert.assertFalse(source.has("post_filter"));
+    Assert.assertFalse(source.has("aggregations"));
+  }
+
+  @Test
+  public void test_next_page_filters_on_the_cursor_after_the_query() throws Exception {
+    JsonNode source = this.source(searchEngine.prepareSearchAfter("q",
+      new PageRequest(3, 2, Direction.DESC, "id"), null, "5"));
+
+    Assert.assertFalse("offset is ignored", source.has("from"));
+    Assert.assertEquals("desc", source.at("/sort/0/dto.id/order").asText());
+    Assert.assertEquals("5", source.at("/post_filter/range/dto.id/to").asText());
+    Assert.assertFalse(source.at("/post_filter/range/dto.id/include_upper").asBoolean());
+    Assert.assertFalse("cursor isn't part of the query", source.get("query").toString().contains("range"));
+    Assert.assertEquals("dto.id", source.at("/aggregations/_cursor_total/value_count/field").asText());
+  }
+
+  @Test
+  public void test_first_page_total_is_the_number_of_hits() {
+    SearchResponse response = this.response(5, hit(1L), hit(2L));
+    SearchResult<TestDTO> result = this.searchAfter(response, null);
+
+    Assert.assertEquals(5, result.getPage().getTotalElements());
+    Assert.assertEquals(Lists.newArrayList(1L, 2L), this.ids(result));
+    Assert.assertEquals("2", result.getCursor());
+  }
+
+  @Test
+  public void test_next_pages_total_is_counted_without_the_cursor() {
+    SearchResponse response = this.response(3, hit(3L), hit(4L));
+    Aggregations aggregations = BDDMockito.mock(Aggregations.class);
+    ValueCount total = BDDMockito.mock(ValueCount.class);
+    BDDMockito.given(total.getValue()).willReturn(5L);
+    BDDMockito.given(aggregations.get("_cursor_total")).willReturn(total);
+    BDDMockito.given(response.getAggregations()).willReturn(aggregations);
+
+    SearchResult<TestDTO> result = this.searchAfter(response, "2");
+
+    Assert.assertEquals(5, result.getPage().getTotalElements());
+    Assert.assertEquals("4", result.getCursor());
+    Assert.assertTrue("the internal total isn't exposed", result.getAggregations().isEmpty());
+  }
+
+  @Test
+  public void test_last_page_has_no_cursor() {
+    SearchResult<TestDTO> result = this.searchAfter(this.response(1, hit(5L)), null);
+
+    Assert.assertNull(result.getCursor());
+  }
+
+  @Test
+  public void test_export_hands_each_scrolled_batch_and_clears_the_scroll() {
+    SearchResponse first = this.response(3, hit(1L), hit(2L));
+    SearchResponse second = this.response(3, hit(3L));
+    SearchResponse last = this.response(3);
+    BDDMockito.given(first.getScrollId()).willReturn("s1");
+    BDDMockito.given(second.getScrollId()).willReturn("s2");
+    BDDMockito.given(last.getScrollId()).willReturn("s3");
+    SearchRequestBuilder exportRequest = BDDMockito.mock(SearchRequestBuilder.class, BDDMockito.RETURNS_DEEP_STUBS);
+    BDDMockito.willReturn(exportRequest).given(client).prepareSearch("tests");
+    BDDMockito.given(exportRequest.setQuery(BDDMockito.any(QueryBuilder.class))
+      .addSort(BDDMockito.any(SortBuilder.class)).setSize(2).setScroll(BDDMockito.any(TimeValue.class)).get())
+      .willReturn(first);
+    BDDMockito.given(client.prepareSearchScroll("s1").setScroll(BDDMockito.any(TimeValue.class)).get()).willReturn(second);
+    BDDMockito.given(client.prepareSearchScroll("s2").setScroll(BDDMockito.any(TimeValue.class)).get()).willReturn(last);
+
+    List<List<Long>> batches = Lists.newArrayList();
+    long exported = searchEngine.export(null, null, 2, batch -> batches.add(
+      batch.stream().map(AbstractDTO::getId).collect(Collectors.toList())));
+
+    Assert.assertEquals(3, exported);
+    Assert.assertEquals(Lists.newArrayList(Lists.newArrayList(1L, 2L), Lists.newArrayList(3L)), batches);
+    BDDMockito.verify(client.prepareClearScroll()).addScrollId("s3");
+  }
+
+  private SearchResult<TestDTO> searchAfter(SearchResponse response, String cursor) {
+    BDDMockito.given(searchRequest.get(BDDMockito.any(TimeValue.class))).willReturn(response);
+    SearchEngineImpl<TestDTO> engine = new SearchEngineImpl<TestDTO>(client, objectMapper, configuration) {
+      @Override
+      public SearchRequestBuilder prepareSearchAfter(String q, Pageable pageable, Iterable<QueryBuilder> filters,
+        String cursor) {
+        return searchRequest;
+      }
+    };
+    return engine.searchAfter("q", pageable, null, cursor);
+  }
+
+  private SearchResponse response(long totalHits, SearchHit... hits) {
+    SearchResponse response = BDDMockito.mock(SearchResponse.class);
+    SearchHits searchHits = BDDMockito.mock(SearchHits.class);
+    BDDMockito.given(searchHits.getHits()).willReturn(hits);
+    BDDMockito.given(searchHits.getTotalHits()).willReturn(totalHits);
+    BDDMockito.given(response.getHits()).willReturn(searchHits);
+    return response;
+  }
+
+  private static SearchHit hit(Long id) {
+    SearchHit hit = BDDMockito.mock(SearchHit.class);
+    BDDMockito.given(hit.sourceRef()).willReturn(new BytesArray("{\"dto\":{\"id\":" + id + "}}"));
+    BDDMockito.given(hit.getSortValues()).willReturn(new Object[]{id});
+    return hit;
+  }
+
+  private List<Long> ids(SearchResult<TestDTO> result) {
+    return result.getPage().getContent().stream().map(AbstractDTO::getId).collect(Collectors.toList());
+  }
+
+  private JsonNode source(SearchRequestBuilder searchRequest) throws Exception {
+    return objectMapper.readTree(searchRequest.toString());
+  }
+
+  public static class TestDTO extends AbstractDTO {
+
+  }
+}
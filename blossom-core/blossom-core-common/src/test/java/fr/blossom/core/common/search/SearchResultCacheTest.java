@@ -0,0 +1,104 @@
+package fr.blossom.core.common.search;
+
+import fr.blossom.core.cache.CacheInvalidationBus;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageImpl;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchResultCacheTest {
+
+  @Mock
+  private SearchRequestBuilder request;
+
+  @Mock
+  private CacheInvalidationBus invalidationBus;
+
+  private SearchResultCache searchResultCache;
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Supplier<SearchResult<Object>> loader = () -> {
+    loads.incrementAndGet();
+    return new SearchResult<>(0, new PageImpl<>(Collections.emptyList()));
+  };
+
+  @Before
+  public void setUp() {
+    BDDMockito.given(request.toString()).willReturn("{\"query\":{}}");
+    this.searchResultCache = new SearchResultCache(new ConcurrentMapCacheManager());
+    this.searchResultCache.setInvalidationBus(invalidationBus);
+  }
+
+  @Test
+  public void test_result_is_read_once() {
+    SearchResult<Object> first = searchResultCache.get("users", request, loader);
+    SearchResult<Object> second = searchResultCache.get("users", request, loader);
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void test_write_outdates_results_until_refresh() throws InterruptedException {
+    searchResultCache.get("users", request, loader);
+
+    searchResultCache.invalidate("users");
+    searchResultCache.get("users", request, loader);
+    searchResultCache.get("users", request, loader);
+    Assert.assertEquals("results read before the refresh aren't cached", 3, loads.get());
+
+    Thread.sleep(1100);
+    searchResultCache.get("users", request, loader);
+    searchResultCache.get("users", request, loader);
+    Assert.assertEquals("results read after the refresh are cached", 4, loads.get());
+  }
+
+  @Test
+  public void test_write_keeps_results_of_other_aliases() {
+    searchResultCache.get("roles", request, loader);
+
+    searchResultCache.invalidate("users");
+    searchResultCache.get("roles", request, loader);
+
+    Assert.assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void test_write_is_broadcast() {
+    searchResultCache.invalidate("users");
+
+    BDDMockito.verify(invalidationBus).subscribe(searchResultCache);
+    BDDMockito.verify(invalidationBus).publish(SearchResultCache.CACHE_NAME, "users");
+  }
+
+  @Test
+  public void test_write_of_another_node_outdates_results() {
+    searchResultCache.get("users", request, loader);
+
+    searchResultCache.onInvalidation(SearchResultCache.CACHE_NAME, "users");
+    searchResultCache.get("users", request, loader);
+
+    Assert.assertEquals(2, loads.get());
+    BDDMockito.verify(invalidationBus, BDDMockito.never())
+      .publish(BDDMockito.anyString(), BDDMockito.any());
+  }
+
+  @Test
+  public void test_invalidation_of_other_caches_is_ignored() {
+    searchResultCache.get("users", request, loader);
+
+    searchResultCache.onInvalidation("omnisearch", "users");
+    searchResultCache.get("users", request, loader);
+
+    Assert.assertEquals(1, loads.get());
+  }
+}
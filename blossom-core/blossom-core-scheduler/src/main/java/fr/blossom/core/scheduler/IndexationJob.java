@@ -10,9 +10,27 @@ import org.quartz.*;
 @DisallowConcurrentExecution
 public abstract class IndexationJob implements Job {
 
+  /**
+   * Job data key : when true, only the elements modified since the last run are indexed. Executions
+   * without it, such as the ones triggered by hand, rebuild the whole index.
+   */
+  public static final String DELTA = "delta";
+
+  /**
+   * Execution context key holding the {@link fr.blossom.core.common.search.IndexationProgress} of the
+   * running indexation, read by the scheduler screens.
+   */
+  public static final String PROGRESS = "indexationProgress";
+
   @Override
   public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
-    getIndexationEngine().indexFull();
+    JobDataMap jobDataMap = jobExecutionContext.getMergedJobDataMap();
+    jobExecutionContext.put(PROGRESS, getIndexationEngine().getProgress());
+    if (jobDataMap.containsKey(DELTA) && jobDataMap.getBooleanValue(DELTA)) {
+      getIndexationEngine().indexDelta();
+    } else {
+      getIndexationEngine().indexFull();
+    }
   }
 
   protected abstract IndexationEngine getIndexationEngine();
@@ -0,0 +1,28 @@
+package fr.blossom.core.scheduler;
+
+import fr.blossom.core.common.search.IndexationOutbox;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Ships the indexation operations left over in the {@link IndexationOutbox}. The clustered job store
+ * runs it on a single node at a time.
+ */
+@DisallowConcurrentExecution
+public class IndexationOutboxJob implements Job {
+
+  @Autowired
+  private IndexationOutbox indexationOutbox;
+
+  @Override
+  public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+    try {
+      this.indexationOutbox.drain();
+    } catch (Exception e) {
+      throw new JobExecutionException("Can't drain the indexation outbox", e);
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package fr.blossom.core.scheduler.job;
 
+import fr.blossom.core.common.search.IndexationProgress;
+import fr.blossom.core.scheduler.IndexationJob;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobKey;
@@ -64,6 +66,15 @@ public class JobInfo {
   public boolean isExecuting(){
     return jobExecutionContexts.stream().anyMatch(exec -> triggers.contains(exec.getTrigger()));
   }
+  public IndexationProgress getIndexationProgress() {
+    return jobExecutionContexts.stream()
+      .filter(exec -> exec.getJobDetail().getKey().equals(key))
+      .map(exec -> exec.get(IndexationJob.PROGRESS))
+      .filter(progress -> progress instanceof IndexationProgress)
+      .map(progress -> (IndexationProgress) progress)
+      .findFirst().orElse(null);
+  }
+
   public boolean isExecuting(Trigger trigger){
     return jobExecutionContexts.stream().anyMatch(exec -> exec.getTrigger().equals(trigger));
   }
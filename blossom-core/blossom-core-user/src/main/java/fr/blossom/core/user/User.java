@@ -46,10 +46,6 @@ public class User extends AbstractEntity {
   @Column(name = "function")
   private String function;
 
-  @Lob
-  @Column(name = "avatar")
-  private byte[] avatar;
-
   @Convert(converter = LocaleConverter.class)
   @Column(name = "locale", nullable = false)
   private Locale locale;
@@ -150,14 +146,6 @@ public class User extends AbstractEntity {
     this.function = function;
   }
 
-  public byte[] getAvatar() {
-    return avatar;
-  }
-
-  public void setAvatar(byte[] avatar) {
-    this.avatar = avatar;
-  }
-
   public Locale getLocale() {
     return locale;
   }
@@ -0,0 +1,52 @@
+package fr.blossom.core.user;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+/**
+ * The avatar of a {@link User}, stored apart from it so that users are read without their image.
+ * It shares the id of its user, and holds the hash of its content to be served with an ETag without
+ * being read.
+ */
+@Entity
+@Table(name = "blossom_user_avatar")
+public class UserAvatar {
+
+  @Id
+  @Column(name = "id")
+  private Long id;
+
+  @Lob
+  @Column(name = "avatar", nullable = false)
+  private byte[] avatar;
+
+  @Column(name = "hash", nullable = false)
+  private String hash;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public byte[] getAvatar() {
+    return avatar;
+  }
+
+  public void setAvatar(byte[] avatar) {
+    this.avatar = avatar;
+  }
+
+  public String getHash() {
+    return hash;
+  }
+
+  public void setHash(String hash) {
+    this.hash = hash;
+  }
+}
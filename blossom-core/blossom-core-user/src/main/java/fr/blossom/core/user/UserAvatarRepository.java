@@ -0,0 +1,13 @@
+package fr.blossom.core.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAvatarRepository extends JpaRepository<UserAvatar, Long> {
+
+  @Query("select a.hash from UserAvatar a where a.id = ?1")
+  String findHashById(Long id);
+
+}
@@ -19,5 +19,9 @@ public interface UserDao extends CrudDao<User> {
 
   User updateLastConnection(Long id, Date lastConnection);
 
-  User updateAvatar(Long id, byte[] avatar);
+  UserAvatar getAvatar(long id);
+
+  String getAvatarHash(long id);
+
+  UserAvatar updateAvatar(Long id, byte[] avatar);
 }
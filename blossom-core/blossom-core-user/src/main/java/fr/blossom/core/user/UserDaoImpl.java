@@ -6,6 +6,9 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CachePut;
 
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.PathBuilder;
 
 import fr.blossom.core.common.dao.GenericCrudDaoImpl;
 
@@ -15,11 +18,14 @@ import fr.blossom.core.common.dao.GenericCrudDaoImpl;
 @CacheConfig(cacheResolver = "blossomCacheResolver")
 public class UserDaoImpl extends GenericCrudDaoImpl<User> implements UserDao {
   private final UserRepository userRepository;
+  private final UserAvatarRepository userAvatarRepository;
 
-  public UserDaoImpl(UserRepository repository) {
+  public UserDaoImpl(UserRepository repository, UserAvatarRepository userAvatarRepository) {
     super(repository);
     Preconditions.checkNotNull(repository);
+    Preconditions.checkNotNull(userAvatarRepository);
     this.userRepository = repository;
+    this.userAvatarRepository = userAvatarRepository;
   }
 
   @Override
@@ -36,6 +42,14 @@ public class UserDaoImpl extends GenericCrudDaoImpl<User> implements UserDao {
     return originalEntity;
   }
 
+  /**
+   * Loads the most recently connected users first.
+   */
+  @Override
+  protected OrderSpecifier<?> getWarmUpOrder(PathBuilder<User> path) {
+    return path.getDate("lastConnection", Date.class).desc().nullsLast();
+  }
+
   @Override
   public User getByIdentifier(String identifier) {
     return this.userRepository.findOneByIdentifier(identifier).orElse(null);
@@ -63,11 +77,25 @@ public class UserDaoImpl extends GenericCrudDaoImpl<User> implements UserDao {
   }
 
   @Override
-  @CachePut(key = "#a0+''")
-  public User updateAvatar(Long id, byte[] avatar) {
-    User user = repository.findOne(id);
-    user.setAvatar(avatar);
-    return repository.save(user);
+  public UserAvatar getAvatar(long id) {
+    return this.userAvatarRepository.findOne(id);
+  }
+
+  @Override
+  public String getAvatarHash(long id) {
+    return this.userAvatarRepository.findHashById(id);
+  }
+
+  @Override
+  public UserAvatar updateAvatar(Long id, byte[] avatar) {
+    UserAvatar userAvatar = this.userAvatarRepository.findOne(id);
+    if (userAvatar == null) {
+      userAvatar = new UserAvatar();
+      userAvatar.setId(id);
+    }
+    userAvatar.setAvatar(avatar);
+    userAvatar.setHash(Hashing.sha256().hashBytes(avatar).toString());
+    return this.userAvatarRepository.save(userAvatar);
   }
 
   @Override
@@ -35,4 +35,8 @@ public interface UserService extends CrudService<UserDTO> {
 
   byte[] loadAvatar(long id) throws IOException;
 
+  byte[] loadAvatar(long id, int size) throws IOException;
+
+  String getAvatarHash(long id) throws IOException;
+
 }
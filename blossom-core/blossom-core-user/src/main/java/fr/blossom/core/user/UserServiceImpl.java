@@ -1,15 +1,24 @@
 package fr.blossom.core.user;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import fr.blossom.core.common.event.CreatedEvent;
 import fr.blossom.core.common.event.UpdatedEvent;
 import fr.blossom.core.common.mapper.DTOMapper;
 import fr.blossom.core.common.service.GenericCrudServiceImpl;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
+import javax.imageio.ImageIO;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,10 +29,18 @@ import org.springframework.transaction.annotation.Transactional;
  */
 public class UserServiceImpl extends GenericCrudServiceImpl<UserDTO, User> implements UserService {
 
+  private final static long THUMBNAILS_MAX_WEIGHT = 16 * 1024 * 1024;
+
   private final PasswordEncoder passwordEncoder;
   private final UserDao userDao;
   private final UserMailService userMailService;
   private final Resource defaultAvatar;
+  private volatile byte[] defaultAvatarContent;
+  private volatile String defaultAvatarHash;
+  private final Cache<String, byte[]> thumbnails = CacheBuilder.newBuilder()
+    .maximumWeight(THUMBNAILS_MAX_WEIGHT)
+    .weigher((String key, byte[] thumbnail) -> thumbnail.length)
+    .build();
 
   public UserServiceImpl(UserDao dao, DTOMapper<User, UserDTO> mapper,
     ApplicationEventPublisher publisher,
@@ -138,12 +155,87 @@ public class UserServiceImpl extends GenericCrudServiceImpl<UserDTO, User> imple
 
   @Override
   public byte[] loadAvatar(long id) throws IOException {
-    User user = this.userDao.getOne(id);
-    if (user != null && user.getAvatar() != null) {
-      return user.getAvatar();
+    UserAvatar userAvatar = this.userDao.getAvatar(id);
+    if (userAvatar != null) {
+      return userAvatar.getAvatar();
     } else {
-      return ByteStreams.toByteArray(defaultAvatar.getInputStream());
+      return this.loadDefaultAvatar();
+    }
+  }
+
+  /**
+   * Returns the avatar of a user, or the default one, scaled down to fit in a square of the given
+   * size and encoded as PNG. Avatars that already fit or can't be decoded are returned as is.
+   * Thumbnails are kept in memory by hash of the avatar and size, so an avatar is scaled once per
+   * size until it changes.
+   *
+   * @param id the id of the user
+   * @param size the size of the square, in pixels
+   * @return the thumbnail
+   */
+  @Override
+  public byte[] loadAvatar(long id, int size) throws IOException {
+    Preconditions.checkArgument(size > 0, "Thumbnail size must be positive");
+    String key = this.getAvatarHash(id) + "-" + size;
+    byte[] thumbnail = this.thumbnails.getIfPresent(key);
+    if (thumbnail == null) {
+      thumbnail = this.scaleAvatar(this.loadAvatar(id), size);
+      this.thumbnails.put(key, thumbnail);
+    }
+    return thumbnail;
+  }
+
+  private byte[] scaleAvatar(byte[] avatar, int size) throws IOException {
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(avatar));
+    if (image == null || (image.getWidth() <= size && image.getHeight() <= size)) {
+      return avatar;
+    }
+
+    double ratio = Math.min((double) size / image.getWidth(), (double) size / image.getHeight());
+    int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+    int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+    BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = thumbnail.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.drawImage(image, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ImageIO.write(thumbnail, "png", output);
+    return output.toByteArray();
+  }
+
+  /**
+   * Returns the hash of the avatar of a user, or of the default one, read without the avatar itself.
+   *
+   * @param id the id of the user
+   * @return the hash of the avatar
+   */
+  @Override
+  public String getAvatarHash(long id) throws IOException {
+    String hash = this.userDao.getAvatarHash(id);
+    if (hash != null) {
+      return hash;
+    }
+    this.loadDefaultAvatar();
+    return this.defaultAvatarHash;
+  }
+
+  private byte[] loadDefaultAvatar() throws IOException {
+    if (this.defaultAvatarContent == null) {
+      synchronized (this) {
+        if (this.defaultAvatarContent == null) {
+          byte[] content = ByteStreams.toByteArray(defaultAvatar.getInputStream());
+          this.defaultAvatarHash = "default-" + Hashing.sha256().hashBytes(content).toString();
+          this.defaultAvatarContent = content;
+        }
+      }
     }
+    return this.defaultAvatarContent;
   }
 
   protected String generateRandomPasswordHash() {
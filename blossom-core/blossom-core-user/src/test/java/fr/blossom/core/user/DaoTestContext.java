@@ -19,8 +19,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 public class DaoTestContext {
 
     @Bean
-    public UserDao userDao(UserRepository userRepository) {
-        return new UserDaoImpl(userRepository);
+    public UserDao userDao(UserRepository userRepository, UserAvatarRepository userAvatarRepository) {
+        return new UserDaoImpl(userRepository, userAvatarRepository);
     }
 
     @Bean
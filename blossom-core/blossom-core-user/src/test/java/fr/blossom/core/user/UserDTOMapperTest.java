@@ -38,7 +38,6 @@ public class UserDTOMapperTest {
     userToMap.setPhone("somePhone");
     userToMap.setCompany("someCompany");
     userToMap.setFunction("someFunction");
-    userToMap.setAvatar(new byte[]{0});
     userToMap.setLocale(Locale.FRANCE);
 
     UserDTO mappedUser = userMapper.mapEntity(userToMap);
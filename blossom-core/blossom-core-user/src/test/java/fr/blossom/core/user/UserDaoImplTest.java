@@ -1,10 +1,23 @@
 package fr.blossom.core.user;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import fr.blossom.core.common.dao.KeysetSlice;
+
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -16,6 +29,9 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -33,9 +49,15 @@ public class UserDaoImplTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserAvatarRepository userAvatarRepository;
+
   @Autowired
   private UserDao userDao;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
   @Spy
   @InjectMocks
   private UserDaoImpl userDaoImpl;
@@ -57,6 +79,30 @@ public class UserDaoImplTest {
     Assert.assertNotNull(result);
   }
 
+  @Test
+  public void test_create_generates_the_id_or_keeps_the_one_set() {
+
+    User generated = new User();
+    generated.setFirstname("F");
+    generated.setLastname("L");
+    generated.setPasswordHash("H");
+    generated.setIdentifier("I1");
+    generated.setEmail("E1");
+    generated.setLocale(Locale.FRANCE);
+    User assigned = new User();
+    assigned.setId(42L);
+    assigned.setFirstname("F");
+    assigned.setLastname("L");
+    assigned.setPasswordHash("H");
+    assigned.setIdentifier("I2");
+    assigned.setEmail("E2");
+    assigned.setLocale(Locale.FRANCE);
+
+    Assert.assertNotNull(userDao.create(generated).getId());
+    Assert.assertEquals(Long.valueOf(42L), userDao.create(assigned).getId());
+    Assert.assertEquals("I2", userDao.getOne(42L).getIdentifier());
+  }
+
   @Test
   public void test_get_by_email_without_result() {
 
@@ -88,15 +134,216 @@ public class UserDaoImplTest {
     Assert.assertNull(result);
   }
 
+  @Test
+  public void test_bulk_operations_only_detach_their_own_entities() {
+    User managed = userDao.create(this.user(0));
+    List<User> users = Lists.newArrayList(this.user(1), this.user(2), this.user(3));
+
+    List<User> created = userDao.create(users);
+    Assert.assertTrue(entityManager.contains(managed));
+    Assert.assertTrue(created.stream().noneMatch(entityManager::contains));
+
+    Map<Long, User> toUpdates = created.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+    List<User> updated = userDao.update(toUpdates);
+    Assert.assertTrue(entityManager.contains(managed));
+    Assert.assertTrue(updated.stream().noneMatch(entityManager::contains));
+
+    userDao.delete(updated);
+    Assert.assertTrue(entityManager.contains(managed));
+    Assert.assertEquals(Lists.newArrayList(managed.getId()),
+      userDao.getAll().stream().map(User::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void test_stream_all_users_by_chunks() {
+    for (int i = 0; i < 5; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      userDao.create(user);
+    }
+
+    List<Long> ids = userDao.stream(2).map(User::getId).collect(Collectors.toList());
+    Assert.assertEquals(5, ids.size());
+    Assert.assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+  }
+
+  @Test
+  public void test_get_summaries_only_reads_requested_properties() {
+    for (int i = 0; i < 3; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setDescription("D" + i);
+      user.setLocale(Locale.FRANCE);
+      userDao.create(user);
+    }
+
+    Page<User> summaries = userDao.getSummaries(new PageRequest(0, 2, Direction.ASC, "firstname"),
+      Lists.newArrayList("firstname", "email"));
+
+    Assert.assertEquals(3, summaries.getTotalElements());
+    Assert.assertEquals(2, summaries.getContent().size());
+    User summary = summaries.getContent().get(0);
+    Assert.assertNotNull(summary.getId());
+    Assert.assertEquals("F0", summary.getFirstname());
+    Assert.assertEquals("E0", summary.getEmail());
+    Assert.assertNull(summary.getDescription());
+  }
+
+  @Test
+  public void test_get_ids_modified_since_and_existing_ids() {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      user.setModificationDate(new Date(i * 1000L));
+      ids.add(userDao.create(user).getId());
+    }
+
+    Assert.assertEquals(Sets.newHashSet(ids.get(1), ids.get(2)),
+      Sets.newHashSet(userDao.getIdsModifiedSince(new Date(1000L))));
+    Assert.assertEquals(Sets.newHashSet(ids.get(0)),
+      userDao.getExistingIds(Lists.newArrayList(ids.get(0), 123456789L)));
+  }
+
+  @Test
+  public void test_get_id_bounds_and_all_in_id_range() {
+    Assert.assertNull(userDao.getIdBounds());
+
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      ids.add(userDao.create(user).getId());
+    }
+    Collections.sort(ids);
+
+    Assert.assertEquals(Range.closed(ids.get(0), ids.get(3)), userDao.getIdBounds());
+    List<User> users = userDao.getAllInIdRange(ids.get(1), ids.get(3), 2);
+    Assert.assertEquals(Lists.newArrayList(ids.get(1), ids.get(2)),
+      users.stream().map(User::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void test_get_all_by_keyset_slices() {
+    for (int i = 0; i < 5; i++) {
+      User user = new User();
+      user.setFirstname("F" + (i % 2));
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      userDao.create(user);
+    }
+
+    List<User> users = new ArrayList<>();
+    String continuationToken = null;
+    KeysetSlice<User> slice;
+    do {
+      slice = userDao.getAll(new PageRequest(0, 2, Direction.DESC, "firstname"), continuationToken);
+      users.addAll(slice.getContent());
+      continuationToken = slice.getContinuationToken();
+    } while (slice.hasNext());
+
+    Assert.assertEquals(5, users.size());
+    Assert.assertEquals(5, users.stream().map(User::getId).distinct().count());
+    Assert.assertEquals("F1", users.get(0).getFirstname());
+    Assert.assertEquals("F0", users.get(4).getFirstname());
+    Assert.assertEquals(5, userDao.count());
+  }
+
+  @Test
+  public void test_get_all_by_keyset_slices_on_nullable_property() {
+    Date[] lastConnections = {null, new Date(2000), null, new Date(1000), null};
+    for (int i = 0; i < lastConnections.length; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      user.setLastConnection(lastConnections[i]);
+      userDao.create(user);
+    }
+
+    for (Direction direction : Direction.values()) {
+      List<User> users = new ArrayList<>();
+      String continuationToken = null;
+      KeysetSlice<User> slice;
+      do {
+        slice = userDao.getAll(new PageRequest(0, 2, direction, "lastConnection"), continuationToken);
+        users.addAll(slice.getContent());
+        continuationToken = slice.getContinuationToken();
+      } while (slice.hasNext());
+
+      Assert.assertEquals(5, users.size());
+      Assert.assertEquals(5, users.stream().map(User::getId).distinct().count());
+      Assert.assertEquals(direction == Direction.ASC ? 1000 : 2000, users.get(0).getLastConnection().getTime());
+      Assert.assertEquals(direction == Direction.ASC ? 2000 : 1000, users.get(1).getLastConnection().getTime());
+      Assert.assertTrue(users.subList(2, 5).stream().allMatch(user -> user.getLastConnection() == null));
+    }
+  }
+
+  @Test
+  public void test_bulk_create_and_update() {
+    List<User> toCreates = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      toCreates.add(user);
+    }
+
+    List<User> created = userDao.create(toCreates);
+    Assert.assertEquals(3, created.size());
+    Assert.assertEquals(3, userDao.count());
+
+    created.forEach(user -> user.setFirstname("B"));
+    Map<Long, User> toUpdates = created.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+    List<User> updated = userDao.update(toUpdates);
+    Assert.assertEquals(3, updated.size());
+    Assert.assertTrue(userDao.getAll().stream().allMatch(user -> "B".equals(user.getFirstname())));
+  }
+
   @Test
   public void test_user_dao_impl_repository_not_null() throws Exception {
-    new UserDaoImpl(userRepository);
+    new UserDaoImpl(userRepository, userAvatarRepository);
   }
 
   @Test
   public void test_user_dao_impl_repository_null() throws Exception {
     thrown.expect(NullPointerException.class);
-    new UserDaoImpl(null);
+    new UserDaoImpl(null, userAvatarRepository);
+  }
+
+  @Test
+  public void test_user_dao_impl_avatar_repository_null() throws Exception {
+    thrown.expect(NullPointerException.class);
+    new UserDaoImpl(userRepository, null);
   }
 
   @Test
@@ -140,14 +387,51 @@ public class UserDaoImplTest {
   }
 
   @Test
-  public void test_update_avatar() throws Exception {
-    User userToFind = new User();
-    userToFind.setAvatar(new byte[]{0});
-    BDDMockito.given(userRepository.findOne(BDDMockito.anyLong())).willReturn(userToFind);
-    BDDMockito.given(userRepository.save(BDDMockito.any(User.class))).willReturn(userToFind);
+  public void test_get_warm_up_ids_most_recently_connected_first() {
+    List<Long> ids = new ArrayList<>();
+    Date[] lastConnections = {new Date(1000), new Date(2000), null};
+    for (int i = 0; i < lastConnections.length; i++) {
+      User user = new User();
+      user.setFirstname("F" + i);
+      user.setLastname("L" + i);
+      user.setPasswordHash("H" + i);
+      user.setIdentifier("I" + i);
+      user.setEmail("E" + i);
+      user.setLocale(Locale.FRANCE);
+      user.setLastConnection(lastConnections[i]);
+      ids.add(userDao.create(user).getId());
+    }
+
+    Assert.assertEquals(Lists.newArrayList(ids.get(1), ids.get(0)), userDao.getWarmUpIds(2));
+    Assert.assertEquals(Lists.newArrayList(ids.get(1), ids.get(0), ids.get(2)), userDao.getWarmUpIds(10));
+  }
+
+  @Test
+  public void test_update_avatar_creates_it() throws Exception {
+    BDDMockito.given(userAvatarRepository.findOne(BDDMockito.anyLong())).willReturn(null);
+    BDDMockito.given(userAvatarRepository.save(BDDMockito.any(UserAvatar.class)))
+      .willAnswer(invocation -> invocation.getArguments()[0]);
+
+    byte[] avatar = new byte[]{1};
+    UserAvatar userAvatar = userDaoImpl.updateAvatar(123456789L, avatar);
+    Assert.assertEquals(Long.valueOf(123456789L), userAvatar.getId());
+    Assert.assertEquals(avatar, userAvatar.getAvatar());
+    Assert.assertNotNull(userAvatar.getHash());
+  }
+
+  @Test
+  public void test_update_avatar_changes_hash() throws Exception {
+    UserAvatar userAvatarToFind = new UserAvatar();
+    userAvatarToFind.setId(123456789L);
+    userAvatarToFind.setAvatar(new byte[]{0});
+    userAvatarToFind.setHash("someHash");
+    BDDMockito.given(userAvatarRepository.findOne(BDDMockito.anyLong())).willReturn(userAvatarToFind);
+    BDDMockito.given(userAvatarRepository.save(BDDMockito.any(UserAvatar.class))).willReturn(userAvatarToFind);
 
     byte[] avatar = new byte[]{1};
-    Assert.assertEquals(avatar, userDaoImpl.updateAvatar(123456789L, avatar).getAvatar());
+    UserAvatar userAvatar = userDaoImpl.updateAvatar(123456789L, avatar);
+    Assert.assertEquals(avatar, userAvatar.getAvatar());
+    Assert.assertNotEquals("someHash", userAvatar.getHash());
   }
 
   @Test
@@ -166,4 +450,15 @@ public class UserDaoImplTest {
 
     Assert.assertNull(userDaoImpl.updateLastConnection(123456789L, new Date()));
   }
+
+  private User user(int i) {
+    User user = new User();
+    user.setFirstname("F" + i);
+    user.setLastname("L" + i);
+    user.setPasswordHash("H" + i);
+    user.setIdentifier("I" + i);
+    user.setEmail("E" + i);
+    user.setLocale(Locale.FRANCE);
+    return user;
+  }
 }
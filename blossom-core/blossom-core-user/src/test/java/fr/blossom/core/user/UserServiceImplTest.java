@@ -1,7 +1,10 @@
 package fr.blossom.core.user;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Date;
+import javax.imageio.ImageIO;
 
 import org.junit.Assert;
 import org.junit.Rule;
@@ -188,19 +191,19 @@ public class UserServiceImplTest {
 
   @Test
   public void test_load_avatar_not_null() throws Exception {
-    User userToReturn = new User();
+    UserAvatar userAvatarToReturn = new UserAvatar();
     byte[] avatar = new byte[]{0};
-    userToReturn.setAvatar(avatar);
-    BDDMockito.given(userDao.getOne(BDDMockito.anyLong())).willReturn(userToReturn);
+    userAvatarToReturn.setAvatar(avatar);
+    BDDMockito.given(userDao.getAvatar(BDDMockito.anyLong())).willReturn(userAvatarToReturn);
 
     Assert.assertEquals(avatar, userService.loadAvatar(123456789L));
   }
 
   @Test
-  public void test_load_avatar_user_null_so_fallback_to_default() throws Exception {
+  public void test_load_avatar_null_so_fallback_to_default() throws Exception {
     byte[] bytes = new byte[]{};
     ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
-    BDDMockito.given(userDao.getOne(BDDMockito.anyLong())).willReturn(null);
+    BDDMockito.given(userDao.getAvatar(BDDMockito.anyLong())).willReturn(null);
     BDDMockito.given(defaultAvatar.getInputStream()).willReturn(inputStream);
 
     userService.loadAvatar(123456789L);
@@ -208,16 +211,67 @@ public class UserServiceImplTest {
   }
 
   @Test
-  public void test_load_avatar_user_not_nul_but_avatar_null_so_fallback_to_default() throws Exception {
-    byte[] bytes = new byte[]{};
-    ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
-    BDDMockito.given(userDao.getOne(BDDMockito.anyLong())).willReturn(new User());
-    BDDMockito.given(defaultAvatar.getInputStream()).willReturn(inputStream);
+  public void test_load_default_avatar_read_once() throws Exception {
+    byte[] bytes = new byte[]{1};
+    BDDMockito.given(userDao.getAvatar(BDDMockito.anyLong())).willReturn(null);
+    BDDMockito.given(defaultAvatar.getInputStream()).willReturn(new ByteArrayInputStream(bytes));
 
-    userService.loadAvatar(123456789L);
+    Assert.assertArrayEquals(bytes, userService.loadAvatar(123456789L));
+    Assert.assertArrayEquals(bytes, userService.loadAvatar(987654321L));
     BDDMockito.verify(defaultAvatar, BDDMockito.times(1)).getInputStream();
   }
 
+  @Test
+  public void test_get_avatar_hash_not_null() throws Exception {
+    BDDMockito.given(userDao.getAvatarHash(BDDMockito.anyLong())).willReturn("someHash");
+
+    Assert.assertEquals("someHash", userService.getAvatarHash(123456789L));
+    BDDMockito.verify(defaultAvatar, BDDMockito.times(0)).getInputStream();
+  }
+
+  @Test
+  public void test_get_avatar_hash_null_so_fallback_to_default() throws Exception {
+    BDDMockito.given(userDao.getAvatarHash(BDDMockito.anyLong())).willReturn(null);
+    BDDMockito.given(defaultAvatar.getInputStream()).willReturn(new ByteArrayInputStream(new byte[]{1}));
+
+    Assert.assertTrue(userService.getAvatarHash(123456789L).startsWith("default-"));
+  }
+
+  @Test
+  public void test_load_avatar_thumbnail() throws Exception {
+    BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", output);
+    UserAvatar userAvatarToReturn = new UserAvatar();
+    userAvatarToReturn.setAvatar(output.toByteArray());
+    BDDMockito.given(userDao.getAvatar(BDDMockito.anyLong())).willReturn(userAvatarToReturn);
+    BDDMockito.given(userDao.getAvatarHash(BDDMockito.anyLong())).willReturn("someHash");
+
+    BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(userService.loadAvatar(123456789L, 50)));
+    Assert.assertEquals(50, thumbnail.getWidth());
+    Assert.assertEquals(25, thumbnail.getHeight());
+  }
+
+  @Test
+  public void test_load_avatar_thumbnail_scaled_once_per_hash_and_size() throws Exception {
+    BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", output);
+    UserAvatar userAvatarToReturn = new UserAvatar();
+    userAvatarToReturn.setAvatar(output.toByteArray());
+    BDDMockito.given(userDao.getAvatar(BDDMockito.anyLong())).willReturn(userAvatarToReturn);
+    BDDMockito.given(userDao.getAvatarHash(BDDMockito.anyLong())).willReturn("someHash");
+
+    byte[] thumbnail = userService.loadAvatar(123456789L, 50);
+    Assert.assertSame(thumbnail, userService.loadAvatar(123456789L, 50));
+    BDDMockito.verify(userDao, BDDMockito.times(1)).getAvatar(123456789L);
+
+    userService.loadAvatar(123456789L, 60);
+    BDDMockito.given(userDao.getAvatarHash(BDDMockito.anyLong())).willReturn("otherHash");
+    userService.loadAvatar(123456789L, 50);
+    BDDMockito.verify(userDao, BDDMockito.times(3)).getAvatar(123456789L);
+  }
+
   @Test
   public void test_generate_random_password_hash() throws Exception {
     String passwordHash = "someHash";
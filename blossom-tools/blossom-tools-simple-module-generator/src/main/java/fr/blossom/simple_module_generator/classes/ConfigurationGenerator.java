@@ -19,7 +19,6 @@ import fr.blossom.simple_module_generator.GeneratorUtils;
 import fr.blossom.simple_module_generator.Parameters;
 import fr.blossom.ui.menu.MenuItem;
 import fr.blossom.ui.menu.MenuItemBuilder;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.Client;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -90,7 +89,6 @@ public class ConfigurationGenerator implements ClassGenerator {
       indexationEngineBean.annotate(Bean.class);
       JVar indexationEngineBeanEsClient = indexationEngineBean.param(Client.class, "client");
       JVar indexationEngineBeanService = indexationEngineBean.param(serviceClass, "service");
-      JVar indexationEngineBeanBulkProcessor = indexationEngineBean.param(BulkProcessor.class, "bulkProcessor");
       JVar indexationEngineBeanObjectMapper = indexationEngineBean.param(ObjectMapper.class,"objectMapper");
       JVar indexationEngineBeanMappings = indexationEngineBean.param(Resource.class, "resource");
       indexationEngineBeanMappings.annotate(Value.class).param("value", "classpath:/elasticsearch/"+parameters.getEntityNameLowerUnderscore()+".json");
@@ -104,7 +102,6 @@ public class ConfigurationGenerator implements ClassGenerator {
         .arg(parameters.getEntityNameLowerUnderscore()+"s")
         .arg(typeLambda)
         .arg(indexationEngineBeanService)
-        .arg(indexationEngineBeanBulkProcessor)
         .arg(indexationEngineBeanObjectMapper));
 
       JMethod searchEngineBean = definedClass.method(JMod.PUBLIC, codeModel.ref(SearchEngineImpl.class).narrow(dtoClass), parameters.getEntityNameLowerCamel()+"SearchEngine");
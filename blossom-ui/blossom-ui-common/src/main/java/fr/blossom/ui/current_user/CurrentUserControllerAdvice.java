@@ -1,6 +1,9 @@
 package fr.blossom.ui.current_user;
 
+import com.google.common.base.Preconditions;
+import fr.blossom.core.user.UserService;
 import fr.blossom.ui.stereotype.BlossomController;
+import java.io.IOException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -8,9 +11,22 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 @ControllerAdvice(annotations = BlossomController.class)
 public class CurrentUserControllerAdvice {
 
+  private final UserService userService;
+
+  public CurrentUserControllerAdvice(UserService userService) {
+    Preconditions.checkNotNull(userService);
+    this.userService = userService;
+  }
+
   @ModelAttribute("currentUser")
   public CurrentUser getCurrentUser(Authentication authentication) {
     return (authentication == null) ? null : (CurrentUser) authentication.getPrincipal();
   }
 
+  @ModelAttribute("currentUserAvatarHash")
+  public String getCurrentUserAvatarHash(Authentication authentication) throws IOException {
+    return (authentication == null) ? null
+      : this.userService.getAvatarHash(((CurrentUser) authentication.getPrincipal()).getUser().getId());
+  }
+
 }
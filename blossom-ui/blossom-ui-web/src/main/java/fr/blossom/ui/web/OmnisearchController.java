@@ -1,72 +1,93 @@
 package fr.blossom.ui.web;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import fr.blossom.core.common.dto.AbstractDTO;
-import fr.blossom.core.common.search.SearchEngine;
-import fr.blossom.core.common.search.SearchResult;
-import fr.blossom.core.common.search.SummaryDTO;
+import fr.blossom.core.common.search.Omnisearch;
+import fr.blossom.core.common.search.Omnisearch.Section;
 import fr.blossom.ui.stereotype.BlossomController;
-import java.util.Comparator;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
-import org.elasticsearch.action.search.MultiSearchRequestBuilder;
-import org.elasticsearch.action.search.MultiSearchResponse;
-import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.Client;
-import org.elasticsearch.common.unit.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.http.MediaType;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @BlossomController
 public class OmnisearchController {
 
-  private final Client client;
-  private final PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry;
+  private static final Logger logger = LoggerFactory.getLogger(OmnisearchController.class);
 
-  public OmnisearchController(Client client,
-    PluginRegistry<SearchEngine, Class<? extends AbstractDTO>> registry) {
-    this.client = client;
-    this.registry = registry;
+  private final Omnisearch omnisearch;
+
+  public OmnisearchController(Omnisearch omnisearch) {
+    this.omnisearch = omnisearch;
   }
 
+  /**
+   * Renders the omnisearch page right away, with the totals already known for the query : the
+   * sections are then filled by the page as they're streamed by {@link #omniSearchStream}.
+   */
   @GetMapping("/search")
   public ModelAndView omniSearch(
     @RequestParam(value = "q", defaultValue = "", required = false) String query,
-    @PageableDefault(size = 20) Pageable pageable,
     Model model) {
-    MultiSearchRequestBuilder request = client.prepareMultiSearch();
-    List<SearchEngine> plugins = registry.getPlugins().stream().filter(SearchEngine::includeInOmnisearch).collect(Collectors.toList());
-    plugins.forEach(engine -> request.add(engine.prepareSearch(query, pageable)));
-    MultiSearchResponse response = request.get(TimeValue.timeValueSeconds(15));
+    model.addAttribute("q", query);
+    model.addAttribute("engines", this.omnisearch.getEngineNames());
+    model.addAttribute("totals", this.omnisearch.getCachedTotals(query));
+    return new ModelAndView("omnisearch/omnisearch", model.asMap());
+  }
 
-    int index = 0;
-    Map<String, SearchResult<SummaryDTO>> results = Maps.newHashMap();
+  /**
+   * Streams the omnisearch as server-sent events : a {@code totals} event with the totals already
+   * known for the query, then a {@code section} event per engine as soon as it answers, times out or
+   * fails, and a final {@code complete} event.
+   */
+  @GetMapping("/search/_stream")
+  public SseEmitter omniSearchStream(
+    @RequestParam(value = "q", defaultValue = "", required = false) String query,
+    @PageableDefault(size = 20) Pageable pageable) throws IOException {
+    SseEmitter emitter = new SseEmitter(this.omnisearch.getEngineTimeout() + 5000);
+    emitter.send(SseEmitter.event().name("totals").data(this.omnisearch.getCachedTotals(query)));
 
-    List<MultiSearchResponse.Item> items = Lists.newArrayList(response.getResponses());
-    for (MultiSearchResponse.Item item : items) {
-      SearchResponse unitResponse = item.getResponse();
-      SearchEngine searchEngine = plugins.get(index);
-      SearchResult<SummaryDTO> result = searchEngine.parseSummaryResults(unitResponse, pageable);
-      results.put(searchEngine.getName(), result);
-      index++;
+    Map<String, CompletableFuture<Section>> sections = this.omnisearch.search(query, pageable);
+    List<CompletableFuture<Void>> sent = sections.values().stream()
+      .map(future -> future.thenAccept(section -> this.send(emitter, "section", this.toEvent(section))))
+      .collect(Collectors.toList());
+    CompletableFuture.allOf(sent.toArray(new CompletableFuture[sent.size()])).whenComplete((done, e) -> {
+      this.send(emitter, "complete", Collections.singletonMap("engines", sections.size()));
+      emitter.complete();
+    });
+    return emitter;
+  }
+
+  private Map<String, Object> toEvent(Section section) {
+    Map<String, Object> event = new LinkedHashMap<>();
+    event.put("name", section.getName());
+    event.put("status", section.getStatus());
+    event.put("total", section.getTotal());
+    if (section.getResult() != null) {
+      event.put("duration", section.getResult().getDuration());
+      event.put("items", section.getResult().getPage().getContent());
     }
+    return event;
+  }
 
-    model.addAttribute("q", query);
-    model.addAttribute("total", results.values().stream().mapToLong(r -> r.getPage().getTotalElements()).sum());
-    model.addAttribute("duration", results.values().stream().mapToLong(r -> r.getDuration()).max().getAsLong());
-    model.addAttribute("results", results.entrySet().stream()
-      .filter( e -> e.getValue().getPage().getTotalElements()!=0)
-      .sorted( Comparator.comparing((Entry<String, SearchResult<SummaryDTO>> e) -> e.getValue().getPage().getTotalElements()).reversed())
-      .collect(Collectors.toMap(e -> e.getKey(),e -> e.getValue(), (u, v) -> {throw new IllegalStateException(String.format("Duplicate key %s", u));}, LinkedHashMap::new)));
-    return new ModelAndView("omnisearch/omnisearch", model.asMap());
+  private void send(SseEmitter emitter, String name, Object data) {
+    synchronized (emitter) {
+      try {
+        emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+      } catch (IOException | IllegalStateException e) {
+        logger.debug("Can't send the omnisearch {} event, the client is gone", name, e);
+      }
+    }
   }
 }
@@ -1,6 +1,7 @@
 package fr.blossom.ui.web.administration.group;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import fr.blossom.core.common.search.SearchEngineImpl;
 import fr.blossom.core.group.GroupCreateForm;
 import fr.blossom.core.group.GroupDTO;
@@ -8,6 +9,7 @@ import fr.blossom.core.group.GroupService;
 import fr.blossom.core.group.GroupUpdateForm;
 import fr.blossom.ui.menu.OpenedMenu;
 import fr.blossom.ui.stereotype.BlossomController;
+import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import javax.servlet.http.HttpServletRequest;
@@ -36,6 +38,8 @@ public class GroupsController {
 
   private static final Logger logger = LoggerFactory.getLogger(GroupsController.class);
 
+  private static final List<String> TABLE_PROPERTIES = ImmutableList.of("name");
+
   private final GroupService groupService;
   private final SearchEngineImpl<GroupDTO> searchEngine;
 
@@ -55,7 +59,7 @@ public class GroupsController {
     Page<GroupDTO> groups;
 
     if (Strings.isNullOrEmpty(q)) {
-      groups = this.groupService.getAll(pageable);
+      groups = this.groupService.getSummaries(pageable, TABLE_PROPERTIES);
     } else {
       groups = this.searchEngine.search(q, pageable).getPage();
     }
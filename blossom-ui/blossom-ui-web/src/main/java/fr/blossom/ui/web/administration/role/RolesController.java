@@ -1,10 +1,12 @@
 package fr.blossom.ui.web.administration.role;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import fr.blossom.core.common.search.SearchEngineImpl;
+import fr.blossom.core.common.search.SearchResult;
 import fr.blossom.core.common.utils.privilege.Privilege;
 import fr.blossom.core.role.RoleCreateForm;
 import fr.blossom.core.role.RoleDTO;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
@@ -46,6 +49,8 @@ public class RolesController {
 
   private static final Logger logger = LoggerFactory.getLogger(RolesController.class);
 
+  private static final List<String> TABLE_PROPERTIES = ImmutableList.of("name");
+
   private final RoleService roleService;
   private final SearchEngineImpl<RoleDTO> searchEngine;
 
@@ -56,24 +61,25 @@ public class RolesController {
 
   @GetMapping
   @PreAuthorize("hasAuthority('administration:roles:read')")
-  public ModelAndView getRolesPage(@RequestParam(value = "q", required = false) String q,
+  public CompletableFuture<ModelAndView> getRolesPage(@RequestParam(value = "q", required = false) String q,
     @PageableDefault(size = 25) Pageable pageable, Model model) {
     return tableView(q, pageable, model, "roles/roles");
   }
 
-  private ModelAndView tableView(String q, Pageable pageable, Model model, String viewName) {
-    Page<RoleDTO> roles;
+  private CompletableFuture<ModelAndView> tableView(String q, Pageable pageable, Model model, String viewName) {
+    CompletableFuture<Page<RoleDTO>> roles;
 
     if (Strings.isNullOrEmpty(q)) {
-      roles = this.roleService.getAll(pageable);
+      roles = CompletableFuture.completedFuture(this.roleService.getSummaries(pageable, TABLE_PROPERTIES));
     } else {
-      roles = this.searchEngine.search(q, pageable).getPage();
+      roles = this.searchEngine.searchAsync(q, pageable).thenApply(SearchResult::getPage);
     }
 
-    model.addAttribute("roles", roles);
-    model.addAttribute("q", q);
-
-    return new ModelAndView(viewName, model.asMap());
+    return roles.thenApply(page -> {
+      model.addAttribute("roles", page);
+      model.addAttribute("q", q);
+      return new ModelAndView(viewName, model.asMap());
+    });
   }
 
   @GetMapping("/_create")
@@ -1,7 +1,9 @@
 package fr.blossom.ui.web.administration.user;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import fr.blossom.core.common.search.SearchEngineImpl;
+import fr.blossom.core.common.search.SearchResult;
 import fr.blossom.core.user.User;
 import fr.blossom.core.user.UserCreateForm;
 import fr.blossom.core.user.UserDTO;
@@ -9,9 +11,14 @@ import fr.blossom.core.user.UserService;
 import fr.blossom.core.user.UserUpdateForm;
 import fr.blossom.ui.menu.OpenedMenu;
 import fr.blossom.ui.stereotype.BlossomController;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.URLConnection;
+import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.slf4j.Logger;
@@ -19,7 +26,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -30,6 +40,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -42,6 +53,10 @@ public class UsersController {
 
   private static final Logger logger = LoggerFactory.getLogger(UsersController.class);
 
+  private static final List<String> TABLE_PROPERTIES = ImmutableList
+    .of("firstname", "lastname", "identifier", "function", "company", "email", "phone",
+      "lastConnection");
+
   private final UserService userService;
   private final SearchEngineImpl<UserDTO> searchEngine;
 
@@ -52,24 +67,25 @@ public class UsersController {
 
   @GetMapping
   @PreAuthorize("hasAuthority('administration:users:read')")
-  public ModelAndView getUsersPage(@RequestParam(value = "q", required = false) String q,
+  public CompletableFuture<ModelAndView> getUsersPage(@RequestParam(value = "q", required = false) String q,
     @PageableDefault(size = 25) Pageable pageable, Model model) {
     return tableView(q, pageable, model, "users/users");
   }
 
-  private ModelAndView tableView(String q, Pageable pageable, Model model, String viewName) {
-    Page<UserDTO> users;
+  private CompletableFuture<ModelAndView> tableView(String q, Pageable pageable, Model model, String viewName) {
+    CompletableFuture<Page<UserDTO>> users;
 
     if (Strings.isNullOrEmpty(q)) {
-      users = this.userService.getAll(pageable);
+      users = CompletableFuture.completedFuture(this.userService.getSummaries(pageable, TABLE_PROPERTIES));
     } else {
-      users = this.searchEngine.search(q, pageable).getPage();
+      users = this.searchEngine.searchAsync(q, pageable).thenApply(SearchResult::getPage);
     }
 
-    model.addAttribute("users", users);
-    model.addAttribute("q", q);
-
-    return new ModelAndView(viewName, model.asMap());
+    return users.thenApply(page -> {
+      model.addAttribute("users", page);
+      model.addAttribute("q", q);
+      return new ModelAndView(viewName, model.asMap());
+    });
   }
 
   @GetMapping("/_create")
@@ -115,7 +131,7 @@ public class UsersController {
 
   @GetMapping("/{id}/_informations")
   @PreAuthorize("hasAuthority('administration:users:read')")
-  public ModelAndView getUserInformations(@PathVariable Long id) {
+  public ModelAndView getUserInformations(@PathVariable Long id) throws IOException {
     UserDTO user = this.userService.getOne(id);
     if (user == null) {
       throw new NoSuchElementException(String.format("User=%s not found", id));
@@ -125,7 +141,8 @@ public class UsersController {
 
   @GetMapping("/{id}/_informations/_edit")
   @PreAuthorize("hasAuthority('administration:users:write')")
-  public ModelAndView getUserInformationsForm(@PathVariable Long id, Model model) {
+  public ModelAndView getUserInformationsForm(@PathVariable Long id, Model model)
+    throws IOException {
     UserDTO user = this.userService.getOne(id);
     if (user == null) {
       throw new NoSuchElementException(String.format("User=%s not found", id));
@@ -137,7 +154,7 @@ public class UsersController {
   @PreAuthorize("hasAuthority('administration:users:write')")
   public ModelAndView handleUserInformationsUpdateForm(@PathVariable Long id,
     @Valid @ModelAttribute("userUpdateForm") UserUpdateForm userUpdateForm,
-    BindingResult bindingResult, Model model) {
+    BindingResult bindingResult, Model model) throws IOException {
     UserDTO user = this.userService.getOne(id);
     if (user == null) {
       throw new NoSuchElementException(String.format("User=%s not found", id));
@@ -151,32 +168,64 @@ public class UsersController {
     return this.viewUserInformationView(updatedUser);
   }
 
-  private ModelAndView viewUserInformationView(UserDTO user) {
-    return new ModelAndView("users/userinformations", "user", user);
+  private ModelAndView viewUserInformationView(UserDTO user) throws IOException {
+    ModelAndView modelAndView = new ModelAndView("users/userinformations", "user", user);
+    modelAndView.addObject("avatarHash", this.userService.getAvatarHash(user.getId()));
+    return modelAndView;
   }
 
   private ModelAndView updateUserInformationView(UserUpdateForm userUpdateForm, UserDTO user,
-    Model model) {
+    Model model) throws IOException {
     model.addAttribute("userUpdateForm", userUpdateForm);
     model.addAttribute("user", user);
+    model.addAttribute("avatarHash", this.userService.getAvatarHash(user.getId()));
     model.addAttribute("civilities", User.Civility.values());
     return new ModelAndView("users/userinformations-edit", model.asMap());
   }
 
+  /**
+   * Serves the avatar of a user, or a thumbnail of it when a {@code size} is given, with an ETag built
+   * from the hash of its content : a conditional request matching it is answered with a
+   * {@literal 304} without reading the avatar.
+   * Requests carrying the hash as a {@code v} parameter, as rendered by the views, address an
+   * immutable content and are cached for a year, the others must be revalidated.
+   */
   @GetMapping(value = "/{id}/avatar", produces = "image/*")
   @ResponseBody
-  public byte[] displayAvatar(@PathVariable Long id) throws IOException {
-    return this.userService.loadAvatar(id);
+  public ResponseEntity<byte[]> displayAvatar(@PathVariable Long id,
+    @RequestParam(value = "size", required = false) Integer size,
+    @RequestParam(value = "v", required = false) String version,
+    WebRequest request) throws IOException {
+    String hash = this.userService.getAvatarHash(id);
+    String eTag = "\"" + hash + (size == null ? "" : "-" + size) + "\"";
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+
+    CacheControl cacheControl = hash.equals(version)
+      ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate()
+      : CacheControl.noCache().cachePrivate();
+
+    byte[] avatar = size == null ? this.userService.loadAvatar(id) : this.userService.loadAvatar(id, size);
+    return ResponseEntity.ok().cacheControl(cacheControl).eTag(eTag).contentType(this.contentType(avatar))
+      .body(avatar);
+  }
+
+  private MediaType contentType(byte[] avatar) throws IOException {
+    String contentType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(avatar));
+    return contentType == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(contentType);
   }
 
   @GetMapping("/{id}/_avatar/_edit")
   @PreAuthorize("hasAuthority('administration:users:write')")
-  public ModelAndView getUserAvatarForm(@PathVariable Long id, Model model) {
+  public ModelAndView getUserAvatarForm(@PathVariable Long id, Model model) throws IOException {
     UserDTO user = this.userService.getOne(id);
     if (user == null) {
       throw new NoSuchElementException(String.format("User=%s not found", id));
     }
-    return new ModelAndView("users/useravatar-edit-modal", "user", user);
+    ModelAndView modelAndView = new ModelAndView("users/useravatar-edit-modal", "user", user);
+    modelAndView.addObject("avatarHash", this.userService.getAvatarHash(id));
+    return modelAndView;
   }
 
   @PostMapping("/{id}/_avatar/_edit")
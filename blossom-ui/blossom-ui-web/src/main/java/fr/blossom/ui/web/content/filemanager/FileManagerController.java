@@ -1,5 +1,6 @@
 package fr.blossom.ui.web.content.filemanager;
 
+import com.google.common.collect.ImmutableList;
 import fr.blossom.core.common.search.SearchEngineImpl;
 import fr.blossom.module.filemanager.FileDTO;
 import fr.blossom.module.filemanager.FileService;
@@ -33,6 +34,8 @@ import java.util.Optional;
 @OpenedMenu("filemanager")
 public class FileManagerController {
   private static final Logger logger = LoggerFactory.getLogger(FileManagerController.class);
+
+  private static final List<String> LIST_PROPERTIES = ImmutableList.of("name", "extension", "contentType", "size");
   private final FileService fileService;
   private final SearchEngineImpl<FileDTO> searchEngine;
 
@@ -56,7 +59,7 @@ public class FileManagerController {
     if (!StringUtils.isEmpty(q)) {
       files = searchEngine.search(q, pageable).getPage();
     } else {
-      files = fileService.getAll(pageable);
+      files = fileService.getSummaries(pageable, LIST_PROPERTIES);
     }
     model.addAttribute("files", files);
     return new ModelAndView("content/filemanager/filelist", model.asMap());
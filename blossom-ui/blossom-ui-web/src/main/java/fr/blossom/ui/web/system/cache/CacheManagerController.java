@@ -41,6 +41,7 @@ public class CacheManagerController {
         Map<String, Object> data = Maps.newHashMap();
         data.put("stats", stats);
         data.put("size", ((Cache) cache.getNativeCache()).estimatedSize());
+        data.put("bytes", this.cacheManager.getEstimatedBytes(cache.getName()));
 
         caches.put(cache.getName(), data);
       }
@@ -5,6 +5,7 @@ import fr.blossom.core.association_user_role.AssociationUserRoleDTO;
 import fr.blossom.core.association_user_role.AssociationUserRoleService;
 import fr.blossom.core.common.event.AfterDissociatedEvent;
 import fr.blossom.core.common.event.AssociatedEvent;
+import fr.blossom.core.common.event.BatchUpdatedEvent;
 import fr.blossom.core.common.event.UpdatedEvent;
 import fr.blossom.core.role.RoleDTO;
 import fr.blossom.ui.current_user.CurrentUser;
@@ -34,6 +35,22 @@ public class BlossomSessionRegistryImpl extends SessionRegistryImpl {
     }
   }
 
+  @EventListener
+  public void handleRolePrivilegeUpdate(BatchUpdatedEvent<?> event) {
+    List<RoleDTO> roles = event.getDTOs().stream()
+      .filter(dto -> dto instanceof RoleDTO)
+      .map(dto -> (RoleDTO) dto)
+      .collect(Collectors.toList());
+
+    Set<Long> userIds = associationUserRoleService.getAllRight(roles).stream()
+      .map(association -> association.getA().getId())
+      .collect(Collectors.toSet());
+
+    if (!userIds.isEmpty()) {
+      invalidateUserSessions(userIds);
+    }
+  }
+
   @EventListener
   public void handleRolePrivilegeUpdate(AssociatedEvent<?> event) {
     if (event.getDTO() instanceof AssociationUserRoleDTO) {
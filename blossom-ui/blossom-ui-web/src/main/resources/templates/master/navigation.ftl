@@ -10,7 +10,7 @@
       <li class="nav-header">
         <div class="dropdown profile-element text-center">
           <span>
-            <img alt="image" class="img-circle" width="80" height="80" src="/blossom/administration/users/${currentUser.user.id?c}/avatar">
+            <img alt="image" class="img-circle" width="80" height="80" src="/blossom/administration/users/${currentUser.user.id?c}/avatar?size=160&v=${currentUserAvatarHash!}">
           </span>
           <span class="clear text-white">
             <span class="block m-t-xs">
@@ -21,16 +21,26 @@
   <div class="row">
     <div class="col-lg-12">
       <div class="ibox float-e-margins">
-        <div class="ibox-content">
+        <div class="ibox-content sk-loading">
+          <div class="sk-spinner sk-spinner-double-bounce">
+            <div class="sk-double-bounce1"></div>
+            <div class="sk-double-bounce2"></div>
+          </div>
+
           <h2>
-            <#assign sizeArgs = ["${total?c}"]/>
-            <@spring.messageArgs "omnisearch.total" sizeArgs />&nbsp;<span class="text-navy">“${q}”</span>
+            <@spring.messageArgs "omnisearch.total" ["<span class=\"omnisearch-total\">0</span>"] />&nbsp;<span class="text-navy">“${q}”</span>
           </h2>
-          <small>
-            <#assign durationArgs = ["${(duration / 1000)?c}"]/>
-            <@spring.messageArgs "omnisearch.duration" durationArgs />
+          <small class="omnisearch-duration hidden">
+            <@spring.messageArgs "omnisearch.duration" ["<span class=\"omnisearch-duration-value\"></span>"] />
           </small>
 
+          <div class="alert alert-warning m-t-sm omnisearch-timed-out hidden">
+            <@spring.messageArgs "omnisearch.timed.out" ["<span class=\"omnisearch-timed-out-value\"></span>"] />
+          </div>
+          <div class="alert alert-danger m-t-sm omnisearch-failed hidden">
+            <@spring.messageArgs "omnisearch.failed" ["<span class=\"omnisearch-failed-value\"></span>"] />
+          </div>
+
           <div class="search-form m-b-lg">
             <form action="/blossom/search" method="GET">
               <div class="input-group">
@@ -44,46 +54,103 @@
             </form>
           </div>
 
-          <#if results?size == 0>
-            <div class="alert alert-default text-center">
-              <@spring.message "list.no.element.found.label"/>
-            </div>
-          <#else>
+          <div class="alert alert-default text-center omnisearch-empty hidden">
+            <@spring.message "list.no.element.found.label"/>
+          </div>
+
           <div class="tabs-container">
             <ul class="nav nav-tabs">
-                <#list results as key, searchResult>
-                  <li class="<#if key?is_first>active</#if>"><a data-toggle="tab" href="#tab_${key?index}" aria-expanded="true">
-                    <@spring.messageText key key/> (${searchResult.page.totalElements?c})
-                  </a></li>
-                </#list>
+              <#list engines as engine>
+                <li class="hidden" data-engine="${engine}" data-total="${(totals[engine]!0)?c}">
+                  <a data-toggle="tab" href="#tab_${engine?index}" aria-expanded="false">
+                    <span class="omnisearch-section-label"><@spring.messageText engine engine/></span> (<span class="omnisearch-section-total">${(totals[engine]!0)?c}</span>)
+                  </a>
+                </li>
+              </#list>
             </ul>
             <div class="tab-content">
-              <#list results as key, searchResult>
-                <div id="tab_${key?index}" class="tab-pane <#if key?is_first>active</#if>">
-                  <div class="panel-body">
-                    <#if searchResult.page.content?size gt 0>
-                      <#list searchResult.page.content as item>
-                        <div class="hr-line-dashed"></div>
-                        <div class="search-result">
-                          <h3><a href="${item.uri}">${item.name}</a></h3>
-                          <a href="${item.uri}" class="search-link">${item.uri}</a>
-                          <p>
-                            ${item.description!''}
-                          </p>
-                        </div>
-                      </#list>
-                    <#else>
-                      No result
-                    </#if>
-                  </div>
+              <#list engines as engine>
+                <div id="tab_${engine?index}" class="tab-pane" data-engine="${engine}">
+                  <div class="panel-body"></div>
                 </div>
               </#list>
             </div>
           </div>
-          </#if>
         </div>
       </div>
     </div>
   </div>
 </div>
+
+<script>
+  $(document).ready(function () {
+    var total = 0, durations = [], timedOut = [], failed = [];
+    var tab = function (name) { return $('.nav-tabs > li').filter(function () { return $(this).data('engine') === name; }); };
+    var pane = function (name) { return $('.tab-content > .tab-pane').filter(function () { return $(this).data('engine') === name; }); };
+    var label = function (name) { return $.trim(tab(name).find('.omnisearch-section-label').text()); };
+
+    var source = new EventSource('/blossom/search/_stream' + window.location.search);
+
+    source.addEventListener('totals', function (event) {
+      $.each(JSON.parse(event.data), function (name, sectionTotal) {
+        tab(name).data('total', sectionTotal).find('.omnisearch-section-total').text(sectionTotal);
+      });
+    });
+
+    source.addEventListener('section', function (event) {
+      var section = JSON.parse(event.data);
+      if (section.status === 'TIMED_OUT') {
+        timedOut.push(label(section.name));
+        $('.omnisearch-timed-out-value').text(timedOut.join(', '));
+        $('.omnisearch-timed-out').removeClass('hidden');
+        return;
+      }
+      if (section.status === 'FAILED') {
+        failed.push(label(section.name));
+        $('.omnisearch-failed-value').text(failed.join(', '));
+        $('.omnisearch-failed').removeClass('hidden');
+        return;
+      }
+
+      total += section.total;
+      durations.push(section.duration);
+      $('.omnisearch-total').text(total);
+      $('.omnisearch-duration-value').text(Math.max.apply(null, durations) / 1000);
+      $('.omnisearch-duration').removeClass('hidden');
+      if (section.total === 0) {
+        return;
+      }
+
+      var body = pane(section.name).find('.panel-body').empty();
+      $.each(section.items, function (i, item) {
+        body.append($('<div class="hr-line-dashed"></div>'));
+        body.append($('<div class="search-result"></div>')
+          .append($('<h3></h3>').append($('<a></a>').attr('href', item.uri).text(item.name)))
+          .append($('<a class="search-link"></a>').attr('href', item.uri).text(item.uri))
+          .append($('<p></p>').text(item.description || '')));
+      });
+      tab(section.name).data('total', section.total).removeClass('hidden')
+        .find('.omnisearch-section-total').text(section.total);
+
+      var tabs = $('.nav-tabs > li:not(.hidden)').sort(function (a, b) { return $(b).data('total') - $(a).data('total'); });
+      $('.nav-tabs').append(tabs);
+      if ($('.nav-tabs > li.active').length === 0) {
+        tabs.first().find('a').tab('show');
+      }
+    });
+
+    source.addEventListener('complete', function () {
+      source.close();
+      $('.ibox-content').removeClass('sk-loading');
+      if ($('.nav-tabs > li:not(.hidden)').length === 0) {
+        $('.omnisearch-empty').removeClass('hidden');
+      }
+    });
+
+    source.onerror = function () {
+      source.close();
+      $('.ibox-content').removeClass('sk-loading');
+    };
+  });
+</script>
 </@master.default>
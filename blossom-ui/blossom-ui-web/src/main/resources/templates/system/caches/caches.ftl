@@ -56,6 +56,7 @@
           <th>Name</th>
           <th>Action</th>
           <th>Estimated size</th>
+          <th>Estimated memory</th>
           <th>Hit count</th>
           <th>Miss count</th>
           <th>Load success</th>
@@ -79,6 +80,9 @@
             ${caches[cacheKey].size?c}
             </td>
             <td>
+            ${(caches[cacheKey].bytes / 1024)?string["0.#"]} KB
+            </td>
+            <td>
             ${caches[cacheKey].stats.hitCount()}
             </td>
 
@@ -52,6 +52,22 @@
       </div>
     </div>
     <br/>
+    <#if jobInfo.indexationProgress?? && jobInfo.indexationProgress.running>
+      <#assign progress = jobInfo.indexationProgress/>
+      <strong class="m-t-lg"><@spring.message "scheduler.progress.title"/> (${progress.mode})</strong>
+
+      <div class="row">
+        <div class="col-lg-12">
+          <div class="progress progress-small m-t-sm">
+            <div style="width: ${progress.percentage}%;" class="progress-bar"></div>
+          </div>
+          <span class="m-r-sm"><@spring.message "scheduler.progress.indexed"/> : ${progress.indexed} / ${progress.total} (${progress.percentage}%)</span>
+          <span class="m-r-sm"><@spring.message "scheduler.progress.throughput"/> : ${progress.throughput} /s</span>
+          <span class="m-r-sm"><@spring.message "scheduler.progress.failed"/> : ${progress.failed}</span>
+        </div>
+      </div>
+      <br/>
+    </#if>
     <strong class="m-t-lg"><@spring.message "scheduler.triggers.title"/></strong>
 
     <div class="row">
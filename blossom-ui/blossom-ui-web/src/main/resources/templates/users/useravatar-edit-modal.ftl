@@ -15,7 +15,7 @@
   <div class="row">
     <div class="col-md-6">
       <div class="image-crop" style="width:100%">
-        <img src="/blossom/administration/users/${user.id?c}/avatar" style="width:100%;max-width: 100%;">
+        <img src="/blossom/administration/users/${user.id?c}/avatar?v=${avatarHash}" style="width:100%;max-width: 100%;">
       </div>
     </div>
     <div class="col-md-6">
@@ -116,7 +116,7 @@
             var date = new Date();
             $.each($(document).find(".profile-image img"),function(index, image){
               var $image = $(image);
-              $image.attr("src",$image.attr("src")+"?" +date.getTime())
+              $image.attr("src",$image.attr("src").split("?")[0]+"?" +date.getTime())
             });
           <@notification.success/>
           },
@@ -117,7 +117,7 @@
       <label class="col-sm-2 control-label"><@spring.message "users.user.properties.avatar"/></label>
       <div class="col-sm-10 profile-image">
         <a data-target="#userAvatarUpdateForm" data-toggle="modal">
-          <img src="/blossom/administration/users/${user.id?c}/avatar" class="img-circle circle-border m-b-md" alt="profile">
+          <img src="/blossom/administration/users/${user.id?c}/avatar?v=${avatarHash}" class="img-circle circle-border m-b-md" alt="profile">
         </a>
       </div>
     </div>
@@ -87,7 +87,7 @@
         <label class="col-sm-2 control-label"><@spring.message "users.user.properties.avatar"/></label>
 
         <div class="col-sm-10 profile-image">
-          <img src="/blossom/administration/users/${user.id?c}/avatar" class="img-circle circle-border m-b-md" alt="profile" >
+          <img src="/blossom/administration/users/${user.id?c}/avatar?v=${avatarHash}" class="img-circle circle-border m-b-md" alt="profile" >
         </div>
       </div>
 